@@ -0,0 +1,50 @@
+package coursework.bench;
+
+import coursework.model.FoodOrder;
+import coursework.model.Review;
+import coursework.repository.ListDispatcher;
+import coursework.service.Services;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Masinis užkrovimas per repository.restore – tas pats kelias, kuriuo eina
+// snapshot'o / log'o atkūrimas ir JPA režimo užkrovimas paleidžiant.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Dauth.iterations=1"})
+@State(Scope.Thread)
+public class BulkLoadBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    private List<FoodOrder> orders;
+    private List<Review> reviews;
+    private Services target;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        Dataset data = new Dataset();
+        orders = new ArrayList<>(size);
+        reviews = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            FoodOrder o = data.advance(data.newOrder(3));
+            o.setId(i);
+            orders.add(o);
+            reviews.add(data.newReview(i));
+        }
+        target = new Services(ListDispatcher.DIRECT);
+    }
+
+    @Benchmark
+    public Services loadOrdersAndReviews() {
+        orders.forEach(target.getOrderService().getRepository()::restore);
+        reviews.forEach(target.getReviewService().getRepository()::restore);
+        return target;
+    }
+}
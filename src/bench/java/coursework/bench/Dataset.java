@@ -0,0 +1,125 @@
+package coursework.bench;
+
+import coursework.model.Cuisine;
+import coursework.model.Driver;
+import coursework.model.FoodOrder;
+import coursework.model.OrderStatus;
+import coursework.model.Restaurant;
+import coursework.model.BasicUser;
+import coursework.model.Review;
+import coursework.model.VehicleType;
+import coursework.repository.ListDispatcher;
+import coursework.service.Services;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Sintetiniai duomenys benchmark'ams. Servisai kuriami su ListDispatcher.DIRECT,
+// todėl JavaFX toolkit'as nereikalingas (benchmark'ai vienagijai).
+// Fork'ai leidžiami su -Dauth.iterations=1: slaptažodžių PBKDF2 kaina čia tik pailgintų setup'ą.
+final class Dataset {
+
+    static final int RESTAURANTS = 100;
+    static final int DRIVERS = 100;
+    static final int DISHES_PER_RESTAURANT = 20;
+
+    // atsitiktinių id eilė – kad JIT nenuspėtų prieigos šablono
+    private static final int PICKS = 1 << 16;
+
+    final Services services = new Services(ListDispatcher.DIRECT);
+    final List<BasicUser> buyers = new ArrayList<>();
+    final List<Restaurant> restaurants = new ArrayList<>();
+    final List<Driver> drivers = new ArrayList<>();
+    final List<Cuisine> dishes = new ArrayList<>();
+
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    Dataset() {
+        for (int i = 0; i < RESTAURANTS; i++) {
+            restaurants.add(services.getRestaurantService().createRestaurant(
+                    "rest" + i, "pass", "Restaurant", "#" + i, "+3706000" + i, "Vilnius"));
+            buyers.add(services.getBasicUserService().createBasicUser(
+                    "buyer" + i, "pass", "Buyer", "#" + i, "+3706100" + i, "Kaunas", false));
+        }
+        for (int i = 0; i < DRIVERS; i++) {
+            drivers.add(services.getDriverService().createDriver(
+                    "driver" + i, "pass", "Driver", "#" + i, "+3706200" + i, "Vilnius",
+                    "LT" + i, LocalDate.of(1990, 1, 1), VehicleType.values()[i % VehicleType.values().length], true));
+        }
+        for (Restaurant r : restaurants) {
+            for (int j = 0; j < DISHES_PER_RESTAURANT; j++) {
+                dishes.add(services.getCuisineService().createCuisine(
+                        "Dish " + j, "salt, pepper", 2.5 + j, j % 3 == 0, j % 4 == 0, r));
+            }
+        }
+    }
+
+    Restaurant randomRestaurant() {
+        return restaurants.get(random.nextInt(restaurants.size()));
+    }
+
+    Driver randomDriver() {
+        return drivers.get(random.nextInt(drivers.size()));
+    }
+
+    BasicUser randomBuyer() {
+        return buyers.get(random.nextInt(buyers.size()));
+    }
+
+    // kaip OrdersController.addOrder(): kaina – per PricingService
+    FoodOrder newOrder(int dishCount) {
+        Restaurant restaurant = randomRestaurant();
+        int first = restaurants.indexOf(restaurant) * DISHES_PER_RESTAURANT;
+        List<Cuisine> selected = new ArrayList<>(dishCount);
+        for (int i = 0; i < dishCount; i++) {
+            selected.add(dishes.get(first + random.nextInt(DISHES_PER_RESTAURANT)));
+        }
+
+        FoodOrder order = new FoodOrder();
+        order.setName("Order");
+        order.setBuyer(randomBuyer());
+        order.setRestaurant(restaurant);
+        order.setDriver(randomDriver());
+        order.initStatus(OrderStatus.PENDING);
+        services.getPricingService().price(order, selected);
+        order.setCreatedAt(LocalDateTime.now());
+        return order;
+    }
+
+    // atsitiktinis kelias per leidžiamus perėjimus – užsakymai įvairiuose statusuose
+    // (statusas kitaip nenustatomas); update kviečia pats kvietėjas
+    FoodOrder advance(FoodOrder order) {
+        for (int steps = random.nextInt(8); steps > 0 && !order.getStatus().isFinal(); steps--) {
+            OrderStatus[] next = order.getStatus().next().toArray(OrderStatus[]::new);
+            order.compareAndSetStatus(order.getStatus(), next[random.nextInt(next.length)]);
+        }
+        return order;
+    }
+
+    Review newReview(int id) {
+        Review r = new Review();
+        r.setId(id);
+        r.setCommentOwner(randomBuyer());
+        if (random.nextBoolean()) {
+            r.setRestaurant(randomRestaurant());
+        } else {
+            r.setDriver(randomDriver());
+        }
+        r.setRating(1 + random.nextInt(5));
+        r.setText("ok");
+        r.setCreatedAt(LocalDateTime.now());
+        return r;
+    }
+
+    // ids[0..count) atsitiktine tvarka, ciklinei peržiūrai per (cursor & mask)
+    long[] randomPicks(long[] ids, int count) {
+        long[] picks = new long[PICKS];
+        for (int i = 0; i < picks.length; i++) {
+            picks[i] = ids[random.nextInt(count)];
+        }
+        return picks;
+    }
+}
@@ -0,0 +1,69 @@
+package coursework.bench;
+
+import coursework.model.FoodOrder;
+import coursework.model.Money;
+import coursework.model.OrderStatus;
+import coursework.service.OrderColumns;
+import coursework.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+// Pajamos laiko lange pagal statusą: ciklas per OrderColumns primityvius masyvus
+// prieš tą patį skaičiavimą einant per FoodOrder objektus.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Dauth.iterations=1"})
+@State(Scope.Thread)
+public class OrderAnalyticsBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int size;
+
+    private OrderService orders;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private int mask;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Dataset data = new Dataset();
+        orders = data.services.getOrderService();
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < size; i++) {
+            FoodOrder o = data.newOrder(3);
+            o.setCreatedAt(start.plusMinutes(i));
+            orders.add(o);
+            orders.update(data.advance(o));
+        }
+        from = start.plusMinutes(size / 4);
+        to = start.plusMinutes(size * 3L / 4);
+        mask = OrderColumns.mask(OrderStatus.DELIVERED, OrderStatus.COMPLETED);
+    }
+
+    @Benchmark
+    public long revenueColumns() {
+        return orders.getColumns().sum(from, to, mask).revenueMinor();
+    }
+
+    @Benchmark
+    public long revenueObjects() {
+        long revenue = 0;
+        for (FoodOrder o : orders.getRepository().values()) {
+            OrderStatus s = o.getStatus();
+            if ((s == OrderStatus.DELIVERED || s == OrderStatus.COMPLETED)
+                    && !o.getCreatedAt().isBefore(from) && o.getCreatedAt().isBefore(to)) {
+                revenue += Money.toMinor(o.getPrice());
+            }
+        }
+        return revenue;
+    }
+
+    @Benchmark
+    public long[] revenueByRestaurantColumns() {
+        return orders.getColumns().groupBy(OrderColumns.Key.RESTAURANT, from, to, mask).revenueMinor();
+    }
+}
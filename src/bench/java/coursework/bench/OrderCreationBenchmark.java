@@ -0,0 +1,44 @@
+package coursework.bench;
+
+import coursework.model.FoodOrder;
+import coursework.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Užsakymo sukūrimas kaip OrdersController.addOrder(): kainos skaičiavimas iš
+// patiekalų ir orderService.add (id, repository, indeksai, statistika).
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Dauth.iterations=1"})
+@State(Scope.Thread)
+public class OrderCreationBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    @Param({"1", "5"})
+    public int dishes;
+
+    private Dataset data;
+    private OrderService orders;
+
+    // kiekviena iteracija prasideda nuo tiek pat esamų užsakymų
+    @Setup(Level.Iteration)
+    public void setUp() {
+        data = new Dataset();
+        orders = data.services.getOrderService();
+        for (int i = 0; i < size; i++) {
+            orders.add(data.newOrder(3));
+        }
+    }
+
+    @Benchmark
+    public FoodOrder addOrder() {
+        FoodOrder order = data.newOrder(dishes);
+        orders.add(order);
+        return order;
+    }
+}
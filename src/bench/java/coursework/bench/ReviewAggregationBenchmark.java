@@ -0,0 +1,63 @@
+package coursework.bench;
+
+import coursework.model.Restaurant;
+import coursework.model.Review;
+import coursework.service.RatingAggregates;
+import coursework.service.ReviewService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Restorano reitingas: palaikomi agregatai (ReviewService.getRestaurantRating)
+// prieš pilną review peržiūrą, kaip buvo skaičiuojama anksčiau.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Dauth.iterations=1"})
+@State(Scope.Thread)
+public class ReviewAggregationBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    private Dataset data;
+    private ReviewService reviews;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        data = new Dataset();
+        reviews = data.services.getReviewService();
+        for (int i = 0; i < size; i++) {
+            reviews.getRepository().add(data.newReview(Math.toIntExact(reviews.getRepository().nextId())));
+        }
+    }
+
+    @Benchmark
+    public double restaurantRating() {
+        RatingAggregates.Summary summary = reviews.getRestaurantRating(data.randomRestaurant());
+        return summary.getAverage();
+    }
+
+    @Benchmark
+    public double restaurantRatingScan() {
+        Restaurant restaurant = data.randomRestaurant();
+        long sum = 0;
+        long count = 0;
+        for (Review r : reviews.getAllReviews()) {
+            if (r.getRestaurant() == restaurant) {
+                sum += r.getRating();
+                count++;
+            }
+        }
+        return count == 0 ? 0.0 : (double) sum / count;
+    }
+
+    // naujas review + agregatų atnaujinimas; trinamas, kad dydis nesikeistų
+    @Benchmark
+    public Review createAndDeleteReview() {
+        Review r = reviews.createReview(data.randomBuyer(), null, data.randomRestaurant(), null, 4, "ok");
+        reviews.deleteReview(r.getId());
+        return r;
+    }
+}
@@ -0,0 +1,187 @@
+package coursework.bench;
+
+import coursework.model.BasicUser;
+import coursework.model.Cuisine;
+import coursework.model.Driver;
+import coursework.model.FoodOrder;
+import coursework.model.Money;
+import coursework.model.Restaurant;
+import coursework.model.Review;
+import coursework.model.VehicleType;
+import coursework.service.Services;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+import java.util.function.LongPredicate;
+
+// findById / update / delete kiekvienam servisui prie 10k, 100k ir 1M įrašų.
+// delete matuojamas kartu su restore, kad dydis per iteraciją nesikeistų.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Dauth.iterations=1"})
+@State(Scope.Thread)
+public class ServiceBenchmark {
+
+    @Param({"user", "restaurant", "driver", "cuisine", "order", "review"})
+    public String service;
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    private LongFunction<Object> find;
+    private LongPredicate update;
+    private LongPredicate deleteAndRestore;
+    private long[] picks;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Dataset data = new Dataset();
+        Services s = data.services;
+        long[] ids = new long[size];
+
+        switch (service) {
+            case "user" -> {
+                var users = s.getBasicUserService();
+                for (int i = 0; i < size; i++) {
+                    ids[i] = users.createBasicUser("user" + i, "pass", "Name", "Surname", "+370", "Vilnius", false).getId();
+                }
+                find = users::findById;
+                update = id -> {
+                    BasicUser u = users.findById(id);
+                    u.setPhoneNumber(u.getPhoneNumber());
+                    return users.updateBasicUser(u);
+                };
+                deleteAndRestore = id -> {
+                    BasicUser u = users.findById(id);
+                    users.deleteBasicUser(id);
+                    users.getRepository().restore(u);
+                    return true;
+                };
+            }
+            case "restaurant" -> {
+                var restaurants = s.getRestaurantService();
+                for (int i = 0; i < size; i++) {
+                    ids[i] = restaurants.createRestaurant("r" + i, "pass", "Name", "Surname", "+370", "Vilnius").getId();
+                }
+                find = restaurants::findById;
+                update = id -> {
+                    Restaurant r = restaurants.findById(id);
+                    r.setAddress(r.getAddress());
+                    return restaurants.updateRestaurant(r);
+                };
+                deleteAndRestore = id -> {
+                    Restaurant r = restaurants.findById(id);
+                    restaurants.deleteRestaurant(id);
+                    restaurants.getRepository().restore(r);
+                    return true;
+                };
+            }
+            case "driver" -> {
+                var drivers = s.getDriverService();
+                for (int i = 0; i < size; i++) {
+                    ids[i] = drivers.createDriver("d" + i, "pass", "Name", "Surname", "+370", "Vilnius",
+                            "LT" + i, LocalDate.of(1990, 1, 1), VehicleType.values()[0], true).getId();
+                }
+                find = drivers::findById;
+                update = id -> {
+                    Driver d = drivers.findById(id);
+                    d.setAvailable(!d.isAvailable());
+                    return drivers.updateDriver(d);
+                };
+                deleteAndRestore = id -> {
+                    Driver d = drivers.findById(id);
+                    drivers.deleteDriver(id);
+                    drivers.getRepository().restore(d);
+                    return true;
+                };
+            }
+            case "cuisine" -> {
+                var cuisines = s.getCuisineService();
+                for (int i = 0; i < size; i++) {
+                    ids[i] = cuisines.createCuisine("Dish " + i, "salt", 5.0, false, false,
+                            data.randomRestaurant()).getId();
+                }
+                find = id -> cuisines.findById((int) id);
+                update = id -> {
+                    Cuisine c = cuisines.findById((int) id);
+                    c.setPrice(Money.toMajor(Money.toMinor(c.getPrice()) + 1));
+                    return cuisines.updateCuisine(c);
+                };
+                deleteAndRestore = id -> {
+                    Cuisine c = cuisines.findById((int) id);
+                    cuisines.deleteCuisine((int) id);
+                    cuisines.getRepository().restore(c);
+                    return true;
+                };
+            }
+            case "order" -> {
+                var orders = s.getOrderService();
+                for (int i = 0; i < size; i++) {
+                    FoodOrder o = data.newOrder(3);
+                    orders.add(o);
+                    ids[i] = o.getId();
+                }
+                find = id -> orders.findById((int) id);
+                // restorano keitimas eina ir per antrinius indeksus, ir per statistiką
+                // (statusas keičiamas tik perėjimais – galutiniame statuse kartoti nebūtų ką)
+                update = id -> {
+                    FoodOrder o = orders.findById((int) id);
+                    o.setRestaurant(data.randomRestaurant());
+                    return orders.update(o);
+                };
+                deleteAndRestore = id -> {
+                    FoodOrder o = orders.findById((int) id);
+                    orders.delete((int) id);
+                    orders.getRepository().restore(o);
+                    return true;
+                };
+            }
+            case "review" -> {
+                var reviews = s.getReviewService();
+                for (int i = 0; i < size; i++) {
+                    Review r = data.newReview(Math.toIntExact(reviews.getRepository().nextId()));
+                    reviews.getRepository().add(r);
+                    ids[i] = r.getId();
+                }
+                find = id -> reviews.findById((int) id);
+                update = id -> {
+                    Review r = reviews.findById((int) id);
+                    r.setRating(r.getRating() % 5 + 1);
+                    return reviews.updateReview(r);
+                };
+                deleteAndRestore = id -> {
+                    Review r = reviews.findById((int) id);
+                    reviews.deleteReview((int) id);
+                    reviews.getRepository().restore(r);
+                    return true;
+                };
+            }
+            default -> throw new IllegalArgumentException("Unknown service: " + service);
+        }
+        picks = data.randomPicks(ids, size);
+    }
+
+    private long nextId() {
+        return picks[cursor++ & (picks.length - 1)];
+    }
+
+    @Benchmark
+    public Object findById() {
+        return find.apply(nextId());
+    }
+
+    @Benchmark
+    public boolean update() {
+        return update.test(nextId());
+    }
+
+    @Benchmark
+    public boolean deleteAndRestore() {
+        return deleteAndRestore.test(nextId());
+    }
+}
@@ -1,43 +1,81 @@
 package coursework.app;
 
 import coursework.app.controllers.*;
+import coursework.bulk.CatalogImport;
+import coursework.bulk.HistoryExport;
+import coursework.persistence.Storage;
 import coursework.service.*;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.scene.Scene;
+import javafx.scene.control.Alert;
 import javafx.scene.control.Tab;
 import javafx.scene.control.TabPane;
 import javafx.stage.Stage;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
 public class App extends Application {
 
+    private Closeable persistence;
+    private DispatchService dispatchService;
+
     @Override
     public void start(Stage primaryStage) {
 
+        // fono gijų klaidos (dispatch, persistence): stack trace į stderr ir pranešimas lange
+        Thread.setDefaultUncaughtExceptionHandler((thread, e) -> {
+            e.printStackTrace();
+            Platform.runLater(() -> new Alert(Alert.AlertType.ERROR, thread.getName() + ": " + e).show());
+        });
+
         // shared services
-        BasicUserService basicUserService = new BasicUserService();
-        RestaurantService restaurantService = new RestaurantService();
-        DriverService driverService = new DriverService();
-        CuisineService cuisineService = new CuisineService();
-        OrderService orderService = new OrderService();
-        ReviewService reviewService = new ReviewService();
+        Services services = new Services();
+        BasicUserService basicUserService = services.getBasicUserService();
+        RestaurantService restaurantService = services.getRestaurantService();
+        DriverService driverService = services.getDriverService();
+        CuisineService cuisineService = services.getCuisineService();
+        OrderService orderService = services.getOrderService();
+        ReviewService reviewService = services.getReviewService();
+
+        // atkuriam išsaugotą būseną (prieš controllerius, kad demo duomenys nesidubliuotų)
+        // -Dpersistence=jpa – per JPA į embedded DB, kitaip snapshot + log'as
+        try {
+            persistence = Storage.open(services);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        // automatinis driverių priskyrimas WAITING_FOR_DRIVER užsakymams
+        dispatchService = services.getDispatchService();
+        dispatchService.start();
 
         // controllers
-        UsersController usersController = new UsersController(basicUserService);
-        RestaurantController restaurantController = new RestaurantController(restaurantService);
+        CatalogImport catalogImport = new CatalogImport(services);
+        HistoryExport historyExport = new HistoryExport(services);
+        UsersController usersController = new UsersController(basicUserService, catalogImport);
+        RestaurantController restaurantController = new RestaurantController(restaurantService, catalogImport);
         DriversController driversController = new DriversController(driverService);
-        CuisineController cuisineController = new CuisineController(restaurantService, cuisineService);
+        CuisineController cuisineController = new CuisineController(restaurantService, cuisineService, catalogImport);
         OrdersController ordersController = new OrdersController(
                 orderService,
                 restaurantService,
                 driverService,
                 cuisineService,
-                basicUserService
+                basicUserService,
+                services.getPricingService(),
+                services.getChatService(),
+                historyExport,
+                dispatchService
         );
         ReviewController reviewController = new ReviewController(
                 reviewService,
                 basicUserService,
                 restaurantService,
-                driverService
+                driverService,
+                historyExport
         );
 
         // tabs
@@ -77,6 +115,16 @@ public class App extends Application {
         primaryStage.show();
     }
 
+    @Override
+    public void stop() throws IOException {
+        if (dispatchService != null) {
+            dispatchService.close();
+        }
+        if (persistence != null) {
+            persistence.close();
+        }
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
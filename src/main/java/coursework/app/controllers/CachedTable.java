@@ -0,0 +1,148 @@
+package coursework.app.controllers;
+
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.value.ObservableValue;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.SortedList;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+// Lentelė dideliam service sąrašui (šimtai tūkstančių – milijonai eilučių).
+// - TableView pats kuria langelius tik matomoms eilutėms; jų tekstai skaičiuojami tik tada,
+//   kai eilutė pirmą kartą parodoma, ir laikomi ribotame LRU cache (ne visų eilučių kopija);
+// - cache eilutė išmetama, kai service sąraše tas objektas pakeičiamas / ištrinamas;
+//   tekstai iš kitų objektų (restorano pavadinimas, driverio vardas) – per dependsOn: jų sąraše
+//   pakeitus / ištrynus objektą išvalomas visas cache (matomos eilutės perskaičiuojamos iš naujo);
+// - refresh() – vietoj table.refresh(): be cache išvalymo lentelė gautų tuos pačius tekstus;
+// - rūšiuojama per SortedList pagal stulpelių raktus (id, kaina, data...) – ne per langelių
+//   reikšmes, todėl rūšiavimas nekuria tekstų ir neišstumia matomų eilučių iš cache.
+// Tik FX gijai, kaip ir pats service sąrašas.
+public class CachedTable<T> {
+
+    private static final int MAX_ROWS = 4096;
+
+    private record Column<T>(TableColumn<T, String> column, Function<T, String> text, Comparator<T> key) {
+    }
+
+    private final TableView<T> table;
+    private final ToLongFunction<T> idOf;
+    private final SortedList<T> sorted;
+    private final List<Column<T>> columns = new ArrayList<>();
+
+    private final Map<Long, List<ObservableValue<String>>> rows = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, List<ObservableValue<String>>> eldest) {
+            return size() > MAX_ROWS;
+        }
+    };
+
+    public CachedTable(TableView<T> table, ObservableList<T> items, ToLongFunction<T> idOf) {
+        this.table = table;
+        this.idOf = idOf;
+
+        // pirma išmetam seną tekstą, tik tada pakeitimas pasiekia SortedList ir lentelę
+        items.addListener((ListChangeListener<T>) change -> {
+            while (change.next()) {
+                for (T removed : change.getRemoved()) {
+                    rows.remove(idOf.applyAsLong(removed));
+                }
+                if (change.wasAdded()) {
+                    for (T added : change.getAddedSubList()) {
+                        rows.remove(idOf.applyAsLong(added));
+                    }
+                }
+            }
+        });
+
+        this.sorted = new SortedList<>(items);
+        table.setItems(sorted);
+        table.setSortPolicy(t -> {
+            sorted.setComparator(comparator());
+            return true;
+        });
+    }
+
+    // eilučių tekstuose naudojami kito service sąrašo objektai (pvz. užsakymo restoranas)
+    public CachedTable<T> dependsOn(ObservableList<?> referenced) {
+        referenced.addListener((ListChangeListener<Object>) change -> {
+            boolean stale = false;
+            while (change.next()) {
+                // naujo objekto dar niekas nenaudoja
+                stale |= change.wasRemoved() || change.wasUpdated();
+            }
+            if (stale) {
+                refresh();
+            }
+        });
+        return this;
+    }
+
+    public void refresh() {
+        rows.clear();
+        table.refresh();
+    }
+
+    // stulpelis, rūšiuojamas pagal patį tekstą
+    public TableColumn<T, String> column(String title, Function<T, String> text) {
+        return column(title, text, Comparator.comparing(text, Comparator.nullsFirst(Comparator.naturalOrder())));
+    }
+
+    public <K extends Comparable<? super K>> TableColumn<T, String> column(String title,
+                                                                           Function<T, String> text,
+                                                                           Function<T, K> key) {
+        return column(title, text, Comparator.comparing(key, Comparator.nullsFirst(Comparator.naturalOrder())));
+    }
+
+    public TableColumn<T, String> column(String title, Function<T, String> text, Comparator<T> key) {
+        TableColumn<T, String> column = new TableColumn<>(title);
+        int index = columns.size();
+        column.setCellValueFactory(cell -> row(cell.getValue()).get(index));
+        columns.add(new Column<>(column, text, key));
+        table.getColumns().add(column);
+        return column;
+    }
+
+    // null -> tuščias langelis, kaip PropertyValueFactory
+    public static String text(Object value) {
+        return value != null ? value.toString() : "";
+    }
+
+    private List<ObservableValue<String>> row(T item) {
+        long id = idOf.applyAsLong(item);
+        List<ObservableValue<String>> row = rows.get(id);
+        if (row == null || row.size() < columns.size()) {
+            row = new ArrayList<>(columns.size());
+            for (Column<T> c : columns) {
+                String value = c.text().apply(item);
+                row.add(new SimpleStringProperty(value != null ? value : ""));
+            }
+            rows.put(id, row);
+        }
+        return row;
+    }
+
+    private Comparator<T> comparator() {
+        Comparator<T> result = null;
+        for (TableColumn<T, ?> sortColumn : table.getSortOrder()) {
+            for (Column<T> c : columns) {
+                if (c.column() != sortColumn) {
+                    continue;
+                }
+                Comparator<T> next = sortColumn.getSortType() == TableColumn.SortType.DESCENDING
+                        ? c.key().reversed()
+                        : c.key();
+                result = result == null ? next : result.thenComparing(next);
+            }
+        }
+        return result;
+    }
+}
@@ -1,13 +1,13 @@
 package coursework.app.controllers;
 
+import coursework.bulk.CatalogImport;
 import coursework.model.Cuisine;
+import coursework.model.Money;
 import coursework.model.Restaurant;
 import coursework.service.CuisineService;
 import coursework.service.RestaurantService;
-import javafx.beans.property.SimpleStringProperty;
 import javafx.geometry.Insets;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.VBox;
 
@@ -15,8 +15,10 @@ public class CuisineController {
 
     private final CuisineService service;
     private final RestaurantService restaurantService;
+    private final CatalogImport imports;
 
     private final TableView<Cuisine> table = new TableView<>();
+    private CachedTable<Cuisine> rows;
 
     // form fields
     private TextField nameField;
@@ -27,9 +29,11 @@ public class CuisineController {
     private ComboBox<Restaurant> restaurantBox;
 
     public CuisineController(RestaurantService restaurantService,
-                             CuisineService cuisineService) {
+                             CuisineService cuisineService,
+                             CatalogImport imports) {
         this.restaurantService = restaurantService;
         this.service = cuisineService;
+        this.imports = imports;
 
         // demo patiekalas, jei yra restoranų ir kol kas nėra patiekalų
         var allRestaurants = restaurantService.getAllRestaurants();
@@ -98,7 +102,8 @@ public class CuisineController {
                 restaurantBox,
                 addBtn,
                 updateBtn,
-                deleteBtn
+                deleteBtn,
+                ImportButton.create(imports, CatalogImport.Kind.CUISINES)
         );
         form.setPadding(new Insets(10));
         root.setRight(form);
@@ -111,42 +116,22 @@ public class CuisineController {
     }
 
     private void setupTable() {
-        TableColumn<Cuisine, Integer> idCol = new TableColumn<>("ID");
-        idCol.setCellValueFactory(new PropertyValueFactory<>("id"));
-
-        TableColumn<Cuisine, String> nameCol = new TableColumn<>("Name");
-        nameCol.setCellValueFactory(new PropertyValueFactory<>("name"));
-
-        TableColumn<Cuisine, String> ingredientsCol = new TableColumn<>("Ingredients");
-        ingredientsCol.setCellValueFactory(new PropertyValueFactory<>("ingredients"));
-
-        TableColumn<Cuisine, Double> priceCol = new TableColumn<>("Price");
-        priceCol.setCellValueFactory(new PropertyValueFactory<>("price"));
-
-        TableColumn<Cuisine, Boolean> spicyCol = new TableColumn<>("Spicy");
-        spicyCol.setCellValueFactory(new PropertyValueFactory<>("spicy"));
-
-        TableColumn<Cuisine, Boolean> veganCol = new TableColumn<>("Vegan");
-        veganCol.setCellValueFactory(new PropertyValueFactory<>("vegan"));
-
-        TableColumn<Cuisine, String> restaurantCol = new TableColumn<>("Restaurant");
-        restaurantCol.setCellValueFactory(cellData -> {
-            Restaurant r = cellData.getValue().getRestaurant();
-            return new SimpleStringProperty(r != null ? r.getName() : "");
-        });
-
-        table.setItems(service.getAllCuisines());
-        table.getColumns().setAll(
-                idCol, nameCol, ingredientsCol, priceCol,
-                spicyCol, veganCol, restaurantCol
-        );
+        rows = new CachedTable<>(table, service.getAllCuisines(), Cuisine::getId)
+                .dependsOn(restaurantService.getAllRestaurants());
+        rows.column("ID", c -> String.valueOf(c.getId()), Cuisine::getId);
+        rows.column("Name", Cuisine::getName);
+        rows.column("Ingredients", Cuisine::getIngredients);
+        rows.column("Price", c -> Money.format(Money.toMinor(c.getPrice())), Cuisine::getPrice);
+        rows.column("Spicy", c -> String.valueOf(c.isSpicy()), Cuisine::isSpicy);
+        rows.column("Vegan", c -> String.valueOf(c.isVegan()), Cuisine::isVegan);
+        rows.column("Restaurant", c -> c.getRestaurant() != null ? c.getRestaurant().getName() : "");
         table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
     }
 
     private void fillForm(Cuisine c) {
         nameField.setText(c.getName());
         ingredientsArea.setText(c.getIngredients());
-        priceField.setText(String.valueOf(c.getPrice()));
+        priceField.setText(Money.format(Money.toMinor(c.getPrice())));
         spicyBox.setSelected(c.isSpicy());
         veganBox.setSelected(c.isVegan());
         restaurantBox.setValue(c.getRestaurant());
@@ -155,9 +140,10 @@ public class CuisineController {
     private void addCuisine() {
         if (!validate()) return;
 
+        // tiksliais centais: "12,5" -> 12.50
         double price;
         try {
-            price = Double.parseDouble(priceField.getText());
+            price = Money.toMajor(Money.parse(priceField.getText()));
         } catch (NumberFormatException e) {
             showError("Price must be a number.");
             return;
@@ -173,7 +159,7 @@ public class CuisineController {
         );
 
         showInfo("Dish added.");
-        table.refresh();
+        rows.refresh();
     }
 
     private void updateCuisine() {
@@ -184,9 +170,10 @@ public class CuisineController {
         }
         if (!validate()) return;
 
+        // tiksliais centais: "12,5" -> 12.50
         double price;
         try {
-            price = Double.parseDouble(priceField.getText());
+            price = Money.toMajor(Money.parse(priceField.getText()));
         } catch (NumberFormatException e) {
             showError("Price must be a number.");
             return;
@@ -200,7 +187,7 @@ public class CuisineController {
         selected.setRestaurant(restaurantBox.getValue());
 
         service.updateCuisine(selected);
-        table.refresh();
+        rows.refresh();
         showInfo("Dish updated.");
     }
 
@@ -212,7 +199,6 @@ public class CuisineController {
         }
 
         service.deleteCuisine(selected.getId());
-        table.getItems().remove(selected);
         showInfo("Dish deleted.");
     }
 
@@ -231,7 +217,9 @@ public class CuisineController {
             errors.append("- Price is required.\n");
         } else {
             try {
-                Double.parseDouble(priceText);
+                if (Money.parse(priceText) < 0) {
+                    errors.append("- Price must not be negative.\n");
+                }
             } catch (NumberFormatException e) {
                 errors.append("- Price must be a valid number.\n");
             }
@@ -3,9 +3,9 @@ package coursework.app.controllers;
 import coursework.model.Driver;
 import coursework.model.VehicleType;
 import coursework.service.DriverService;
+import coursework.service.Passwords;
 import javafx.geometry.Insets;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.VBox;
 
@@ -15,9 +15,11 @@ public class DriversController {
 
     private final DriverService service;
     private final TableView<Driver> table = new TableView<>();
+    private CachedTable<Driver> rows;
 
     // Form fields
     private TextField loginField;
+    private PasswordField passwordField;
     private TextField nameField;
     private TextField surnameField;
     private TextField phoneField;
@@ -25,6 +27,7 @@ public class DriversController {
     private TextField licenceField;
     private DatePicker bDatePicker;
     private ComboBox<VehicleType> vehicleTypeBox;
+    private CheckBox availableBox;
 
     public DriversController(DriverService service) {
         this.service = service;
@@ -34,12 +37,12 @@ public class DriversController {
             service.createDriver(
                     "driver1", "pass1", "Tomas", "Driver",
                     "123456789", "Vilnius",
-                    "B12345", LocalDate.of(1995, 1, 1), VehicleType.CAR
+                    "B12345", LocalDate.of(1995, 1, 1), VehicleType.CAR, true
             );
             service.createDriver(
                     "driver2", "pass2", "Mantas", "Driver",
                     "987654321", "Kaunas",
-                    "C98765", LocalDate.of(1990, 5, 20), VehicleType.BY_FOOT
+                    "C98765", LocalDate.of(1990, 5, 20), VehicleType.BY_FOOT, true
             );
         }
     }
@@ -53,6 +56,7 @@ public class DriversController {
 
         // form
         loginField = new TextField();
+        passwordField = new PasswordField();
         nameField = new TextField();
         surnameField = new TextField();
         phoneField = new TextField();
@@ -71,8 +75,11 @@ public class DriversController {
         });
 
         vehicleTypeBox = new ComboBox<>();
+        availableBox = new CheckBox("Available for dispatch");
+        availableBox.setSelected(true);
 
         loginField.setPromptText("Login");
+        passwordField.setPromptText("Password");
         nameField.setPromptText("Name");
         surnameField.setPromptText("Surname");
         phoneField.setPromptText("Phone");
@@ -94,6 +101,8 @@ public class DriversController {
                 new Label("Driver Form"),
                 new Label("Login:"),
                 loginField,
+                new Label("Password:"),
+                passwordField,
                 new Label("Name:"),
                 nameField,
                 new Label("Surname:"),
@@ -108,6 +117,7 @@ public class DriversController {
                 bDatePicker,
                 new Label("Vehicle type:"),
                 vehicleTypeBox,
+                availableBox,
                 addBtn,
                 updateBtn,
                 deleteBtn
@@ -124,38 +134,17 @@ public class DriversController {
     }
 
     private void setupTable() {
-        TableColumn<Driver, Long> idCol = new TableColumn<>("ID");
-        idCol.setCellValueFactory(new PropertyValueFactory<>("id"));
-
-        TableColumn<Driver, String> loginCol = new TableColumn<>("Login");
-        loginCol.setCellValueFactory(new PropertyValueFactory<>("login"));
-
-        TableColumn<Driver, String> nameCol = new TableColumn<>("Name");
-        nameCol.setCellValueFactory(new PropertyValueFactory<>("name"));
-
-        TableColumn<Driver, String> surnameCol = new TableColumn<>("Surname");
-        surnameCol.setCellValueFactory(new PropertyValueFactory<>("surname"));
-
-        TableColumn<Driver, String> phoneCol = new TableColumn<>("Phone");
-        phoneCol.setCellValueFactory(new PropertyValueFactory<>("phoneNumber"));
-
-        TableColumn<Driver, String> addressCol = new TableColumn<>("Address");
-        addressCol.setCellValueFactory(new PropertyValueFactory<>("address"));
-
-        TableColumn<Driver, String> licenceCol = new TableColumn<>("Licence");
-        licenceCol.setCellValueFactory(new PropertyValueFactory<>("licence"));
-
-        TableColumn<Driver, LocalDate> bDateCol = new TableColumn<>("Birth date");
-        bDateCol.setCellValueFactory(new PropertyValueFactory<>("bDate"));
-
-        TableColumn<Driver, VehicleType> vehicleTypeCol = new TableColumn<>("Vehicle");
-        vehicleTypeCol.setCellValueFactory(new PropertyValueFactory<>("vehicleType"));
-
-        table.setItems(service.getAllDrivers());
-        table.getColumns().setAll(
-                idCol, loginCol, nameCol, surnameCol, phoneCol,
-                addressCol, licenceCol, bDateCol, vehicleTypeCol
-        );
+        rows = new CachedTable<>(table, service.getAllDrivers(), Driver::getId);
+        rows.column("ID", d -> String.valueOf(d.getId()), Driver::getId);
+        rows.column("Login", Driver::getLogin);
+        rows.column("Name", Driver::getName);
+        rows.column("Surname", Driver::getSurname);
+        rows.column("Phone", Driver::getPhoneNumber);
+        rows.column("Address", Driver::getAddress);
+        rows.column("Licence", Driver::getLicence);
+        rows.column("Birth date", d -> CachedTable.text(d.getBDate()), Driver::getBDate);
+        rows.column("Vehicle", d -> CachedTable.text(d.getVehicleType()), Driver::getVehicleType);
+        rows.column("Available", d -> String.valueOf(d.isAvailable()), Driver::isAvailable);
         table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
     }
 
@@ -168,25 +157,32 @@ public class DriversController {
         licenceField.setText(d.getLicence());
         bDatePicker.setValue(d.getBDate());
         vehicleTypeBox.setValue(d.getVehicleType());
+        availableBox.setSelected(d.isAvailable());
+        // saugomas tik hash'as – nerodom; tuščias laukas atnaujinant = slaptažodis nekeičiamas
+        passwordField.clear();
     }
 
     private void addDriver() {
-        if (!validate()) return;
-
-        service.createDriver(
-                loginField.getText(),
-                "defaultPass",
-                nameField.getText(),
-                surnameField.getText(),
-                phoneField.getText(),
-                addressField.getText(),
-                licenceField.getText(),
-                bDatePicker.getValue(),
-                vehicleTypeBox.getValue()
-        );
-
-        showInfo("Driver added.");
-        table.refresh();
+        if (!validate(null)) return;
+
+        // slaptažodis hash'uojamas serviso viduje – visa kūrimą vykdom fone
+        String login = loginField.getText();
+        String password = passwordField.getText();
+        String name = nameField.getText();
+        String surname = surnameField.getText();
+        String phone = phoneField.getText();
+        String address = addressField.getText();
+        String licence = licenceField.getText();
+        LocalDate bDate = bDatePicker.getValue();
+        VehicleType vehicle = vehicleTypeBox.getValue();
+        boolean available = availableBox.isSelected();
+        FormTask.run(
+                () -> service.createDriver(login, password, name, surname, phone, address, licence, bDate, vehicle, available),
+                created -> {
+                    showInfo("Driver added.");
+                    rows.refresh();
+                },
+                e -> showError(e.getMessage()));
     }
 
     private void updateDriver() {
@@ -195,20 +191,45 @@ public class DriversController {
             showError("Select driver first.");
             return;
         }
-        if (!validate()) return;
-
-        selected.setLogin(loginField.getText());
-        selected.setName(nameField.getText());
-        selected.setSurname(surnameField.getText());
-        selected.setPhoneNumber(phoneField.getText());
-        selected.setAddress(addressField.getText());
-        selected.setLicence(licenceField.getText());
-        selected.setBDate(bDatePicker.getValue());
-        selected.setVehicleType(vehicleTypeBox.getValue());
-
-        service.updateDriver(selected);
-        table.refresh();
-        showInfo("Driver updated.");
+        if (!validate(selected.getId())) return;
+
+        // naujo slaptažodžio hash'as – fone, objektas keičiamas jau FX gijoje
+        String login = loginField.getText();
+        String password = passwordField.getText();
+        String name = nameField.getText();
+        String surname = surnameField.getText();
+        String phone = phoneField.getText();
+        String address = addressField.getText();
+        String licence = licenceField.getText();
+        LocalDate bDate = bDatePicker.getValue();
+        VehicleType vehicle = vehicleTypeBox.getValue();
+        boolean available = availableBox.isSelected();
+        FormTask.run(
+                () -> password.isBlank() ? null : Passwords.hash(password),
+                hash -> {
+                    // kol skaičiavom hash'ą, login'ą galėjo užimti kitas
+                    if (!service.getLogins().isAvailable(login, selected.getId())) {
+                        showError("Login is already taken: " + login + ".");
+                        return;
+                    }
+                    selected.setLogin(login);
+                    if (hash != null) {
+                        selected.setPassword(hash);
+                    }
+                    selected.setName(name);
+                    selected.setSurname(surname);
+                    selected.setPhoneNumber(phone);
+                    selected.setAddress(address);
+                    selected.setLicence(licence);
+                    selected.setBDate(bDate);
+                    selected.setVehicleType(vehicle);
+                    selected.setAvailable(available);
+
+                    service.updateDriver(selected);
+                    rows.refresh();
+                    showInfo("Driver updated.");
+                },
+                e -> showError(e.getMessage()));
     }
 
     private void deleteDriver() {
@@ -219,15 +240,20 @@ public class DriversController {
         }
 
         service.deleteDriver(selected.getId());
-        table.getItems().remove(selected);
         showInfo("Driver deleted.");
     }
 
-    private boolean validate() {
+    // id – redaguojamo driverio (null – naujas, tada slaptažodis privalomas)
+    private boolean validate(Long id) {
         StringBuilder errors = new StringBuilder();
 
         if (loginField.getText().isBlank()) {
             errors.append("- Login cannot be empty.\n");
+        } else if (!service.getLogins().isAvailable(loginField.getText(), id)) {
+            errors.append("- Login is already taken.\n");
+        }
+        if (id == null && passwordField.getText().isBlank()) {
+            errors.append("- Password is required.\n");
         }
         if (nameField.getText().isBlank()) {
             errors.append("- Name cannot be empty.\n");
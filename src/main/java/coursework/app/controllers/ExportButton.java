@@ -0,0 +1,58 @@
+package coursework.app.controllers;
+
+import coursework.bulk.HistoryExport;
+import javafx.application.Platform;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
+import javafx.stage.FileChooser;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+
+// "Export..." mygtukas: visa istorija į pasirinktą failą (.csv – CSV, .frc – stulpelinis),
+// rašoma fone – UI ir kiti rašymai tuo metu neblokuojami.
+final class ExportButton {
+
+    interface Export {
+        long write(HistoryExport.Filter filter, Path file) throws IOException;
+    }
+
+    private ExportButton() {
+    }
+
+    static Button create(String text, String fileName, Export export) {
+        Button button = new Button(text);
+        button.setOnAction(e -> {
+            FileChooser chooser = new FileChooser();
+            chooser.setTitle(text);
+            chooser.setInitialFileName(fileName + ".csv");
+            chooser.getExtensionFilters().addAll(
+                    new FileChooser.ExtensionFilter("CSV", "*.csv"),
+                    new FileChooser.ExtensionFilter("Columnar", "*.frc"));
+            File file = chooser.showSaveDialog(button.getScene().getWindow());
+            if (file == null) return;
+
+            button.setDisable(true);
+            Thread.ofVirtual().name("export").start(() -> {
+                Alert.AlertType type;
+                String message;
+                try {
+                    long rows = export.write(HistoryExport.Filter.ALL, file.toPath());
+                    type = Alert.AlertType.INFORMATION;
+                    message = "Exported " + rows + " rows to " + file.getName() + ".";
+                } catch (IOException | RuntimeException ex) {
+                    type = Alert.AlertType.ERROR;
+                    message = "Export failed: " + ex.getMessage();
+                }
+                Alert.AlertType alertType = type;
+                String alertMessage = message;
+                Platform.runLater(() -> {
+                    button.setDisable(false);
+                    new Alert(alertType, alertMessage).showAndWait();
+                });
+            });
+        });
+        return button;
+    }
+}
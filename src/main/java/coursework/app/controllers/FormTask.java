@@ -0,0 +1,27 @@
+package coursework.app.controllers;
+
+import javafx.application.Platform;
+
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Brangus formos veiksmas (slaptažodžio PBKDF2 hash'as ~0,1 s) vykdomas fone, ne FX gijoje –
+// UI nesustoja. Rezultatas arba klaida grąžinami į FX giją (kaip ImportButton).
+final class FormTask {
+
+    private FormTask() {
+    }
+
+    static <T> void run(Supplier<T> work, Consumer<T> done, Consumer<RuntimeException> failed) {
+        Thread.ofVirtual().name("form-task").start(() -> {
+            T result;
+            try {
+                result = work.get();
+            } catch (RuntimeException e) {
+                Platform.runLater(() -> failed.accept(e));
+                return;
+            }
+            Platform.runLater(() -> done.accept(result));
+        });
+    }
+}
@@ -0,0 +1,53 @@
+package coursework.app.controllers;
+
+import coursework.bulk.CatalogImport;
+import javafx.application.Platform;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
+import javafx.stage.FileChooser;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+
+// "Import..." mygtukas formoms: pasirinktas CSV / JSON lines failas importuojamas fone,
+// lentelė atsinaujina pati per repository (vienas pakeitimas kiekvienam batch'ui).
+final class ImportButton {
+
+    private ImportButton() {
+    }
+
+    static Button create(CatalogImport imports, CatalogImport.Kind kind) {
+        Button button = new Button("Import " + kind.name().toLowerCase(Locale.ROOT) + "...");
+        button.setOnAction(e -> {
+            FileChooser chooser = new FileChooser();
+            chooser.setTitle("Import " + kind.name().toLowerCase(Locale.ROOT));
+            chooser.getExtensionFilters().addAll(
+                    new FileChooser.ExtensionFilter("CSV / JSON lines", "*.csv", "*.jsonl", "*.ndjson"),
+                    new FileChooser.ExtensionFilter("All files", "*.*"));
+            File file = chooser.showOpenDialog(button.getScene().getWindow());
+            if (file == null) return;
+
+            button.setDisable(true);
+            Thread.ofVirtual().name("import").start(() -> {
+                Alert.AlertType type;
+                String message;
+                try {
+                    CatalogImport.Result result = imports.importFile(kind, file.toPath());
+                    type = result.rejected() > 0 ? Alert.AlertType.WARNING : Alert.AlertType.INFORMATION;
+                    message = result.summary();
+                } catch (IOException | RuntimeException ex) {
+                    type = Alert.AlertType.ERROR;
+                    message = "Import failed: " + ex.getMessage();
+                }
+                Alert.AlertType alertType = type;
+                String alertMessage = message;
+                Platform.runLater(() -> {
+                    button.setDisable(false);
+                    new Alert(alertType, alertMessage).showAndWait();
+                });
+            });
+        });
+        return button;
+    }
+}
@@ -1,26 +1,38 @@
 package coursework.app.controllers;
 
+import coursework.bulk.HistoryExport;
 import coursework.model.*;
 import coursework.service.BasicUserService;
+import coursework.service.ChatService;
 import coursework.service.CuisineService;
+import coursework.service.DispatchService;
 import coursework.service.DriverService;
 import coursework.service.OrderService;
+import coursework.service.OrderRollups;
+import coursework.service.OrderStatistics;
+import coursework.service.PricingService;
 import coursework.service.RestaurantService;
-import javafx.beans.property.SimpleStringProperty;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.collections.FXCollections;
-import javafx.collections.transformation.FilteredList;
+import javafx.collections.ListChangeListener;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class OrdersController {
 
@@ -29,8 +41,13 @@ public class OrdersController {
     private final DriverService driverService;
     private final CuisineService cuisineService;
     private final BasicUserService basicUserService;
+    private final PricingService pricingService;
+    private final ChatService chatService;
+    private final HistoryExport historyExport;
+    private final DispatchService dispatchService;
 
     private final TableView<FoodOrder> table = new TableView<>();
+    private CachedTable<FoodOrder> rows;
 
     private ComboBox<BasicUser> buyerBox;
     private ComboBox<Restaurant> restaurantBox;
@@ -38,23 +55,48 @@ public class OrdersController {
     private ComboBox<OrderStatus> statusBox;
     private ListView<Cuisine> dishesList;
     private TextField priceField;
-    private TextArea chatArea;
-    private FilteredList<Cuisine> filteredCuisines;
+    private ListView<ChatMessage> chatList;
+    private TextField chatField;
+    private TextField dishSearchField;
+
+    // kiek daugiausia paieškos rezultatų rodom patiekalų sąraše
+    private static final int DISH_SEARCH_LIMIT = 200;
+
+    // rodomo patiekalų sąrašo pozicijos: cuisine id -> indeksas. Perskaičiuojama vieną kartą,
+    // kai sąrašas pakeičiamas ar pasikeičia, todėl pažymėti patiekalą – O(1), ne indexOf.
+    private final Map<Integer, Integer> dishPositions = new HashMap<>();
+    private boolean dishPositionsValid;
+    private final ListChangeListener<Cuisine> dishesChanged = change -> dishPositionsValid = false;
 
     private static final DateTimeFormatter CREATED_AT_FORMATTER =
             DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
 
+    // pokalbis rodomas puslapiais: iš pradžių paskutiniai CHAT_PAGE, senesni – paprašius.
+    // Rodoma log'o dalis [chatFrom, chatFrom + chatList dydis); nauji pranešimai tik pridedami gale
+    private static final int CHAT_PAGE = 50;
+    private static final DateTimeFormatter SENT_AT_FORMATTER = DateTimeFormatter.ofPattern("MM-dd HH:mm");
+    private FoodOrder chatOrder;
+    private int chatFrom;
+
     public OrdersController(OrderService orderService,
                             RestaurantService restaurantService,
                             DriverService driverService,
                             CuisineService cuisineService,
-                            BasicUserService basicUserService) {
+                            BasicUserService basicUserService,
+                            PricingService pricingService,
+                            ChatService chatService,
+                            HistoryExport historyExport,
+                            DispatchService dispatchService) {
 
         this.orderService = orderService;
         this.restaurantService = restaurantService;
         this.driverService = driverService;
         this.cuisineService = cuisineService;
         this.basicUserService = basicUserService;
+        this.pricingService = pricingService;
+        this.chatService = chatService;
+        this.historyExport = historyExport;
+        this.dispatchService = dispatchService;
     }
 
     public BorderPane getView() {
@@ -70,12 +112,30 @@ public class OrdersController {
         statusBox = new ComboBox<>();
         dishesList = new ListView<>();
         priceField = new TextField();
-        chatArea = new TextArea();
+        chatList = new ListView<>();
+        chatField = new TextField();
 
         priceField.setPromptText("Total price (auto)");
         priceField.setEditable(false);
-        chatArea.setPromptText("Chat messages…");
-        chatArea.setPrefRowCount(3);
+        chatField.setPromptText("Message…");
+        chatList.setPrefHeight(150);
+        chatList.setCellFactory(list -> new ListCell<>() {
+            @Override
+            protected void updateItem(ChatMessage item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty || item == null ? "" : chatLine(item));
+            }
+        });
+        // naujiems pasirinkto užsakymo pranešimams – pridedam tik tai, ko dar nerodom
+        chatService.getAllMessages().addListener((ListChangeListener<ChatMessage>) change -> {
+            while (change.next()) {
+                if (change.wasAdded() && chatOrder != null
+                        && change.getAddedSubList().stream().anyMatch(m -> m.getOrder() == chatOrder)) {
+                    showNewMessages();
+                    return;
+                }
+            }
+        });
 
         // duomenys į combo/list
         buyerBox.setItems(basicUserService.getAllUsers().filtered(u -> !u.isAdmin()));
@@ -83,21 +143,38 @@ public class OrdersController {
         driverBox.setItems(driverService.getAllDrivers());
         statusBox.setItems(FXCollections.observableArrayList(OrderStatus.values()));
 
-        // patiekalų sąrašas su filtru
-        filteredCuisines = new FilteredList<>(cuisineService.getAllCuisines(), c -> true);
-        dishesList.setItems(filteredCuisines);
+        // patiekalų sąrašas: visi arba pasirinkto restorano meniu (CuisineService indeksas)
+        dishesList.itemsProperty().addListener((obs, oldItems, newItems) -> {
+            if (oldItems != null) {
+                oldItems.removeListener(dishesChanged);
+            }
+            if (newItems != null) {
+                newItems.addListener(dishesChanged);
+            }
+            dishPositionsValid = false;
+        });
+        dishesList.setItems(cuisineService.getAllCuisines());
         dishesList.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        // suma perskaičiuojama iškart keičiant pasirinkimą (centais, be kopijų)
+        dishesList.getSelectionModel().getSelectedItems().addListener((ListChangeListener<Cuisine>) change -> {
+            List<Cuisine> selected = dishesList.getSelectionModel().getSelectedItems();
+            priceField.setText(selected.isEmpty() ? "" : Money.format(pricingService.totalMinor(selected)));
+        });
 
-        // filtravimas pagal restoraną – listenerį DĖDAM PO filteredCuisines sukūrimo
-        restaurantBox.valueProperty().addListener((obs, oldRest, newRest) -> {
-            if (newRest == null) {
-                filteredCuisines.setPredicate(c -> true);
-            } else {
-                filteredCuisines.setPredicate(c ->
-                        c.getRestaurant() != null &&
-                                c.getRestaurant().equals(newRest)
-                );
+        // paieška pavadinime ir ingredientuose – per CuisineService indeksą, tinkamiausi viršuje
+        dishSearchField = new TextField();
+        dishSearchField.setPromptText("Search dishes…");
+        dishSearchField.textProperty().addListener((obs, oldText, text) -> filterDishes());
+
+        // rodomas meniu – kopija, todėl pasikeitus patiekalams ją atnaujinam
+        cuisineService.getAllCuisines().addListener((ListChangeListener<Cuisine>) change -> {
+            if (restaurantBox.getValue() != null && isBlank(dishSearchField.getText())) {
+                filterDishes();
             }
+        });
+
+        restaurantBox.valueProperty().addListener((obs, oldRest, newRest) -> {
+            filterDishes();
             dishesList.getSelectionModel().clearSelection();
             priceField.clear();
         });
@@ -109,7 +186,7 @@ public class OrdersController {
                 super.updateItem(item, empty);
                 setText(empty || item == null
                         ? ""
-                        : item.getName() + " (" + item.getPrice() + ")");
+                        : item.getName() + " (" + Money.format(Money.toMinor(item.getPrice())) + ")");
             }
         });
 
@@ -166,11 +243,16 @@ public class OrdersController {
         Button updateBtn = new Button("Update order");
         Button deleteBtn = new Button("Delete order");
         Button statsBtn = new Button("Order stats");
+        Button sendBtn = new Button("Send");
+        Button olderBtn = new Button("Older messages");
 
         addBtn.setOnAction(e -> addOrder());
         updateBtn.setOnAction(e -> updateOrder());
         deleteBtn.setOnAction(e -> deleteOrder());
         statsBtn.setOnAction(e -> showOrderStats());
+        sendBtn.setOnAction(e -> sendMessage());
+        chatField.setOnAction(e -> sendMessage());
+        olderBtn.setOnAction(e -> showOlderMessages());
 
         VBox form = new VBox(8,
                 new Label("Order Form"),
@@ -183,15 +265,19 @@ public class OrdersController {
                 new Label("Status:"),
                 statusBox,
                 new Label("Dishes (multi-select):"),
+                dishSearchField,
                 dishesList,
                 new Label("Total price:"),
                 priceField,
                 new Label("Chat:"),
-                chatArea,
+                olderBtn,
+                chatList,
+                new HBox(6, chatField, sendBtn),
                 addBtn,
                 updateBtn,
                 deleteBtn,
-                statsBtn
+                statsBtn,
+                ExportButton.create("Export orders...", "orders", historyExport::exportOrders)
         );
         form.setPadding(new Insets(10));
         root.setRight(form);
@@ -204,123 +290,124 @@ public class OrdersController {
     }
 
     private void setupTable() {
-        TableColumn<FoodOrder, Integer> idCol = new TableColumn<>("ID");
-        idCol.setCellValueFactory(new PropertyValueFactory<>("id"));
-
-        TableColumn<FoodOrder, String> buyerCol = new TableColumn<>("Buyer");
-        buyerCol.setCellValueFactory(cell -> {
-            BasicUser u = cell.getValue().getBuyer();
-            return new SimpleStringProperty(
-                    u != null ? u.getName() + " " + u.getSurname() : ""
-            );
-        });
+        // tekstai skaičiuojami tik matomoms eilutėms ir cache'uojami, rūšiuojama pagal raktus
+        rows = new CachedTable<>(table, orderService.getAllOrders(), FoodOrder::getId)
+                .dependsOn(basicUserService.getAllUsers())
+                .dependsOn(restaurantService.getAllRestaurants())
+                .dependsOn(driverService.getAllDrivers());
+        rows.column("ID", o -> String.valueOf(o.getId()), FoodOrder::getId);
+        rows.column("Buyer", o -> fullName(o.getBuyer()));
+        rows.column("Restaurant", o -> o.getRestaurant() != null ? o.getRestaurant().getName() : "");
+        rows.column("Driver", o -> fullName(o.getDriver()));
+        rows.column("Status", o -> CachedTable.text(o.getStatus()), FoodOrder::getStatus);
+        rows.column("Price", o -> o.getPrice() != null ? Money.format(Money.toMinor(o.getPrice())) : "",
+                FoodOrder::getPrice);
+        rows.column("Items", o -> String.valueOf(itemCount(o)), o -> itemCount(o));
+        rows.column("Created At",
+                o -> o.getCreatedAt() != null ? o.getCreatedAt().format(CREATED_AT_FORMATTER) : "",
+                FoodOrder::getCreatedAt);
 
-        TableColumn<FoodOrder, String> restaurantCol = new TableColumn<>("Restaurant");
-        restaurantCol.setCellValueFactory(cell -> {
-            Restaurant r = cell.getValue().getRestaurant();
-            return new SimpleStringProperty(r != null ? r.getName() : "");
-        });
+        table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+    }
 
-        TableColumn<FoodOrder, String> driverCol = new TableColumn<>("Driver");
-        driverCol.setCellValueFactory(cell -> {
-            Driver d = cell.getValue().getDriver();
-            return new SimpleStringProperty(
-                    d != null ? d.getName() + " " + d.getSurname() : ""
-            );
-        });
+    private static String fullName(BasicUser u) {
+        return u != null ? u.getName() + " " + u.getSurname() : "";
+    }
 
-        TableColumn<FoodOrder, OrderStatus> statusCol = new TableColumn<>("Status");
-        statusCol.setCellValueFactory(new PropertyValueFactory<>("status"));
+    private static int itemCount(FoodOrder o) {
+        return o.getCuisineList() != null ? o.getCuisineList().size() : 0;
+    }
 
-        TableColumn<FoodOrder, Double> priceCol = new TableColumn<>("Price");
-        priceCol.setCellValueFactory(new PropertyValueFactory<>("price"));
+    // be paieškos – visi patiekalai arba restorano meniu; su paieška – tik rasti, pagal tinkamumą.
+    // Pažymėti patiekalai lieka pažymėti, jei jie yra ir naujame sąraše.
+    private void filterDishes() {
+        Restaurant restaurant = restaurantBox.getValue();
+        String query = dishSearchField.getText();
+        List<Cuisine> selected = new ArrayList<>(dishesList.getSelectionModel().getSelectedItems());
+
+        if (isBlank(query)) {
+            dishesList.setItems(restaurant == null
+                    ? cuisineService.getAllCuisines()
+                    : FXCollections.observableArrayList(cuisineService.getMenu(restaurant)));
+        } else {
+            dishesList.setItems(FXCollections.observableArrayList(restaurant == null
+                    ? cuisineService.search(query, DISH_SEARCH_LIMIT)
+                    : cuisineService.search(query, restaurant, DISH_SEARCH_LIMIT)));
+        }
+        selectDishes(selected);
+    }
 
-        TableColumn<FoodOrder, String> itemsCol = new TableColumn<>("Items");
-        itemsCol.setCellValueFactory(cell -> {
-            var list = cell.getValue().getCuisineList();
-            int count = (list != null) ? list.size() : 0;
-            return new SimpleStringProperty(String.valueOf(count));
-        });
+    private void selectDishes(List<Cuisine> dishes) {
+        MultipleSelectionModel<Cuisine> selection = dishesList.getSelectionModel();
+        selection.clearSelection();
+        int[] indices = dishes.stream()
+                .mapToInt(this::dishPosition)
+                .filter(i -> i >= 0)
+                .toArray();
+        if (indices.length > 0) {
+            selection.selectIndices(indices[0], Arrays.copyOfRange(indices, 1, indices.length));
+        }
+    }
 
-        TableColumn<FoodOrder, String> dateCol = new TableColumn<>("Created At");
-        dateCol.setCellValueFactory(cell -> {
-            LocalDateTime dt = cell.getValue().getCreatedAt();
-            String text = "";
-            if (dt != null) {
-                text = dt.format(CREATED_AT_FORMATTER);
+    // -1 – patiekalas dabar nerodomas
+    private int dishPosition(Cuisine c) {
+        if (!dishPositionsValid) {
+            dishPositions.clear();
+            List<Cuisine> items = dishesList.getItems();
+            for (int i = 0; i < items.size(); i++) {
+                dishPositions.put(items.get(i).getId(), i);
             }
-            return new SimpleStringProperty(text);
-        });
-
-        table.setItems(orderService.getAllOrders());
-        table.getColumns().setAll(
-                idCol,
-                buyerCol,
-                restaurantCol,
-                driverCol,
-                statusCol,
-                priceCol,
-                itemsCol,
-                dateCol
-        );
+            dishPositionsValid = true;
+        }
+        Integer index = dishPositions.get(c.getId());
+        return index != null ? index : -1;
+    }
 
-        table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+    private static boolean isBlank(String text) {
+        return text == null || text.isBlank();
     }
 
     private void fillForm(FoodOrder order) {
+        dishSearchField.clear();
         buyerBox.setValue(order.getBuyer());
         restaurantBox.setValue(order.getRestaurant());
         driverBox.setValue(order.getDriver());
         statusBox.setValue(order.getStatus());
 
-        dishesList.getSelectionModel().clearSelection();
-        if (order.getCuisineList() != null) {
-            for (Cuisine c : order.getCuisineList()) {
-                int index = cuisineService.getAllCuisines().indexOf(c);
-                if (index >= 0) {
-                    dishesList.getSelectionModel().select(index);
-                }
-            }
-        }
+        // restoranas jau parinktas, tad sąraše – jo meniu; žymim pagal poziciją rodomame sąraše
+        selectDishes(order.getCuisineList() != null ? order.getCuisineList() : List.of());
 
-        priceField.setText(order.getPrice() != null ? order.getPrice().toString() : "");
+        priceField.setText(order.getPrice() != null ? Money.format(Money.toMinor(order.getPrice())) : "");
 
-        if (order.getChat() != null) {
-            chatArea.setText(order.getChat().getMessages());
-        } else {
-            chatArea.clear();
-        }
+        showChat(order);
     }
 
     private void addOrder() {
-        if (!validate()) return;
+        if (!validate(true)) return;
 
         List<Cuisine> selectedDishes = new ArrayList<>(dishesList.getSelectionModel().getSelectedItems());
-        double totalPrice = selectedDishes.stream()
-                .mapToDouble(Cuisine::getPrice)
-                .sum();
 
         FoodOrder order = new FoodOrder();
         order.setName("Order");
         order.setBuyer(buyerBox.getValue());
         order.setRestaurant(restaurantBox.getValue());
-        order.setDriver(driverBox.getValue());
-        order.setStatus(statusBox.getValue());
-        order.setCuisineList(selectedDishes);
-        order.setPrice(totalPrice);
+        order.initStatus(statusBox.getValue());
+        long totalPrice = pricingService.price(order, selectedDishes);
         order.setCreatedAt(LocalDateTime.now());
 
-        if (!chatArea.getText().isBlank()) {
-            Chat chat = new Chat();
-            chat.setMessages(chatArea.getText());
-            chat.setOrder(order);
-            order.setChat(chat);
-        }
+        // ranka parinktas driveris užimamas per DispatchService – kaip ir automatiškai
+        if (driverBox.getValue() != null && !claimDriver(driverBox.getValue())) return;
+        order.setDriver(driverBox.getValue());
 
         orderService.add(order);
-        priceField.setText(String.valueOf(totalPrice));
+        // parašytas pranešimas – pirmas užsakymo pokalbyje
+        if (!chatField.getText().isBlank()) {
+            chatService.send(order, order.getRestaurant(), chatField.getText());
+            chatField.clear();
+        }
+        priceField.setText(Money.format(totalPrice));
         showInfo("Order added.");
-        table.refresh();
+        rows.refresh();
     }
 
     private void updateOrder() {
@@ -329,32 +416,37 @@ public class OrdersController {
             showError("Select order first.");
             return;
         }
-        if (!validate()) return;
+        if (!validate(false)) return;
+
+        // naujas driveris užimamas per DispatchService; ankstesnis atlaisvinamas tik įrašius
+        Driver previousDriver = selected.getDriver();
+        Driver driver = driverBox.getValue();
+        boolean newDriver = driver != null && driver != previousDriver;
+        if (newDriver && !claimDriver(driver)) return;
+
+        // statusas keičiamas tik pagal OrderStatus perėjimus (CAS – driveris / dispatch galėjo jį jau pakeisti)
+        OrderStatus current = selected.getStatus();
+        if (!orderService.moveStatus(selected, statusBox.getValue())) {
+            if (newDriver) {
+                dispatchService.releaseDriver(driver);
+            }
+            showError("Cannot change status from " + current + " to " + statusBox.getValue() + ".");
+            return;
+        }
 
         List<Cuisine> selectedDishes = new ArrayList<>(dishesList.getSelectionModel().getSelectedItems());
-        double totalPrice = selectedDishes.stream()
-                .mapToDouble(Cuisine::getPrice)
-                .sum();
 
         selected.setBuyer(buyerBox.getValue());
         selected.setRestaurant(restaurantBox.getValue());
-        selected.setDriver(driverBox.getValue());
-        selected.setStatus(statusBox.getValue());
-        selected.setCuisineList(selectedDishes);
-        selected.setPrice(totalPrice);
-
-        if (selected.getChat() == null && !chatArea.getText().isBlank()) {
-            Chat chat = new Chat();
-            chat.setOrder(selected);
-            selected.setChat(chat);
-        }
-        if (selected.getChat() != null) {
-            selected.getChat().setMessages(chatArea.getText());
-        }
+        selected.setDriver(driver);
+        long totalPrice = pricingService.price(selected, selectedDishes);
 
         orderService.update(selected);
-        priceField.setText(String.valueOf(totalPrice));
-        table.refresh();
+        if (driver != previousDriver) {
+            dispatchService.releaseDriver(previousDriver);
+        }
+        priceField.setText(Money.format(totalPrice));
+        rows.refresh();
         showInfo("Order updated.");
     }
 
@@ -366,11 +458,75 @@ public class OrdersController {
         }
 
         orderService.delete(selected.getId());
-        table.getItems().remove(selected);
+        if (chatOrder == selected) {
+            chatOrder = null;
+            chatList.getItems().clear();
+        }
         showInfo("Order deleted.");
     }
 
-    private boolean validate() {
+    // --- pokalbis ---
+
+    private void showChat(FoodOrder order) {
+        chatOrder = order;
+        int total = chatService.size(order);
+        chatFrom = Math.max(0, total - CHAT_PAGE);
+        chatList.getItems().setAll(chatService.page(order, chatFrom, total - chatFrom));
+        if (!chatList.getItems().isEmpty()) {
+            chatList.scrollTo(chatList.getItems().size() - 1);
+        }
+    }
+
+    private void showNewMessages() {
+        int shown = chatFrom + chatList.getItems().size();
+        List<ChatMessage> added = chatService.page(chatOrder, shown, Integer.MAX_VALUE);
+        if (!added.isEmpty()) {
+            chatList.getItems().addAll(added);
+            chatList.scrollTo(chatList.getItems().size() - 1);
+        }
+    }
+
+    private void showOlderMessages() {
+        if (chatOrder == null || chatFrom == 0) {
+            return;
+        }
+        int from = Math.max(0, chatFrom - CHAT_PAGE);
+        chatList.getItems().addAll(0, chatService.page(chatOrder, from, chatFrom - from));
+        chatList.scrollTo(chatFrom - from);
+        chatFrom = from;
+    }
+
+    private void sendMessage() {
+        FoodOrder selected = table.getSelectionModel().getSelectedItem();
+        if (selected == null) {
+            showError("Select order first.");
+            return;
+        }
+        if (chatField.getText().isBlank()) {
+            return;
+        }
+        try {
+            chatService.send(selected, selected.getRestaurant(), chatField.getText());
+        } catch (IllegalArgumentException e) {
+            showError(e.getMessage());
+            return;
+        }
+        chatField.clear();
+        showNewMessages();
+    }
+
+    private static String chatLine(ChatMessage m) {
+        String time = m.getSentAt() != null ? m.getSentAt().format(SENT_AT_FORMATTER) + " " : "";
+        String sender = m.getSender() != null ? m.getSender().getName() : "—";
+        return time + sender + ": " + m.getText();
+    }
+
+    private static long currentMinute() {
+        return System.currentTimeMillis() / 60_000;
+    }
+
+    // naujas užsakymas – tik PENDING (driveris nebūtinas), toliau statusas keičiamas perėjimais
+    private boolean validate(boolean adding) {
         StringBuilder errors = new StringBuilder();
 
         if (buyerBox.getValue() == null) {
@@ -379,11 +535,14 @@ public class OrdersController {
         if (restaurantBox.getValue() == null) {
             errors.append("- Restaurant must be selected.\n");
         }
-        if (driverBox.getValue() == null) {
+        // WAITING_FOR_DRIVER – driverį priskirs DispatchService
+        if (!adding && driverBox.getValue() == null && statusBox.getValue() != OrderStatus.WAITING_FOR_DRIVER) {
             errors.append("- Driver must be selected.\n");
         }
         if (statusBox.getValue() == null) {
             errors.append("- Order status must be selected.\n");
+        } else if (adding && !statusBox.getValue().isInitial()) {
+            errors.append("- New orders start as ").append(OrderStatus.PENDING).append(".\n");
         }
         if (dishesList.getSelectionModel().getSelectedItems().isEmpty()) {
             errors.append("- Select at least one dish.\n");
@@ -400,22 +559,68 @@ public class OrdersController {
         Stage statsStage = new Stage();
         statsStage.setTitle("Order statistics");
 
-        int totalOrders = orderService.getAllOrders().size();
-        long delivered = orderService.getAllOrders().stream()
-                .filter(o -> o.getStatus() == OrderStatus.DELIVERED)
-                .count();
-
-        Label totalLabel = new Label("Total orders: " + totalOrders);
-        Label deliveredLabel = new Label("Delivered orders: " + delivered);
+        OrderStatistics stats = orderService.getStatistics();
+        OrderRollups rollups = orderService.getRollups();
+
+        Label totalLabel = new Label();
+        Label deliveredLabel = new Label();
+        Label revenueLabel = new Label();
+        Label waitingLabel = new Label();
+        Label lastHourLabel = new Label();
+        Label todayLabel = new Label();
+
+        // skaitliukai palaikomi OrderService, čia tik O(1) nuskaitymas
+        Runnable refresh = () -> {
+            totalLabel.setText("Total orders: " + stats.getTotal().getCount());
+            deliveredLabel.setText("Delivered orders: " + stats.getByStatus(OrderStatus.DELIVERED).getCount());
+            revenueLabel.setText("Revenue: " + Money.format(stats.getTotal().getRevenueMinor()));
+            waitingLabel.setText("Waiting for driver: " + stats.getByStatus(OrderStatus.WAITING_FOR_DRIVER).getCount());
+
+            // laiko langai – O(intervalų) iš OrderRollups
+            LocalDateTime now = LocalDateTime.now();
+            OrderRollups.Total lastHour = rollups.getTotal()
+                    .sum(OrderRollups.Resolution.MINUTE, now.minusHours(1), now);
+            OrderRollups.Total today = rollups.getTotal()
+                    .sum(OrderRollups.Resolution.DAY, now.toLocalDate().atStartOfDay(), now);
+            lastHourLabel.setText("Orders in the last hour: " + lastHour.count());
+            todayLabel.setText("Today: " + today.count() + " orders, revenue " + Money.format(today.revenueMinor()));
+        };
+        refresh.run();
+
+        // gyvas atnaujinimas – perpiešiam tik jei statistika pasikeitė arba prasidėjo nauja minutė
+        long[] seen = {stats.getVersion(), currentMinute()};
+        Timeline liveRefresh = new Timeline(new KeyFrame(Duration.millis(500), e -> {
+            long version = stats.getVersion();
+            long minute = currentMinute();
+            if (version != seen[0] || minute != seen[1]) {
+                seen[0] = version;
+                seen[1] = minute;
+                refresh.run();
+            }
+        }));
+        liveRefresh.setCycleCount(Animation.INDEFINITE);
+        liveRefresh.play();
+        statsStage.setOnHidden(e -> liveRefresh.stop());
 
-        VBox root = new VBox(10, totalLabel, deliveredLabel);
+        VBox root = new VBox(10, totalLabel, deliveredLabel, waitingLabel, revenueLabel, lastHourLabel, todayLabel);
         root.setPadding(new Insets(10));
 
-        statsStage.setScene(new Scene(root, 250, 120));
+        statsStage.setScene(new Scene(root, 300, 230));
         statsStage.initOwner(table.getScene().getWindow());
         statsStage.show();
     }
 
+    // false – driveris jau veža kitą užsakymą (klaida parodyta)
+    private boolean claimDriver(Driver driver) {
+        try {
+            dispatchService.claimDriver(driver);
+            return true;
+        } catch (IllegalStateException e) {
+            showError(e.getMessage());
+            return false;
+        }
+    }
+
     private void showError(String msg) {
         new Alert(Alert.AlertType.ERROR, msg).showAndWait();
     }
@@ -1,17 +1,20 @@
 package coursework.app.controllers;
 
+import coursework.bulk.CatalogImport;
 import coursework.model.Restaurant;
+import coursework.service.Passwords;
 import coursework.service.RestaurantService;
 import javafx.geometry.Insets;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.VBox;
 
 public class RestaurantController {
 
     private final RestaurantService service;
+    private final CatalogImport imports;
     private final TableView<Restaurant> table = new TableView<>();
+    private CachedTable<Restaurant> rows;
 
     // form fields
     private TextField loginField;
@@ -20,8 +23,9 @@ public class RestaurantController {
     private TextField addressField;
     private PasswordField passwordField;
 
-    public RestaurantController(RestaurantService service) {
+    public RestaurantController(RestaurantService service, CatalogImport imports) {
         this.service = service;
+        this.imports = imports;
 
         // demo duomenys – tik jei kol kas nėra restoranų
         if (service.getAllRestaurants().isEmpty()) {
@@ -74,7 +78,8 @@ public class RestaurantController {
                 addressField,
                 addBtn,
                 updateBtn,
-                deleteBtn
+                deleteBtn,
+                ImportButton.create(imports, CatalogImport.Kind.RESTAURANTS)
         );
         form.setPadding(new Insets(10));
 
@@ -88,23 +93,12 @@ public class RestaurantController {
     }
 
     private void setupTable() {
-        TableColumn<Restaurant, Long> idCol = new TableColumn<>("ID");
-        idCol.setCellValueFactory(new PropertyValueFactory<>("id"));
-
-        TableColumn<Restaurant, String> loginCol = new TableColumn<>("Login");
-        loginCol.setCellValueFactory(new PropertyValueFactory<>("login"));
-
-        TableColumn<Restaurant, String> nameCol = new TableColumn<>("Name");
-        nameCol.setCellValueFactory(new PropertyValueFactory<>("name"));
-
-        TableColumn<Restaurant, String> phoneCol = new TableColumn<>("Phone");
-        phoneCol.setCellValueFactory(new PropertyValueFactory<>("phoneNumber"));
-
-        TableColumn<Restaurant, String> addressCol = new TableColumn<>("Address");
-        addressCol.setCellValueFactory(new PropertyValueFactory<>("address"));
-
-        table.setItems(service.getAllRestaurants());
-        table.getColumns().setAll(idCol, loginCol, nameCol, phoneCol, addressCol);
+        rows = new CachedTable<>(table, service.getAllRestaurants(), Restaurant::getId);
+        rows.column("ID", r -> String.valueOf(r.getId()), Restaurant::getId);
+        rows.column("Login", Restaurant::getLogin);
+        rows.column("Name", Restaurant::getName);
+        rows.column("Phone", Restaurant::getPhoneNumber);
+        rows.column("Address", Restaurant::getAddress);
         table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
     }
 
@@ -119,21 +113,28 @@ public class RestaurantController {
 
     private void addRestaurant() {
         // čia password PRIVALOMAS
-        if (!validate(true)) return;
+        if (!validate(true, null)) return;
 
+        // slaptažodis hash'uojamas serviso viduje – visa kūrimą vykdom fone
+        String login = loginField.getText();
         String password = passwordField.getText();
-
-        service.createRestaurant(
-                loginField.getText(),
-                password,
-                nameField.getText(),
-                "Restaurant", // role / surname tau nesvarbu
-                phoneField.getText(),
-                addressField.getText()
-        );
-
-        showInfo("Restaurant added.");
-        table.refresh();
+        String name = nameField.getText();
+        String phone = phoneField.getText();
+        String address = addressField.getText();
+        FormTask.run(
+                () -> service.createRestaurant(
+                        login,
+                        password,
+                        name,
+                        "Restaurant", // role / surname tau nesvarbu
+                        phone,
+                        address
+                ),
+                created -> {
+                    showInfo("Restaurant added.");
+                    rows.refresh();
+                },
+                e -> showError(e.getMessage()));
     }
 
     private void updateRestaurant() {
@@ -143,21 +144,37 @@ public class RestaurantController {
             return;
         }
         // updatinant password neprivalomas
-        if (!validate(false)) return;
-
-        selected.setLogin(loginField.getText());
-        selected.setName(nameField.getText());
-        selected.setPhoneNumber(phoneField.getText());
-        selected.setAddress(addressField.getText());
+        if (!validate(false, selected.getId())) return;
 
-        // jeigu formoje įrašai naują password – atnaujinam; jei tuščia, paliekam seną
-        if (!passwordField.getText().isBlank()) {
-            selected.setPassword(passwordField.getText());
-        }
-
-        service.updateRestaurant(selected);
-        table.refresh();
-        showInfo("Restaurant updated.");
+        String login = loginField.getText();
+        String password = passwordField.getText();
+        String name = nameField.getText();
+        String phone = phoneField.getText();
+        String address = addressField.getText();
+        // naujo slaptažodžio hash'as – fone, objektas keičiamas jau FX gijoje
+        FormTask.run(
+                () -> password.isBlank() ? null : Passwords.hash(password),
+                hash -> {
+                    // kol skaičiavom hash'ą, login'ą galėjo užimti kitas
+                    if (!service.getLogins().isAvailable(login, selected.getId())) {
+                        showError("Login is already taken: " + login + ".");
+                        return;
+                    }
+                    selected.setLogin(login);
+                    selected.setName(name);
+                    selected.setPhoneNumber(phone);
+                    selected.setAddress(address);
+
+                    // jeigu formoje įrašai naują password – atnaujinam; jei tuščia, paliekam seną
+                    if (hash != null) {
+                        selected.setPassword(hash);
+                    }
+
+                    service.updateRestaurant(selected);
+                    rows.refresh();
+                    showInfo("Restaurant updated.");
+                },
+                e -> showError(e.getMessage()));
     }
 
     private void deleteRestaurant() {
@@ -168,16 +185,17 @@ public class RestaurantController {
         }
 
         service.deleteRestaurant(selected.getId());
-        table.getItems().remove(selected);
         showInfo("Restaurant deleted.");
     }
 
-    // bendras validate, bet su parametru ar privalomas password
-    private boolean validate(boolean requirePassword) {
+    // bendras validate, bet su parametru ar privalomas password; id – redaguojamo (null – naujas)
+    private boolean validate(boolean requirePassword, Long id) {
         StringBuilder errors = new StringBuilder();
 
         if (loginField.getText().isBlank()) {
             errors.append("- Login cannot be empty.\n");
+        } else if (!service.getLogins().isAvailable(loginField.getText(), id)) {
+            errors.append("- Login is already taken.\n");
         }
         if (nameField.getText().isBlank()) {
             errors.append("- Name cannot be empty.\n");
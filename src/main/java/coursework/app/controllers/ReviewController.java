@@ -1,5 +1,6 @@
 package coursework.app.controllers;
 
+import coursework.bulk.HistoryExport;
 import coursework.model.BasicUser;
 import coursework.model.Driver;
 import coursework.model.Restaurant;
@@ -8,9 +9,6 @@ import coursework.service.BasicUserService;
 import coursework.service.DriverService;
 import coursework.service.RestaurantService;
 import coursework.service.ReviewService;
-import javafx.beans.property.SimpleIntegerProperty;
-import javafx.beans.property.SimpleLongProperty;
-import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.geometry.Insets;
 import javafx.scene.Parent;
@@ -24,9 +22,11 @@ public class ReviewController {
     private final BasicUserService userService;
     private final RestaurantService restaurantService;
     private final DriverService driverService;
+    private final HistoryExport historyExport;
 
     // TableView inicializuojam čia ir daugiau NEBEKURIAM iš naujo
     private final TableView<Review> table = new TableView<>();
+    private CachedTable<Review> rows;
 
     private ComboBox<BasicUser> ownerBox;
     private ComboBox<BasicUser> feedbackBox;
@@ -40,11 +40,13 @@ public class ReviewController {
     public ReviewController(ReviewService reviewService,
                             BasicUserService userService,
                             RestaurantService restaurantService,
-                            DriverService driverService) {
+                            DriverService driverService,
+                            HistoryExport historyExport) {
         this.reviewService = reviewService;
         this.userService = userService;
         this.restaurantService = restaurantService;
         this.driverService = driverService;
+        this.historyExport = historyExport;
     }
 
     public Parent getView() {
@@ -52,55 +54,25 @@ public class ReviewController {
 
         // --- TABLE ---
 
-        TableColumn<Review, Long> idCol = new TableColumn<>("ID");
-        idCol.setCellValueFactory(c ->
-                new SimpleLongProperty(c.getValue().getId()).asObject()
-        );
-
-        TableColumn<Review, String> ownerCol = new TableColumn<>("Owner");
-        ownerCol.setCellValueFactory(c ->
-                new SimpleStringProperty(
-                        c.getValue().getCommentOwner() != null
-                                ? c.getValue().getCommentOwner().getLogin()
-                                : ""
-                )
-        );
-
-        TableColumn<Review, String> targetCol = new TableColumn<>("Target");
-        targetCol.setCellValueFactory(c -> {
-            Review r = c.getValue();
+        // live service sąrašas; tekstai – tik matomoms eilutėms (CachedTable)
+        rows = new CachedTable<>(table, reviewService.getAllReviews(), Review::getId)
+                .dependsOn(userService.getAllUsers())
+                .dependsOn(restaurantService.getAllRestaurants())
+                .dependsOn(driverService.getAllDrivers());
+        rows.column("ID", r -> String.valueOf(r.getId()), Review::getId);
+        rows.column("Owner", r -> r.getCommentOwner() != null ? r.getCommentOwner().getLogin() : "");
+        rows.column("Target", r -> {
             if (r.getRestaurant() != null) {
-                return new SimpleStringProperty("Restaurant: " + r.getRestaurant().getName());
+                return "Restaurant: " + r.getRestaurant().getName();
             } else if (r.getDriver() != null) {
-                return new SimpleStringProperty("Driver: " + r.getDriver().getName());
+                return "Driver: " + r.getDriver().getName();
             } else {
-                return new SimpleStringProperty("");
+                return "";
             }
         });
-
-        TableColumn<Review, String> feedbackCol = new TableColumn<>("Feedback user");
-        feedbackCol.setCellValueFactory(c ->
-                new SimpleStringProperty(
-                        c.getValue().getFeedbackUser() != null
-                                ? c.getValue().getFeedbackUser().getLogin()
-                                : ""
-                )
-        );
-
-        TableColumn<Review, Integer> ratingCol = new TableColumn<>("Rating");
-        ratingCol.setCellValueFactory(c ->
-                new SimpleIntegerProperty(c.getValue().getRating()).asObject()
-        );
-
-        TableColumn<Review, String> textCol = new TableColumn<>("Text");
-        textCol.setCellValueFactory(c ->
-                new SimpleStringProperty(
-                        c.getValue().getText() != null ? c.getValue().getText() : ""
-                )
-        );
-
-        table.getColumns().setAll(idCol, ownerCol, targetCol, feedbackCol, ratingCol, textCol);
-        table.setItems(FXCollections.observableArrayList(reviewService.getAllReviews()));
+        rows.column("Feedback user", r -> r.getFeedbackUser() != null ? r.getFeedbackUser().getLogin() : "");
+        rows.column("Rating", r -> String.valueOf(r.getRating()), Review::getRating);
+        rows.column("Text", r -> r.getText() != null ? r.getText() : "");
 
         table.getSelectionModel().selectedItemProperty().addListener(
                 (obs, oldVal, selected) -> {
@@ -188,7 +160,8 @@ public class ReviewController {
                 textArea,
                 addBtn,
                 updateBtn,
-                deleteBtn
+                deleteBtn,
+                ExportButton.create("Export reviews...", "reviews", historyExport::exportReviews)
         );
         form.setPadding(new Insets(10));
 
@@ -230,8 +203,6 @@ public class ReviewController {
                 textArea.getText()
         );
 
-        // pridėti į TableView, nes items yra snapshot’as, o ne live ObservableList iš service
-        table.getItems().add(r);
         table.getSelectionModel().select(r);
 
         showInfo("Review added.");
@@ -253,7 +224,7 @@ public class ReviewController {
         selected.setText(textArea.getText());
 
         reviewService.updateReview(selected);
-        table.refresh();
+        rows.refresh();
         showInfo("Review updated.");
     }
 
@@ -264,7 +235,6 @@ public class ReviewController {
             return;
         }
         reviewService.deleteReview(selected.getId());
-        table.getItems().remove(selected);
         showInfo("Review deleted.");
     }
 
@@ -1,17 +1,20 @@
 package coursework.app.controllers;
 
+import coursework.bulk.CatalogImport;
 import coursework.model.BasicUser;
 import coursework.service.BasicUserService;
+import coursework.service.Passwords;
 import javafx.geometry.Insets;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.VBox;
 
 public class UsersController {
 
     private final BasicUserService service;
+    private final CatalogImport imports;
     private final TableView<BasicUser> table = new TableView<>();
+    private CachedTable<BasicUser> rows;
 
     private TextField loginField;
     private PasswordField passwordField;
@@ -21,8 +24,9 @@ public class UsersController {
     private TextField addressField;
     private CheckBox adminCheck;
 
-    public UsersController(BasicUserService service) {
+    public UsersController(BasicUserService service, CatalogImport imports) {
         this.service = service;
+        this.imports = imports;
 
         // demo tik jei sąrašas tuščias
         if (service.getAllUsers().isEmpty()) {
@@ -78,7 +82,8 @@ public class UsersController {
                 adminCheck,
                 addBtn,
                 updateBtn,
-                deleteBtn
+                deleteBtn,
+                ImportButton.create(imports, CatalogImport.Kind.USERS)
         );
         form.setPadding(new Insets(10));
 
@@ -92,56 +97,46 @@ public class UsersController {
     }
 
     private void setupTable() {
-        TableColumn<BasicUser, Long> idCol = new TableColumn<>("ID");
-        idCol.setCellValueFactory(new PropertyValueFactory<>("id"));
-
-        TableColumn<BasicUser, String> loginCol = new TableColumn<>("Login");
-        loginCol.setCellValueFactory(new PropertyValueFactory<>("login"));
-
-        TableColumn<BasicUser, String> nameCol = new TableColumn<>("Name");
-        nameCol.setCellValueFactory(new PropertyValueFactory<>("name"));
-
-        TableColumn<BasicUser, String> surnameCol = new TableColumn<>("Surname");
-        surnameCol.setCellValueFactory(new PropertyValueFactory<>("surname"));
-
-        TableColumn<BasicUser, String> phoneCol = new TableColumn<>("Phone");
-        phoneCol.setCellValueFactory(new PropertyValueFactory<>("phoneNumber"));
-
-        TableColumn<BasicUser, String> addressCol = new TableColumn<>("Address");
-        addressCol.setCellValueFactory(new PropertyValueFactory<>("address"));
-
-        TableColumn<BasicUser, Boolean> adminCol = new TableColumn<>("Admin");
-        adminCol.setCellValueFactory(new PropertyValueFactory<>("admin"));
-
-        table.setItems(service.getAllUsers());
-        table.getColumns().setAll(idCol, loginCol, nameCol, surnameCol, phoneCol, addressCol, adminCol);
+        rows = new CachedTable<>(table, service.getAllUsers(), BasicUser::getId);
+        rows.column("ID", u -> String.valueOf(u.getId()), BasicUser::getId);
+        rows.column("Login", BasicUser::getLogin);
+        rows.column("Name", BasicUser::getName);
+        rows.column("Surname", BasicUser::getSurname);
+        rows.column("Phone", BasicUser::getPhoneNumber);
+        rows.column("Address", BasicUser::getAddress);
+        rows.column("Admin", u -> String.valueOf(u.isAdmin()), BasicUser::isAdmin);
         table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
     }
 
     private void fillForm(BasicUser u) {
         loginField.setText(u.getLogin());
-        passwordField.setText(u.getPassword());
         nameField.setText(u.getName());
         surnameField.setText(u.getSurname());
         phoneField.setText(u.getPhoneNumber());
         addressField.setText(u.getAddress());
         adminCheck.setSelected(u.isAdmin());
+        // saugomas tik hash'as – nerodom; tuščias laukas atnaujinant = slaptažodis nekeičiamas
+        passwordField.clear();
     }
 
     private void addUser() {
-        if (!validate()) return;
-
-        service.createBasicUser(
-                loginField.getText(),
-                passwordField.getText(),
-                nameField.getText(),
-                surnameField.getText(),
-                phoneField.getText(),
-                addressField.getText(),
-                adminCheck.isSelected()
-        );
-        showInfo("User added.");
-        table.refresh();
+        if (!validate(null)) return;
+
+        // slaptažodis hash'uojamas serviso viduje – visa kūrimą vykdom fone
+        String login = loginField.getText();
+        String password = passwordField.getText();
+        String name = nameField.getText();
+        String surname = surnameField.getText();
+        String phone = phoneField.getText();
+        String address = addressField.getText();
+        boolean admin = adminCheck.isSelected();
+        FormTask.run(
+                () -> service.createBasicUser(login, password, name, surname, phone, address, admin),
+                created -> {
+                    showInfo("User added.");
+                    rows.refresh();
+                },
+                e -> showError(e.getMessage()));
     }
 
     private void updateUser() {
@@ -150,19 +145,39 @@ public class UsersController {
             showError("Select user first.");
             return;
         }
-        if (!validate()) return;
-
-        selected.setLogin(loginField.getText());
-        selected.setPassword(passwordField.getText());
-        selected.setName(nameField.getText());
-        selected.setSurname(surnameField.getText());
-        selected.setPhoneNumber(phoneField.getText());
-        selected.setAddress(addressField.getText());
-        selected.setAdmin(adminCheck.isSelected());
-
-        service.updateBasicUser(selected);
-        table.refresh();
-        showInfo("User updated.");
+        if (!validate(selected.getId())) return;
+
+        // naujo slaptažodžio hash'as – fone, objektas keičiamas jau FX gijoje
+        String login = loginField.getText();
+        String password = passwordField.getText();
+        String name = nameField.getText();
+        String surname = surnameField.getText();
+        String phone = phoneField.getText();
+        String address = addressField.getText();
+        boolean admin = adminCheck.isSelected();
+        FormTask.run(
+                () -> password.isBlank() ? null : Passwords.hash(password),
+                hash -> {
+                    // kol skaičiavom hash'ą, login'ą galėjo užimti kitas
+                    if (!service.getLogins().isAvailable(login, selected.getId())) {
+                        showError("Login is already taken: " + login + ".");
+                        return;
+                    }
+                    selected.setLogin(login);
+                    if (hash != null) {
+                        selected.setPassword(hash);
+                    }
+                    selected.setName(name);
+                    selected.setSurname(surname);
+                    selected.setPhoneNumber(phone);
+                    selected.setAddress(address);
+                    selected.setAdmin(admin);
+
+                    service.updateBasicUser(selected);
+                    rows.refresh();
+                    showInfo("User updated.");
+                },
+                e -> showError(e.getMessage()));
     }
 
     private boolean confirmDelete(String what) {
@@ -185,17 +200,19 @@ public class UsersController {
         }
 
         service.deleteBasicUser(selected.getId());
-        table.getItems().remove(selected);
         showInfo("User deleted.");
     }
 
-    private boolean validate() {
+    // id – redaguojamo vartotojo (null – naujas, tada slaptažodis privalomas)
+    private boolean validate(Long id) {
         StringBuilder errors = new StringBuilder();
 
         if (loginField.getText().isBlank()) {
             errors.append("- Login is required.\n");
+        } else if (!service.getLogins().isAvailable(loginField.getText(), id)) {
+            errors.append("- Login is already taken.\n");
         }
-        if (passwordField.getText().isBlank()) {
+        if (id == null && passwordField.getText().isBlank()) {
             errors.append("- Password is required.\n");
         }
         if (nameField.getText().isBlank()) {
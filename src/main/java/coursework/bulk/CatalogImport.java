@@ -0,0 +1,408 @@
+package coursework.bulk;
+
+import coursework.model.BasicUser;
+import coursework.model.Cuisine;
+import coursework.model.Money;
+import coursework.model.Restaurant;
+import coursework.persistence.Storage;
+import coursework.repository.ListDispatcher;
+import coursework.service.BasicUserService;
+import coursework.service.CuisineService;
+import coursework.service.LoginIndex;
+import coursework.service.Passwords;
+import coursework.service.RestaurantService;
+import coursework.service.Services;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+// Masinis katalogo importas iš CSV arba JSON lines: vartotojai, restoranai, meniu (patiekalai).
+// Failas skaitomas srautu po įrašą – atmintyje tik einamas batch'as (BATCH įrašų),
+// ne visas failas. Login'ų unikalumas ir patiekalo restoranas tikrinami per bendrą LoginIndex.
+// Kiekvienas įrašas tikrinamas kaip controllerių formose; blogas praleidžiamas ir įrašomas
+// į klaidas (su eilutės nr.), geri dedami per servisus batch'ais – vienas sąrašo pakeitimas batch'ui.
+// Patiekalo restoranas nurodomas login'u (stulpelis "restaurant"): ieškomas tarp esamų ir
+// jau importuotų restoranų, tad restoranus importuoti prieš jų meniu.
+// Slaptažodžiai hash'uojami (Passwords, ~0,1 s vienam) – tai brangiausia vartotojų importo dalis,
+// todėl visam batch'ui lygiagrečiai (visais branduoliais), ne po vieną skaitymo gijoje. Jau
+// hash'uoti ("pbkdf2$...", pvz. eksportuoti iš kitos sistemos) paliekami kaip yra – dideliems
+// (miesto dydžio) failams rekomenduojama būtent taip, tada importas trunka sekundes, ne valandas.
+//
+// Stulpeliai (pavadinimai nejautrūs raidžių dydžiui, tvarka nesvarbi):
+//   USERS:       login, password, name, surname, phone, address, admin
+//   RESTAURANTS: login, password, name, surname, phone, address
+//   CUISINES:    restaurant, name, ingredients, price, spicy, vegan
+//
+//   java -cp ... coursework.bulk.CatalogImport restaurants restaurants.csv cuisines menus.jsonl
+//   (tie patys -Dpersistence / -Ddata.dir kaip App – importuoti duomenys išsaugomi)
+public class CatalogImport {
+
+    public static final int BATCH = 1000;
+    // daugiau klaidų nekaupiam – skaičiuojam tik kiekį
+    public static final int MAX_ERRORS = 100;
+
+    private static final Pattern PHONE = Pattern.compile("\\+?[0-9 ]{6,15}");
+
+    public enum Kind { USERS, RESTAURANTS, CUISINES }
+
+    public enum Format {
+        CSV, JSONL;
+
+        // pagal failo plėtinį: .csv, kitaip (.jsonl, .ndjson, .json) – JSON lines
+        public static Format of(Path file) {
+            String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+            return name.endsWith(".csv") ? CSV : JSONL;
+        }
+    }
+
+    public record Result(long imported, long rejected, List<String> errors, long millis) {
+
+        public String summary() {
+            StringBuilder sb = new StringBuilder()
+                    .append("Imported: ").append(imported)
+                    .append(", rejected: ").append(rejected)
+                    .append(" (").append(millis).append(" ms).");
+            for (String error : errors) {
+                sb.append('\n').append(error);
+            }
+            if (rejected > errors.size()) {
+                sb.append("\n... and ").append(rejected - errors.size()).append(" more.");
+            }
+            return sb.toString();
+        }
+    }
+
+    private final BasicUserService basicUserService;
+    private final RestaurantService restaurantService;
+    private final CuisineService cuisineService;
+    private final LoginIndex logins;
+
+    public CatalogImport(Services services) {
+        this(services.getBasicUserService(), services.getRestaurantService(),
+                services.getCuisineService(), services.getLogins());
+    }
+
+    public CatalogImport(BasicUserService basicUserService, RestaurantService restaurantService,
+                         CuisineService cuisineService, LoginIndex logins) {
+        this.basicUserService = basicUserService;
+        this.restaurantService = restaurantService;
+        this.cuisineService = cuisineService;
+        this.logins = logins;
+    }
+
+    public Result importFile(Kind kind, Path file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return importFrom(kind, Format.of(file), reader);
+        }
+    }
+
+    // vienu metu vienas importas
+    public synchronized Result importFrom(Kind kind, Format format, Reader reader) throws IOException {
+        long started = System.nanoTime();
+        Run run = switch (kind) {
+            case USERS -> new UserRun();
+            case RESTAURANTS -> new RestaurantRun();
+            case CUISINES -> new CuisineRun();
+        };
+        try (RecordReader records = format == Format.CSV
+                ? new CsvRecordReader(reader)
+                : new JsonLinesRecordReader(reader)) {
+            while (true) {
+                Map<String, String> record;
+                try {
+                    record = records.next();
+                } catch (IllegalArgumentException e) {
+                    run.reject(records.line(), e.getMessage());
+                    continue;
+                }
+                if (record == null) {
+                    break;
+                }
+                StringBuilder errors = new StringBuilder();
+                run.line = records.line();
+                run.accept(record, errors);
+                if (errors.length() > 0) {
+                    run.reject(records.line(), errors.toString());
+                } else if (run.pending() >= BATCH) {
+                    run.flush();
+                }
+            }
+        } finally {
+            run.flush();
+        }
+        return new Result(run.imported, run.rejected, List.copyOf(run.errors),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // vienos rūšies importas: validuoja įrašą ir kaupia batch'ą
+    private abstract static class Run {
+
+        long imported;
+        long rejected;
+        final List<String> errors = new ArrayList<>();
+        // einamo įrašo eilutė (klaidoms, kurios paaiškėja tik flush'e)
+        long line;
+
+        // klaidos – "- X is required." eilutės į errors; be klaidų – objektas į batch'ą
+        abstract void accept(Map<String, String> record, StringBuilder errors);
+
+        abstract int pending();
+
+        abstract void flush();
+
+        void reject(long line, String message) {
+            rejected++;
+            if (errors.size() < MAX_ERRORS) {
+                errors.add("Line " + line + ": " + message.strip().replace("\n", " "));
+            }
+        }
+    }
+
+    private abstract class UserRunBase<T extends BasicUser> extends Run {
+
+        final List<T> batch = new ArrayList<>(BATCH);
+        private final List<Long> batchLines = new ArrayList<>(BATCH);
+        // einamo batch'o login'ai – dar ne LoginIndex'e
+        private final Set<String> batchLogins = new HashSet<>();
+
+        abstract T create(Map<String, String> record);
+
+        // batch'as per servisą – ten login'ai dar kartą rezervuojami; jei tarp patikrinimo ir
+        // įrašymo kas nors užėmė tą patį login'ą, servisas atmeta visą batch'ą
+        // (IllegalArgumentException) – tada flush bando po vieną
+        abstract void save(List<T> batch);
+
+        @Override
+        void accept(Map<String, String> record, StringBuilder errors) {
+            String login = value(record, "login");
+            String phone = value(record, "phone");
+            if (login.isEmpty()) {
+                errors.append("- Login is required.\n");
+            } else if (batchLogins.contains(login) || !logins.isAvailable(login, null)) {
+                errors.append("- Login is already taken: ").append(login).append(".\n");
+            }
+            if (value(record, "password").isEmpty()) {
+                errors.append("- Password is required.\n");
+            }
+            if (value(record, "name").isEmpty()) {
+                errors.append("- Name is required.\n");
+            }
+            if (phone.isEmpty()) {
+                errors.append("- Phone is required.\n");
+            } else if (!PHONE.matcher(phone).matches()) {
+                errors.append("- Must be a valid phone number.\n");
+            }
+            if (value(record, "address").isEmpty()) {
+                errors.append("- Address is required.\n");
+            }
+            validate(record, errors);
+            if (errors.length() > 0) {
+                return;
+            }
+            T user = create(record);
+            user.setLogin(login);
+            user.setPassword(value(record, "password")); // hash'uojama flush'e
+            user.setName(value(record, "name"));
+            user.setPhoneNumber(phone);
+            user.setAddress(value(record, "address"));
+            batchLogins.add(login);
+            batchLines.add(line);
+            batch.add(user);
+        }
+
+        void validate(Map<String, String> record, StringBuilder errors) {
+        }
+
+        @Override
+        int pending() {
+            return batch.size();
+        }
+
+        // batch'as išvalomas visada – net jei įrašymas nepavyko, kitas flush jo nekartoja
+        @Override
+        void flush() {
+            if (!batch.isEmpty()) {
+                try {
+                    batch.parallelStream()
+                            .filter(user -> !Passwords.isHash(user.getPassword()))
+                            .forEach(user -> user.setPassword(Passwords.hash(user.getPassword())));
+                    saveOrRetry();
+                } finally {
+                    batch.clear();
+                    batchLines.clear();
+                    batchLogins.clear();
+                }
+            }
+        }
+
+        // login'ą užėmė lygiagretus kūrimas (UI, API) – po vieną: atmetami tik užimti
+        private void saveOrRetry() {
+            try {
+                save(batch);
+                imported += batch.size();
+            } catch (IllegalArgumentException e) {
+                for (int i = 0; i < batch.size(); i++) {
+                    try {
+                        save(List.of(batch.get(i)));
+                        imported++;
+                    } catch (IllegalArgumentException taken) {
+                        reject(batchLines.get(i), taken.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    private final class UserRun extends UserRunBase<BasicUser> {
+
+        @Override
+        void validate(Map<String, String> record, StringBuilder errors) {
+            if (value(record, "surname").isEmpty()) {
+                errors.append("- Surname is required.\n");
+            }
+            flag(record, "admin", errors);
+        }
+
+        @Override
+        BasicUser create(Map<String, String> record) {
+            BasicUser user = new BasicUser();
+            user.setSurname(value(record, "surname"));
+            user.setAdmin(flag(record, "admin", null));
+            return user;
+        }
+
+        @Override
+        void save(List<BasicUser> batch) {
+            basicUserService.addBasicUsers(batch);
+        }
+    }
+
+    private final class RestaurantRun extends UserRunBase<Restaurant> {
+
+        @Override
+        Restaurant create(Map<String, String> record) {
+            Restaurant r = new Restaurant();
+            String surname = value(record, "surname");
+            r.setSurname(surname.isEmpty() ? "Restaurant" : surname);
+            return r;
+        }
+
+        @Override
+        void save(List<Restaurant> batch) {
+            restaurantService.addRestaurants(batch);
+        }
+    }
+
+    private final class CuisineRun extends Run {
+
+        private final List<Cuisine> batch = new ArrayList<>(BATCH);
+
+        @Override
+        void accept(Map<String, String> record, StringBuilder errors) {
+            String login = value(record, "restaurant");
+            Restaurant restaurant = logins.find(login) instanceof Restaurant r ? r : null;
+            if (login.isEmpty()) {
+                errors.append("- Restaurant is required.\n");
+            } else if (restaurant == null) {
+                errors.append("- Restaurant not found: ").append(login).append(".\n");
+            }
+            if (value(record, "name").isEmpty()) {
+                errors.append("- Dish name is required.\n");
+            }
+            String priceText = value(record, "price");
+            long priceMinor = 0;
+            if (priceText.isEmpty()) {
+                errors.append("- Price is required.\n");
+            } else {
+                try {
+                    priceMinor = Money.parse(priceText);
+                    if (priceMinor < 0) {
+                        errors.append("- Price must not be negative.\n");
+                    }
+                } catch (NumberFormatException e) {
+                    errors.append("- Price must be a valid number.\n");
+                }
+            }
+            boolean spicy = flag(record, "spicy", errors);
+            boolean vegan = flag(record, "vegan", errors);
+            if (errors.length() > 0) {
+                return;
+            }
+            Cuisine c = new Cuisine();
+            c.setName(value(record, "name"));
+            c.setIngredients(value(record, "ingredients"));
+            c.setPrice(Money.toMajor(priceMinor));
+            c.setSpicy(spicy);
+            c.setVegan(vegan);
+            c.setRestaurant(restaurant);
+            batch.add(c);
+        }
+
+        @Override
+        int pending() {
+            return batch.size();
+        }
+
+        @Override
+        void flush() {
+            if (!batch.isEmpty()) {
+                cuisineService.addCuisines(batch);
+                imported += batch.size();
+                batch.clear();
+            }
+        }
+    }
+
+    // trūkstamas stulpelis / null – tuščia reikšmė
+    private static String value(Map<String, String> record, String column) {
+        String v = record.get(column);
+        return v != null ? v.strip() : "";
+    }
+
+    // true/false, yes/no, 1/0; tuščia – false. errors == null – jau patikrinta
+    private static boolean flag(Map<String, String> record, String column, StringBuilder errors) {
+        String v = value(record, column).toLowerCase(Locale.ROOT);
+        switch (v) {
+            case "true", "yes", "1" -> {
+                return true;
+            }
+            case "", "false", "no", "0" -> {
+                return false;
+            }
+            default -> {
+                if (errors != null) {
+                    errors.append("- ").append(column).append(" must be true or false.\n");
+                }
+                return false;
+            }
+        }
+    }
+
+    // poros <rūšis> <failas>, vykdomos iš eilės
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0 || args.length % 2 != 0) {
+            System.err.println("Usage: CatalogImport <users|restaurants|cuisines> <file> [<kind> <file> ...]");
+            System.exit(2);
+        }
+        Services services = new Services(ListDispatcher.DIRECT);
+        try (Closeable persistence = Storage.open(services)) {
+            CatalogImport imports = new CatalogImport(services);
+            for (int i = 0; i < args.length; i += 2) {
+                Kind kind = Kind.valueOf(args[i].toUpperCase(Locale.ROOT));
+                Result result = imports.importFile(kind, Path.of(args[i + 1]));
+                System.out.println(args[i + 1] + ": " + result.summary());
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package coursework.bulk;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+// Buferizuotas rašymas į NIO kanalą (failą ar HTTP atsakymą): viskas į vieną direct buferį,
+// kanalui perduodama tik pilnas buferis. Kanalo neuždaro – tai daro tas, kas jį atidarė.
+final class ChannelOutput {
+
+    private static final int BUFFER = 1 << 16;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER);
+    private final CharsetEncoder utf8 = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private long written;
+
+    ChannelOutput(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    void writeByte(int value) throws IOException {
+        ensure(1).put((byte) value);
+    }
+
+    void writeShort(int value) throws IOException {
+        ensure(2).putShort((short) value);
+    }
+
+    void writeInt(int value) throws IOException {
+        ensure(4).putInt(value);
+    }
+
+    void writeLong(long value) throws IOException {
+        ensure(8).putLong(value);
+    }
+
+    void writeBytes(byte[] bytes) throws IOException {
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (!buffer.hasRemaining()) {
+                drain();
+            }
+            int n = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, n);
+            offset += n;
+        }
+    }
+
+    // tekstas UTF-8, be ilgio prefikso (CSV)
+    void writeText(CharSequence text) throws IOException {
+        // ASCII (beveik visas CSV) – tiesiai į buferį, be encoder'io
+        int n = text.length();
+        int i = 0;
+        while (i < n) {
+            char c = text.charAt(i);
+            if (c >= 0x80) {
+                break;
+            }
+            if (!buffer.hasRemaining()) {
+                drain();
+            }
+            buffer.put((byte) c);
+            i++;
+        }
+        if (i == n) {
+            return;
+        }
+        CharBuffer chars = CharBuffer.wrap(text, i, n);
+        utf8.reset();
+        while (true) {
+            CoderResult result = utf8.encode(chars, buffer, true);
+            if (result.isOverflow()) {
+                drain();
+            } else if (result.isUnderflow()) {
+                break;
+            } else {
+                result.throwException();
+            }
+        }
+        while (utf8.flush(buffer).isOverflow()) {
+            drain();
+        }
+    }
+
+    // kiek baitų iš viso perduota kanalui (po flush – visi)
+    long written() {
+        return written;
+    }
+
+    void flush() throws IOException {
+        drain();
+    }
+
+    private ByteBuffer ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            drain();
+        }
+        return buffer;
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
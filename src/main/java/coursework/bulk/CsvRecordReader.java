@@ -0,0 +1,115 @@
+package coursework.bulk;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// CSV (RFC 4180): pirma eilutė – stulpelių pavadinimai, skirtukas ',', reikšmės kabutėse
+// gali turėti kablelių, eilučių lūžių ir "" (kabutė). Tuščios eilutės praleidžiamos.
+// Skaitoma po simbolį iš BufferedReader – atmintyje tik einamas įrašas.
+final class CsvRecordReader implements RecordReader {
+
+    private final BufferedReader in;
+    private final String[] header;
+
+    private final List<String> row = new ArrayList<>();
+    private final StringBuilder field = new StringBuilder();
+    private long line = 1;
+    private long recordLine;
+
+    CsvRecordReader(Reader reader) throws IOException {
+        this.in = reader instanceof BufferedReader b ? b : new BufferedReader(reader, 1 << 16);
+        if (!readRow()) {
+            throw new IllegalArgumentException("CSV file is empty.");
+        }
+        header = new String[row.size()];
+        for (int i = 0; i < header.length; i++) {
+            String name = row.get(i).trim().toLowerCase(Locale.ROOT);
+            header[i] = i == 0 && name.startsWith("\uFEFF") ? name.substring(1) : name;
+        }
+    }
+
+    @Override
+    public Map<String, String> next() throws IOException {
+        while (readRow()) {
+            if (row.size() == 1 && row.get(0).isBlank()) {
+                continue;
+            }
+            if (row.size() != header.length) {
+                throw new IllegalArgumentException("Expected " + header.length
+                        + " columns, found " + row.size() + ".");
+            }
+            Map<String, String> record = new HashMap<>(header.length * 2);
+            for (int i = 0; i < header.length; i++) {
+                record.put(header[i], row.get(i));
+            }
+            return record;
+        }
+        return null;
+    }
+
+    @Override
+    public long line() {
+        return recordLine;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    // vienas įrašas į row; false – failo pabaiga
+    private boolean readRow() throws IOException {
+        row.clear();
+        field.setLength(0);
+        recordLine = line;
+        int c = in.read();
+        if (c < 0) {
+            return false;
+        }
+        boolean quoted = false;
+        while (true) {
+            if (c < 0) {
+                if (quoted) {
+                    throw new IllegalArgumentException("Unterminated quoted value.");
+                }
+                row.add(field.toString());
+                return true;
+            }
+            char ch = (char) c;
+            if (quoted) {
+                if (ch == '"') {
+                    c = in.read();
+                    if (c == '"') {
+                        field.append('"');
+                        c = in.read();
+                    } else {
+                        quoted = false;
+                    }
+                    continue;
+                }
+                if (ch == '\n') {
+                    line++;
+                }
+                field.append(ch);
+            } else if (ch == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (ch == ',') {
+                row.add(field.toString());
+                field.setLength(0);
+            } else if (ch == '\n') {
+                line++;
+                row.add(field.toString());
+                return true;
+            } else if (ch != '\r') {
+                field.append(ch);
+            }
+            c = in.read();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package coursework.bulk;
+
+import coursework.model.Money;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.function.IntFunction;
+import java.util.function.IntToLongFunction;
+import java.util.function.IntUnaryOperator;
+
+// Vienas eksporto stulpelis: eilučių grupės reikšmės primityviame masyve.
+// read(row, index) – reikšmė iš snapshot'o įrašo nr. index į grupės eilutę row;
+// toliau ta grupė rašoma arba stulpeliu (dvejetainis formatas), arba eilutėmis (CSV).
+// Tuščios reikšmės: INT8 / INT32 / ID – -1, TIMESTAMP – Long.MIN_VALUE, STRING – null.
+abstract class ExportColumn {
+
+    static final byte INT8 = 1;
+    static final byte INT32 = 2;
+    static final byte INT64 = 3;
+    static final byte STRING = 4;
+    static final byte TIMESTAMP = 5; // epoch sekundės, createdAt kaip UTC (vietinis laikas be zonos)
+    static final byte MONEY = 6;     // centai
+
+    static final long NO_TIME = Long.MIN_VALUE;
+
+    final String name;
+    final byte type;
+
+    ExportColumn(String name, byte type) {
+        this.name = name;
+        this.type = type;
+    }
+
+    abstract void read(int row, int index);
+
+    abstract void write(ChannelOutput out, int rows) throws IOException;
+
+    // CSV reikšmė (be kabučių); tuščia – ""
+    abstract String text(int row);
+
+    static long seconds(LocalDateTime time) {
+        return time != null ? time.toEpochSecond(ZoneOffset.UTC) : NO_TIME;
+    }
+
+    static ExportColumn int32(String name, int capacity, IntUnaryOperator value) {
+        return new ExportColumn(name, INT32) {
+            final int[] values = new int[capacity];
+
+            @Override
+            void read(int row, int index) {
+                values[row] = value.applyAsInt(index);
+            }
+
+            @Override
+            void write(ChannelOutput out, int rows) throws IOException {
+                for (int i = 0; i < rows; i++) {
+                    out.writeInt(values[i]);
+                }
+            }
+
+            @Override
+            String text(int row) {
+                return values[row] < 0 ? "" : Integer.toString(values[row]);
+            }
+        };
+    }
+
+    // labels – CSV tekstas reikšmei (pvz. statuso pavadinimas pagal ordinal)
+    static ExportColumn int8(String name, int capacity, IntUnaryOperator value, String[] labels) {
+        return new ExportColumn(name, INT8) {
+            final byte[] values = new byte[capacity];
+
+            @Override
+            void read(int row, int index) {
+                values[row] = (byte) value.applyAsInt(index);
+            }
+
+            @Override
+            void write(ChannelOutput out, int rows) throws IOException {
+                for (int i = 0; i < rows; i++) {
+                    out.writeByte(values[i]);
+                }
+            }
+
+            @Override
+            String text(int row) {
+                int v = values[row];
+                if (v < 0) {
+                    return "";
+                }
+                return labels != null ? labels[v] : Integer.toString(v);
+            }
+        };
+    }
+
+    // INT64 (id), TIMESTAMP arba MONEY
+    static ExportColumn int64(String name, byte type, int capacity, IntToLongFunction value) {
+        return new ExportColumn(name, type) {
+            final long[] values = new long[capacity];
+
+            @Override
+            void read(int row, int index) {
+                values[row] = value.applyAsLong(index);
+            }
+
+            @Override
+            void write(ChannelOutput out, int rows) throws IOException {
+                for (int i = 0; i < rows; i++) {
+                    out.writeLong(values[i]);
+                }
+            }
+
+            @Override
+            String text(int row) {
+                long v = values[row];
+                return switch (this.type) {
+                    case TIMESTAMP -> v == NO_TIME ? "" : LocalDateTime.ofEpochSecond(v, 0, ZoneOffset.UTC).toString();
+                    case MONEY -> Money.format(v);
+                    default -> v < 0 ? "" : Long.toString(v);
+                };
+            }
+        };
+    }
+
+    // eilutės nekopijuojamos – grupėje laikomos nuorodos į esamus String'us
+    static ExportColumn string(String name, int capacity, IntFunction<String> value) {
+        return new ExportColumn(name, STRING) {
+            final String[] values = new String[capacity];
+
+            @Override
+            void read(int row, int index) {
+                values[row] = value.apply(index);
+            }
+
+            // [int ilgis baitais, -1 – null][UTF-8]
+            @Override
+            void write(ChannelOutput out, int rows) throws IOException {
+                for (int i = 0; i < rows; i++) {
+                    if (values[i] == null) {
+                        out.writeInt(-1);
+                    } else {
+                        byte[] bytes = values[i].getBytes(StandardCharsets.UTF_8);
+                        out.writeInt(bytes.length);
+                        out.writeBytes(bytes);
+                    }
+                }
+            }
+
+            @Override
+            String text(int row) {
+                return values[row] != null ? values[row] : "";
+            }
+        };
+    }
+}
@@ -0,0 +1,424 @@
+package coursework.bulk;
+
+import coursework.model.FoodOrder;
+import coursework.model.Money;
+import coursework.model.OrderStatus;
+import coursework.model.Restaurant;
+import coursework.model.Review;
+import coursework.model.User;
+import coursework.persistence.Storage;
+import coursework.repository.ListDispatcher;
+import coursework.service.OrderService;
+import coursework.service.RestaurantService;
+import coursework.service.ReviewService;
+import coursework.service.Services;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.IntUnaryOperator;
+
+// Užsakymų ir review istorijos eksportas srautu į CSV arba stulpelinį dvejetainį formatą.
+//
+// Snapshot'as: eksporto pradžioje per repository (be lock'ų) kiekvieno atitinkančio užsakymo
+// eksportuojami laukai vieną kartą nukopijuojami į primityvius stulpelius (OrderRows, ~55 B
+// eilutei; name – tik nuoroda į nekintamą String). Vėliau pridėti / ištrinti / pakeisti užsakymai
+// (statusas, driveris, kaina, patiekalai, restoranas, pavadinimas) eksporto nekeičia.
+// Review – taip pat (ReviewRows, ~45 B eilutei). Eilutės – pagal id.
+// Rašoma grupėmis po ROW_GROUP eilučių: grupės reikšmės surenkamos į primityvius masyvus
+// (ExportColumn) ir tada rašomos per ChannelOutput – atmintis nepriklauso nuo eilučių kiekio.
+// Niekas neužrakinama, tad gali vykti fone kartu su UI ir gyvais rašymais.
+//
+// Stulpelinis formatas (big-endian):
+//   [int MAGIC][int VERSION][byte 1 – užsakymai, 2 – review][short stulpelių sk.]
+//   stulpeliai: [byte tipas (ExportColumn.INT8 ...)][short ilgis][pavadinimas UTF-8]
+//   grupės: [int eilučių sk.], tada kiekvienas stulpelis ištisai: INT8 – 1 B, INT32 – 4 B,
+//           INT64 / TIMESTAMP / MONEY – 8 B, STRING – [int ilgis, -1 – null][UTF-8]
+//   pabaiga: [int 0]
+//
+//   java -cp ... coursework.bulk.HistoryExport orders orders.csv [from] [to]
+//   (.csv – CSV, kitaip stulpelinis; from / to – ISO laikas, pvz. 2024-05-01T00:00)
+public class HistoryExport {
+
+    public static final int MAGIC = 0x46525343; // "FRSC"
+    public static final int VERSION = 1;
+    public static final int ROW_GROUP = 16 * 1024;
+
+    private static final byte ORDERS = 1;
+    private static final byte REVIEWS = 2;
+    private static final String[] STATUS_NAMES = Arrays.stream(OrderStatus.values()).map(Enum::name)
+            .toArray(String[]::new);
+
+    public enum Format {
+        CSV, COLUMNAR;
+
+        public static Format of(Path file) {
+            return file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv") ? CSV : COLUMNAR;
+        }
+    }
+
+    // visi laukai neprivalomi; [from, to) pagal createdAt. Review statuso neturi – status joms netaikomas
+    public record Filter(LocalDateTime from, LocalDateTime to, OrderStatus status, Long restaurantId) {
+
+        public static final Filter ALL = new Filter(null, null, null, null);
+
+        public Filter {
+            if (from != null && to != null && !from.isBefore(to)) {
+                throw new IllegalArgumentException("from must be before to.");
+            }
+        }
+
+        private boolean matches(LocalDateTime createdAt, Restaurant restaurant) {
+            if (from != null && (createdAt == null || createdAt.isBefore(from))) {
+                return false;
+            }
+            if (to != null && (createdAt == null || !createdAt.isBefore(to))) {
+                return false;
+            }
+            return restaurantId == null || (restaurant != null && restaurantId.equals(restaurant.getId()));
+        }
+    }
+
+    private final OrderService orderService;
+    private final ReviewService reviewService;
+    private final RestaurantService restaurantService;
+
+    public HistoryExport(Services services) {
+        this(services.getOrderService(), services.getReviewService(), services.getRestaurantService());
+    }
+
+    public HistoryExport(OrderService orderService, ReviewService reviewService,
+                         RestaurantService restaurantService) {
+        this.orderService = orderService;
+        this.reviewService = reviewService;
+        this.restaurantService = restaurantService;
+    }
+
+    // grąžina eilučių skaičių
+    public long exportOrders(Filter filter, Path file) throws IOException {
+        try (FileChannel channel = create(file)) {
+            return exportOrders(filter, Format.of(file), channel);
+        }
+    }
+
+    public long exportReviews(Filter filter, Path file) throws IOException {
+        try (FileChannel channel = create(file)) {
+            return exportReviews(filter, Format.of(file), channel);
+        }
+    }
+
+    public long exportOrders(Filter filter, Format format, WritableByteChannel channel) throws IOException {
+        // restorano filtras – per OrderIndex, statuso – taip pat, jei restorano nėra; kitaip visi
+        Collection<FoodOrder> source;
+        if (filter.restaurantId() != null) {
+            source = orderService.findByRestaurant(restaurant(filter.restaurantId()));
+        } else if (filter.status() != null) {
+            source = orderService.findByStatus(filter.status());
+        } else {
+            source = orderService.getRepository().values();
+        }
+
+        OrderRows rows = new OrderRows(Math.max(16, source.size()));
+        for (FoodOrder o : source) {
+            OrderStatus status = o.getStatus();
+            Restaurant restaurant = o.getRestaurant();
+            if (!filter.matches(o.getCreatedAt(), restaurant)
+                    || (filter.status() != null && status != filter.status())) {
+                continue;
+            }
+            rows.add(o, status, restaurant);
+        }
+        int[] order = sortedById(rows.size, i -> rows.ids[i]);
+
+        List<ExportColumn> columns = List.of(
+                ExportColumn.int32("id", ROW_GROUP, i -> rows.ids[i]),
+                ExportColumn.int64("createdAt", ExportColumn.TIMESTAMP, ROW_GROUP, i -> rows.createdAt[i]),
+                ExportColumn.int8("status", ROW_GROUP, i -> rows.statuses[i], STATUS_NAMES),
+                ExportColumn.int64("restaurantId", ExportColumn.INT64, ROW_GROUP, i -> rows.restaurantIds[i]),
+                ExportColumn.int64("buyerId", ExportColumn.INT64, ROW_GROUP, i -> rows.buyerIds[i]),
+                ExportColumn.int64("driverId", ExportColumn.INT64, ROW_GROUP, i -> rows.driverIds[i]),
+                ExportColumn.int64("price", ExportColumn.MONEY, ROW_GROUP, i -> rows.prices[i]),
+                ExportColumn.int32("dishes", ROW_GROUP, i -> rows.dishes[i]),
+                ExportColumn.string("name", ROW_GROUP, i -> rows.names[i])
+        );
+        write(ORDERS, columns, order, format, channel);
+        return rows.size;
+    }
+
+    public long exportReviews(Filter filter, Format format, WritableByteChannel channel) throws IOException {
+        if (filter.status() != null) {
+            throw new IllegalArgumentException("Reviews have no status.");
+        }
+        if (filter.restaurantId() != null) {
+            restaurant(filter.restaurantId());
+        }
+        Collection<Review> source = reviewService.getRepository().values();
+        ReviewRows rows = new ReviewRows(Math.max(16, source.size()));
+        for (Review r : source) {
+            LocalDateTime createdAt = r.getCreatedAt();
+            Restaurant restaurant = r.getRestaurant();
+            if (!filter.matches(createdAt, restaurant)) {
+                continue;
+            }
+            rows.add(r, createdAt, restaurant);
+        }
+        int[] order = sortedById(rows.size, i -> rows.ids[i]);
+
+        List<ExportColumn> columns = List.of(
+                ExportColumn.int32("id", ROW_GROUP, i -> rows.ids[i]),
+                ExportColumn.int64("createdAt", ExportColumn.TIMESTAMP, ROW_GROUP, i -> rows.createdAt[i]),
+                ExportColumn.int8("rating", ROW_GROUP, i -> rows.ratings[i], null),
+                ExportColumn.int64("restaurantId", ExportColumn.INT64, ROW_GROUP, i -> rows.restaurantIds[i]),
+                ExportColumn.int64("driverId", ExportColumn.INT64, ROW_GROUP, i -> rows.driverIds[i]),
+                ExportColumn.int64("authorId", ExportColumn.INT64, ROW_GROUP, i -> rows.authorIds[i]),
+                ExportColumn.int64("feedbackUserId", ExportColumn.INT64, ROW_GROUP, i -> rows.feedbackUserIds[i]),
+                ExportColumn.string("text", ROW_GROUP, i -> rows.texts[i])
+        );
+        write(REVIEWS, columns, order, format, channel);
+        return rows.size;
+    }
+
+    private Restaurant restaurant(long id) {
+        Restaurant r = restaurantService.findById(id);
+        if (r == null) {
+            throw new IllegalArgumentException("Restaurant not found: " + id);
+        }
+        return r;
+    }
+
+    // snapshot'o indeksai id tvarka: (id << 32 | indeksas) rikiuojami kaip primityvai
+    private static int[] sortedById(int n, IntUnaryOperator idOf) {
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = ((long) idOf.applyAsInt(i) << 32) | i;
+        }
+        Arrays.sort(keys);
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = (int) keys[i];
+        }
+        return order;
+    }
+
+    private static void write(byte kind, List<ExportColumn> columns, int[] order, Format format,
+                              WritableByteChannel channel) throws IOException {
+        ChannelOutput out = new ChannelOutput(channel);
+        StringBuilder line = new StringBuilder(256);
+        if (format == Format.CSV) {
+            for (int c = 0; c < columns.size(); c++) {
+                line.append(c > 0 ? "," : "").append(columns.get(c).name);
+            }
+            out.writeText(line.append('\n'));
+        } else {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeByte(kind);
+            out.writeShort(columns.size());
+            for (ExportColumn column : columns) {
+                byte[] name = column.name.getBytes(StandardCharsets.UTF_8);
+                out.writeByte(column.type);
+                out.writeShort(name.length);
+                out.writeBytes(name);
+            }
+        }
+
+        for (int start = 0; start < order.length; start += ROW_GROUP) {
+            int rows = Math.min(ROW_GROUP, order.length - start);
+            // grupės reikšmės iš snapshot'o – į stulpelių masyvus
+            for (int r = 0; r < rows; r++) {
+                for (ExportColumn column : columns) {
+                    column.read(r, order[start + r]);
+                }
+            }
+            if (format == Format.CSV) {
+                for (int r = 0; r < rows; r++) {
+                    line.setLength(0);
+                    for (int c = 0; c < columns.size(); c++) {
+                        if (c > 0) {
+                            line.append(',');
+                        }
+                        appendCsv(line, columns.get(c).text(r));
+                    }
+                    out.writeText(line.append('\n'));
+                }
+            } else {
+                out.writeInt(rows);
+                for (ExportColumn column : columns) {
+                    column.write(out, rows);
+                }
+            }
+        }
+        if (format == Format.COLUMNAR) {
+            out.writeInt(0);
+        }
+        out.flush();
+    }
+
+    private static void appendCsv(StringBuilder line, String value) {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            line.append(value);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        line.append('"');
+    }
+
+    // užsakymų snapshot'as stulpeliais: visi eksportuojami laukai nuskaitomi vieną kartą
+    private static final class OrderRows {
+
+        private int size;
+        private int[] ids;
+        private long[] createdAt;
+        private byte[] statuses;
+        private long[] restaurantIds;
+        private long[] buyerIds;
+        private long[] driverIds;
+        private long[] prices;
+        private int[] dishes;
+        private String[] names;
+
+        OrderRows(int capacity) {
+            ids = new int[capacity];
+            createdAt = new long[capacity];
+            statuses = new byte[capacity];
+            restaurantIds = new long[capacity];
+            buyerIds = new long[capacity];
+            driverIds = new long[capacity];
+            prices = new long[capacity];
+            dishes = new int[capacity];
+            names = new String[capacity];
+        }
+
+        // status ir restaurant – jau perskaityti filtrui, kad eilutė atitiktų tai, kas filtruota
+        void add(FoodOrder o, OrderStatus status, Restaurant restaurant) {
+            if (size == ids.length) {
+                grow(size * 2);
+            }
+            List<?> cuisines = o.getCuisineList();
+            ids[size] = o.getId();
+            createdAt[size] = ExportColumn.seconds(o.getCreatedAt());
+            statuses[size] = (byte) (status != null ? status.ordinal() : -1);
+            restaurantIds[size] = id(restaurant);
+            buyerIds[size] = id(o.getBuyer());
+            driverIds[size] = id(o.getDriver());
+            prices[size] = Money.toMinor(o.getPrice());
+            dishes[size] = cuisines != null ? cuisines.size() : 0;
+            names[size] = o.getName();
+            size++;
+        }
+
+        private void grow(int capacity) {
+            ids = Arrays.copyOf(ids, capacity);
+            createdAt = Arrays.copyOf(createdAt, capacity);
+            statuses = Arrays.copyOf(statuses, capacity);
+            restaurantIds = Arrays.copyOf(restaurantIds, capacity);
+            buyerIds = Arrays.copyOf(buyerIds, capacity);
+            driverIds = Arrays.copyOf(driverIds, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+            dishes = Arrays.copyOf(dishes, capacity);
+            names = Arrays.copyOf(names, capacity);
+        }
+    }
+
+    // review snapshot'as – kaip OrderRows
+    private static final class ReviewRows {
+
+        private int size;
+        private int[] ids;
+        private long[] createdAt;
+        private byte[] ratings;
+        private long[] restaurantIds;
+        private long[] driverIds;
+        private long[] authorIds;
+        private long[] feedbackUserIds;
+        private String[] texts;
+
+        ReviewRows(int capacity) {
+            ids = new int[capacity];
+            createdAt = new long[capacity];
+            ratings = new byte[capacity];
+            restaurantIds = new long[capacity];
+            driverIds = new long[capacity];
+            authorIds = new long[capacity];
+            feedbackUserIds = new long[capacity];
+            texts = new String[capacity];
+        }
+
+        // createdAt ir restaurant – jau perskaityti filtrui
+        void add(Review r, LocalDateTime created, Restaurant restaurant) {
+            if (size == ids.length) {
+                grow(size * 2);
+            }
+            ids[size] = r.getId();
+            createdAt[size] = ExportColumn.seconds(created);
+            ratings[size] = (byte) r.getRating();
+            restaurantIds[size] = id(restaurant);
+            driverIds[size] = id(r.getDriver());
+            authorIds[size] = id(r.getCommentOwner());
+            feedbackUserIds[size] = id(r.getFeedbackUser());
+            texts[size] = r.getText();
+            size++;
+        }
+
+        private void grow(int capacity) {
+            ids = Arrays.copyOf(ids, capacity);
+            createdAt = Arrays.copyOf(createdAt, capacity);
+            ratings = Arrays.copyOf(ratings, capacity);
+            restaurantIds = Arrays.copyOf(restaurantIds, capacity);
+            driverIds = Arrays.copyOf(driverIds, capacity);
+            authorIds = Arrays.copyOf(authorIds, capacity);
+            feedbackUserIds = Arrays.copyOf(feedbackUserIds, capacity);
+            texts = Arrays.copyOf(texts, capacity);
+        }
+    }
+
+    private static long id(User user) {
+        return user != null && user.getId() != null ? user.getId() : -1;
+    }
+
+    private static FileChannel create(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args.length > 4 || !List.of("orders", "reviews").contains(args[0])) {
+            System.err.println("Usage: HistoryExport <orders|reviews> <file> [from] [to]");
+            System.exit(2);
+        }
+        Filter filter = new Filter(
+                args.length > 2 ? LocalDateTime.parse(args[2]) : null,
+                args.length > 3 ? LocalDateTime.parse(args[3]) : null,
+                null, null);
+        Services services = new Services(ListDispatcher.DIRECT);
+        try (Closeable persistence = Storage.open(services)) {
+            HistoryExport export = new HistoryExport(services);
+            Path file = Path.of(args[1]);
+            long rows = args[0].equals("orders")
+                    ? export.exportOrders(filter, file)
+                    : export.exportReviews(filter, file);
+            System.out.println(file + ": " + rows + " rows.");
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package coursework.bulk;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+// JSON lines: kiekviena netuščia eilutė – vienas plokščias JSON objektas
+// ({"login": "rest1", "price": 8.5, "vegan": true}). Skaičiai ir true/false grąžinami tekstu,
+// null – kaip trūkstama reikšmė; įdėti objektai / masyvai nepalaikomi.
+final class JsonLinesRecordReader implements RecordReader {
+
+    private static final Pattern NUMBER = Pattern.compile("-?\\d+(\\.\\d+)?([eE][+-]?\\d+)?");
+
+    private final BufferedReader in;
+    private long line;
+    private long recordLine;
+
+    private String text;
+    private int pos;
+
+    JsonLinesRecordReader(Reader reader) {
+        this.in = reader instanceof BufferedReader b ? b : new BufferedReader(reader, 1 << 16);
+    }
+
+    @Override
+    public Map<String, String> next() throws IOException {
+        String l;
+        while ((l = in.readLine()) != null) {
+            line++;
+            if (!l.isBlank()) {
+                recordLine = line;
+                return parse(line == 1 && l.startsWith("\uFEFF") ? l.substring(1) : l);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public long line() {
+        return recordLine;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private Map<String, String> parse(String line) {
+        text = line;
+        pos = 0;
+        Map<String, String> record = new HashMap<>();
+        skipWhitespace();
+        expect('{');
+        skipWhitespace();
+        if (peek() == '}') {
+            pos++;
+        } else {
+            while (true) {
+                skipWhitespace();
+                String key = string();
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                record.put(key.toLowerCase(Locale.ROOT), value(key));
+                skipWhitespace();
+                char c = take();
+                if (c == '}') {
+                    break;
+                }
+                if (c != ',') {
+                    throw new IllegalArgumentException("Expected ',' or '}' at position " + (pos - 1) + ".");
+                }
+            }
+        }
+        skipWhitespace();
+        if (pos != text.length()) {
+            throw new IllegalArgumentException("Unexpected text after the object at position " + pos + ".");
+        }
+        return record;
+    }
+
+    private String value(String key) {
+        char c = peek();
+        if (c == '"') {
+            return string();
+        }
+        if (c == '{' || c == '[') {
+            throw new IllegalArgumentException("Nested value is not supported: " + key + ".");
+        }
+        int start = pos;
+        while (pos < text.length() && "{}[],: \t\"".indexOf(text.charAt(pos)) < 0) {
+            pos++;
+        }
+        String literal = text.substring(start, pos);
+        if (literal.equals("null")) {
+            return null;
+        }
+        if (literal.equals("true") || literal.equals("false") || NUMBER.matcher(literal).matches()) {
+            return literal;
+        }
+        throw new IllegalArgumentException("Invalid value for " + key + ": " + literal + ".");
+    }
+
+    private String string() {
+        expect('"');
+        StringBuilder sb = new StringBuilder();
+        while (true) {
+            char c = take();
+            if (c == '"') {
+                return sb.toString();
+            }
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            char e = take();
+            switch (e) {
+                case '"', '\\', '/' -> sb.append(e);
+                case 'b' -> sb.append('\b');
+                case 'f' -> sb.append('\f');
+                case 'n' -> sb.append('\n');
+                case 'r' -> sb.append('\r');
+                case 't' -> sb.append('\t');
+                case 'u' -> {
+                    if (pos + 4 > text.length()) {
+                        throw new IllegalArgumentException("Invalid unicode escape.");
+                    }
+                    try {
+                        sb.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                    } catch (NumberFormatException ex) {
+                        throw new IllegalArgumentException("Invalid unicode escape.");
+                    }
+                    pos += 4;
+                }
+                default -> throw new IllegalArgumentException("Invalid escape: \\" + e + ".");
+            }
+        }
+    }
+
+    private void skipWhitespace() {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private char peek() {
+        if (pos >= text.length()) {
+            throw new IllegalArgumentException("Unexpected end of line.");
+        }
+        return text.charAt(pos);
+    }
+
+    private char take() {
+        char c = peek();
+        pos++;
+        return c;
+    }
+
+    private void expect(char expected) {
+        if (take() != expected) {
+            throw new IllegalArgumentException("Expected '" + expected + "' at position " + (pos - 1) + ".");
+        }
+    }
+}
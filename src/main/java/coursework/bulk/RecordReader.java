@@ -0,0 +1,17 @@
+package coursework.bulk;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+
+// Srautinis įrašų skaitymas: po vieną įrašą (stulpelio pavadinimas -> reikšmė), nieko nekaupiant.
+// Pavadinimai – mažosiomis raidėmis. Sugadintas įrašas – IllegalArgumentException,
+// po jos galima skaityti toliau (praleidžiamas tik tas įrašas).
+interface RecordReader extends Closeable {
+
+    // null – failo pabaiga
+    Map<String, String> next() throws IOException;
+
+    // eilutė, kurioje prasideda paskutinis perskaitytas įrašas (klaidų pranešimams)
+    long line();
+}
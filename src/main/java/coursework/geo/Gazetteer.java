@@ -0,0 +1,112 @@
+package coursework.geo;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+// Vietovardžių žodynas: pavadinimas -> koordinatės, iš lokalaus failo (be jokių išorinių API).
+// Failo eilutė: pavadinimas<TAB>platuma<TAB>ilguma, '#' – komentaras.
+// Pavadinimas gali būti patikslintas miestu ("Senamiestis, Kaunas"), jei be jo dviprasmiškas.
+// Adresas laisvo teksto, todėl ieškom nuo tiksliausios dalies (iš kairės), kiekvienai daliai
+// pirma su likusia pabaiga, tada vienos:
+//   "Savanorių pr. 1, Žaliakalnis, Kaunas" -> visas adresas, "savanorių pr. 1",
+//   "žaliakalnis, kaunas", "žaliakalnis", "kaunas".
+public class Gazetteer {
+
+    public static final String DEFAULT_RESOURCE = "/gazetteer.tsv";
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    private final Map<String, GeoPoint> places;
+
+    private Gazetteer(Map<String, GeoPoint> places) {
+        this.places = places;
+    }
+
+    // -Dgazetteer.file=..., kitaip – kartu su programa esantis gazetteer.tsv
+    public static Gazetteer load() throws IOException {
+        String file = System.getProperty("gazetteer.file");
+        if (file != null) {
+            return load(Path.of(file));
+        }
+        try (InputStream in = Gazetteer.class.getResourceAsStream(DEFAULT_RESOURCE)) {
+            if (in == null) {
+                return new Gazetteer(Map.of());
+            }
+            return read(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+    }
+
+    public static Gazetteer load(Path file) throws IOException {
+        return read(Files.newBufferedReader(file, StandardCharsets.UTF_8));
+    }
+
+    private static Gazetteer read(Reader source) throws IOException {
+        Map<String, GeoPoint> places = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(source)) {
+            String line;
+            int lineNo = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] cols = line.split("\t");
+                if (cols.length != 3) {
+                    throw new IOException("Bad gazetteer line " + lineNo + ": " + line);
+                }
+                try {
+                    places.put(normalize(cols[0]),
+                            new GeoPoint(Double.parseDouble(cols[1].trim()), Double.parseDouble(cols[2].trim())));
+                } catch (NumberFormatException e) {
+                    throw new IOException("Bad coordinates on gazetteer line " + lineNo + ": " + line);
+                }
+            }
+        }
+        return new Gazetteer(places);
+    }
+
+    // null – adreso nepavyko susieti su jokia vieta
+    public GeoPoint resolve(String address) {
+        if (address == null || address.isBlank()) {
+            return null;
+        }
+        String[] parts = normalize(address).split(",");
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = parts[i].trim();
+        }
+        for (int from = 0; from < parts.length; from++) {
+            GeoPoint p = places.get(String.join(", ", Arrays.copyOfRange(parts, from, parts.length)));
+            if (p == null) {
+                p = places.get(parts[from]);
+            }
+            if (p != null) {
+                return p;
+            }
+        }
+        return null;
+    }
+
+    public int size() {
+        return places.size();
+    }
+
+    // mažosios raidės, be diakritikų ("Šiauliai" == "siauliai"), vienas tarpas
+    static String normalize(String text) {
+        String stripped = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return SPACES.matcher(stripped.toLowerCase(Locale.ROOT).trim()).replaceAll(" ")
+                .replace(" ,", ",");
+    }
+}
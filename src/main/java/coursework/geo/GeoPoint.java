@@ -0,0 +1,21 @@
+package coursework.geo;
+
+// Taškas WGS84 koordinatėmis (laipsniais)
+public record GeoPoint(double latitude, double longitude) {
+
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+
+    // haversine atstumas kilometrais
+    public double distanceKm(double latitude, double longitude) {
+        double dLat = Math.toRadians(latitude - this.latitude);
+        double dLon = Math.toRadians(longitude - this.longitude);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(this.latitude)) * Math.cos(Math.toRadians(latitude))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    public double distanceKm(GeoPoint other) {
+        return distanceKm(other.latitude, other.longitude);
+    }
+}
@@ -0,0 +1,220 @@
+package coursework.geo;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+
+// Tolygus platumos/ilgumos tinklelis: langelis ~1 km, kiekviename – jame esančių objektų aibė.
+// k artimiausių ieškom žiedais aplink taško langelį ir sustojam, kai kitas žiedas
+// jau tikrai toliau nei k-tas rastas, arba kai žiedas išeina už užimtų langelių ribų
+// (kai tinkamų objektų mažiau nei k); "per N km" – tik langeliai, kertantys tą spindulį.
+// Ribos tik plečiamos (remove jų nemažina) – užtenka, kad visi objektai būtų jų viduje.
+// Retame tinklelyje (langelių peržiūrėta daugiau nei yra objektų) pereinam prie tiesinės
+// paieškos per visus objektus – tada užklausa kainuoja ne daugiau nei ~2 x objektų.
+// Objektas keičiamas vietoje, todėl atsimenam, kuriame langelyje jis dabar yra.
+// Atstumai skaičiuojami plokščia (equirectangular) aproksimacija su vienu cos per užklausą:
+// miesto mastu paklaida < 0.1 %, o haversine trigonometrija kiekvienam taškui – brangiausia vieta.
+// Saugu kviesti iš kelių gijų (rezultatai – weakly consistent).
+public class SpatialIndex<T> {
+
+    // 0.01° platumos ≈ 1.11 km; ilgumos langelis siauresnis (Lietuvoje ~0.64 km)
+    private static final double CELL_DEGREES = 0.01;
+    private static final double KM_PER_DEGREE_LAT = 111.2;
+    private static final int MAX_RINGS = 500; // ~500 km – toliau neieškom
+
+    private record Entry<T>(T item, long cell, double latitude, double longitude) {
+    }
+
+    // atstumo kvadratas (km²) – šaknis rikiavimui nereikalinga
+    private record Hit<T>(T item, double distanceSq) {
+    }
+
+    // užimtų langelių stačiakampis (eilutės ir stulpeliai imtinai)
+    private record Bounds(int minRow, int maxRow, int minCol, int maxCol) {
+
+        Bounds including(int row, int col) {
+            return new Bounds(Math.min(minRow, row), Math.max(maxRow, row),
+                    Math.min(minCol, col), Math.max(maxCol, col));
+        }
+    }
+
+    private final Map<Long, Set<Entry<T>>> cells = new ConcurrentHashMap<>();
+    private final Map<Long, Entry<T>> entries = new ConcurrentHashMap<>();
+    // null – dar nieko neįdėta
+    private final AtomicReference<Bounds> bounds = new AtomicReference<>();
+
+    public void put(long id, T item, double latitude, double longitude) {
+        Entry<T> entry = new Entry<>(item, cellOf(latitude, longitude), latitude, longitude);
+        int row = row(latitude);
+        int col = col(longitude);
+        // ribos praplečiamos prieš įdedant, kad nearest matomas objektas visada būtų jų viduje
+        bounds.updateAndGet(b -> b == null ? new Bounds(row, row, col, col) : b.including(row, col));
+        Entry<T> old = entries.put(id, entry);
+        if (old != null) {
+            removeFromCell(old);
+        }
+        cells.computeIfAbsent(entry.cell(), k -> ConcurrentHashMap.newKeySet()).add(entry);
+    }
+
+    public void remove(long id) {
+        Entry<T> old = entries.remove(id);
+        if (old != null) {
+            removeFromCell(old);
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // k artimiausių (artimiausias pirmas), tik tenkinantys filter
+    public List<T> nearest(GeoPoint from, int k, Predicate<T> filter) {
+        if (k <= 0 || entries.isEmpty()) {
+            return List.of();
+        }
+        // max-heap: viršuje – toliausias iš k geriausių
+        PriorityQueue<Hit<T>> best = new PriorityQueue<>(Comparator.comparingDouble((Hit<T> h) -> h.distanceSq()).reversed());
+        int row = row(from.latitude());
+        int col = col(from.longitude());
+        double ringKm = ringWidthKm(from.latitude());
+        double kmPerDegreeLon = kmPerDegreeLon(from.latitude());
+        Bounds b = bounds.get();
+        // toliau už šį žiedą užimtų langelių nebėra
+        int lastRing = Math.min(MAX_RINGS, Math.max(
+                Math.max(Math.abs(row - b.minRow()), Math.abs(row - b.maxRow())),
+                Math.max(Math.abs(col - b.minCol()), Math.abs(col - b.maxCol()))));
+
+        long lookups = 0;
+        for (int ring = 0; ring <= lastRing; ring++) {
+            if (lookups > entries.size()) {
+                best.clear();
+                for (Entry<T> e : entries.values()) {
+                    offer(e, from, k, filter, kmPerDegreeLon, best);
+                }
+                break;
+            }
+            // visi taškai šiame ir tolimesniuose žieduose yra bent (ring - 1) * ringKm atstumu
+            double minKm = (ring - 1) * ringKm;
+            if (best.size() == k && minKm > 0 && minKm * minKm > best.peek().distanceSq()) {
+                break;
+            }
+            // žiedo kraštas, nukirptas iki užimtų langelių: viršutinė ir apatinė eilutės ištisai,
+            // tarpinėse – tik kairysis ir dešinysis langeliai
+            int firstCol = Math.max(col - ring, b.minCol());
+            int lastCol = Math.min(col + ring, b.maxCol());
+            for (int r = Math.max(row - ring, b.minRow()); r <= Math.min(row + ring, b.maxRow()); r++) {
+                if (Math.abs(r - row) == ring) {
+                    lookups += Math.max(0, lastCol - firstCol + 1);
+                    for (int c = firstCol; c <= lastCol; c++) {
+                        scan(cells.get(key(r, c)), from, k, filter, kmPerDegreeLon, best);
+                    }
+                } else {
+                    lookups += 2;
+                    if (col - ring >= b.minCol()) {
+                        scan(cells.get(key(r, col - ring)), from, k, filter, kmPerDegreeLon, best);
+                    }
+                    if (col + ring <= b.maxCol()) {
+                        scan(cells.get(key(r, col + ring)), from, k, filter, kmPerDegreeLon, best);
+                    }
+                }
+            }
+        }
+        List<Hit<T>> hits = new ArrayList<>(best);
+        hits.sort(Comparator.comparingDouble(Hit::distanceSq));
+        return hits.stream().map(Hit::item).toList();
+    }
+
+    private void scan(Set<Entry<T>> cell, GeoPoint from, int k, Predicate<T> filter,
+                      double kmPerDegreeLon, PriorityQueue<Hit<T>> best) {
+        if (cell == null) {
+            return;
+        }
+        for (Entry<T> e : cell) {
+            offer(e, from, k, filter, kmPerDegreeLon, best);
+        }
+    }
+
+    private void offer(Entry<T> e, GeoPoint from, int k, Predicate<T> filter,
+                       double kmPerDegreeLon, PriorityQueue<Hit<T>> best) {
+        if (!filter.test(e.item())) {
+            return;
+        }
+        double d = distanceSq(from, e, kmPerDegreeLon);
+        if (best.size() < k) {
+            best.add(new Hit<>(e.item(), d));
+        } else if (d < best.peek().distanceSq()) {
+            best.poll();
+            best.add(new Hit<>(e.item(), d));
+        }
+    }
+
+    // visi per radiusKm (artimiausias pirmas)
+    public List<T> within(GeoPoint from, double radiusKm, Predicate<T> filter) {
+        double kmPerDegreeLon = kmPerDegreeLon(from.latitude());
+        double dLat = radiusKm / KM_PER_DEGREE_LAT;
+        double dLon = radiusKm / kmPerDegreeLon;
+        double radiusSq = radiusKm * radiusKm;
+
+        List<Hit<T>> hits = new ArrayList<>();
+        for (int r = row(from.latitude() - dLat); r <= row(from.latitude() + dLat); r++) {
+            for (int c = col(from.longitude() - dLon); c <= col(from.longitude() + dLon); c++) {
+                Set<Entry<T>> cell = cells.get(key(r, c));
+                if (cell == null) {
+                    continue;
+                }
+                for (Entry<T> e : cell) {
+                    double d = distanceSq(from, e, kmPerDegreeLon);
+                    if (d <= radiusSq && filter.test(e.item())) {
+                        hits.add(new Hit<>(e.item(), d));
+                    }
+                }
+            }
+        }
+        hits.sort(Comparator.comparingDouble(Hit::distanceSq));
+        return hits.stream().map(Hit::item).toList();
+    }
+
+    private void removeFromCell(Entry<T> entry) {
+        Set<Entry<T>> cell = cells.get(entry.cell());
+        if (cell != null) {
+            cell.remove(entry);
+        }
+    }
+
+    private static double distanceSq(GeoPoint from, Entry<?> e, double kmPerDegreeLon) {
+        double dy = (e.latitude() - from.latitude()) * KM_PER_DEGREE_LAT;
+        double dx = (e.longitude() - from.longitude()) * kmPerDegreeLon;
+        return dx * dx + dy * dy;
+    }
+
+    private static double kmPerDegreeLon(double latitude) {
+        return KM_PER_DEGREE_LAT * Math.max(0.01, Math.cos(Math.toRadians(latitude)));
+    }
+
+    // siauriausias langelio matmuo (ilguma) šioje platumoje
+    private static double ringWidthKm(double latitude) {
+        return CELL_DEGREES * KM_PER_DEGREE_LAT * Math.max(0.01, Math.cos(Math.toRadians(Math.abs(latitude) + 1)));
+    }
+
+    private static int row(double latitude) {
+        return (int) Math.floor(latitude / CELL_DEGREES);
+    }
+
+    private static int col(double longitude) {
+        return (int) Math.floor(longitude / CELL_DEGREES);
+    }
+
+    private static long cellOf(double latitude, double longitude) {
+        return key(row(latitude), col(longitude));
+    }
+
+    private static long key(int row, int col) {
+        return ((long) row << 32) | (col & 0xffffffffL);
+    }
+}
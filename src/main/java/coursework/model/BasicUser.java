@@ -21,6 +21,10 @@ public class BasicUser extends User {
 
     protected String address;
 
+    // iš address per Gazetteer (GeoService); null – adreso nepavyko susieti su vieta
+    protected Double latitude;
+    protected Double longitude;
+
     @OneToMany(mappedBy = "buyer", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     protected List<FoodOrder> myOrders;
 
@@ -0,0 +1,34 @@
+package coursework.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+// Vienas užsakymo pokalbio pranešimas. Pranešimai tik pridedami (žr. ChatService),
+// tvarka užsakymo viduje – pagal id.
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+public class ChatMessage {
+
+    @Id
+    private long id;
+
+    @ManyToOne
+    private FoodOrder order;
+
+    // null – sistemos / perkeltas senas pranešimas
+    @ManyToOne
+    private BasicUser sender;
+
+    @Column(length = 2000)
+    private String text;
+
+    private LocalDateTime sentAt;
+}
@@ -14,7 +14,6 @@ import lombok.Setter;
 public class Cuisine {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private int id;
 
     private String name;
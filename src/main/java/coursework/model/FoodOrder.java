@@ -1,10 +1,12 @@
 package coursework.model;
 
 import jakarta.persistence.*;
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.time.LocalDateTime;
 
 import java.util.List;
@@ -12,12 +14,29 @@ import java.util.List;
 @Getter
 @Setter
 @NoArgsConstructor
-@AllArgsConstructor
 @Entity
+// stulpeliai, kuriuos rodo OrdersController – kraunami vienu query (be N+1)
+@NamedEntityGraph(name = FoodOrder.TABLE_GRAPH, attributeNodes = {
+        @NamedAttributeNode("buyer"),
+        @NamedAttributeNode("restaurant"),
+        @NamedAttributeNode("driver"),
+        @NamedAttributeNode("cuisineList")
+})
 public class FoodOrder {
 
+    public static final String TABLE_GRAPH = "FoodOrder.table";
+
+    private static final VarHandle STATUS;
+
+    static {
+        try {
+            STATUS = MethodHandles.lookup().findVarHandle(FoodOrder.class, "status", OrderStatus.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private int id;
 
     private String name;
@@ -30,18 +49,33 @@ public class FoodOrder {
     @ManyToMany
     private List<Cuisine> cuisineList;
 
-    @OneToOne
-    private Chat chat;
-
     @ManyToOne
     private Restaurant restaurant;
 
+    // keičiamas tik per OrderService (perėjimų lentelė) – CAS ant šio lauko, be bendro lock'o.
+    // Setter'io nėra: naujam užsakymui – initStatus, atkūrimui (log'as, JPA) – tiesiai į lauką
     @Enumerated(EnumType.STRING)
-    private OrderStatus status;
+    @Setter(AccessLevel.NONE)
+    private volatile OrderStatus status;
 
     @ManyToOne
     private Driver driver;
 
     private LocalDateTime createdAt;
+
+    // pradinis statusas, vieną kartą (kol užsakymas dar neturi statuso)
+    public void initStatus(OrderStatus initial) {
+        if (initial == null || !initial.isInitial()) {
+            throw new IllegalArgumentException("New orders start as " + OrderStatus.PENDING + ".");
+        }
+        if (!STATUS.compareAndSet(this, (OrderStatus) null, initial)) {
+            throw new IllegalStateException("Order status is already set.");
+        }
+    }
+
+    // tik leidžiamas perėjimas (OrderStatus.canBecome)
+    public boolean compareAndSetStatus(OrderStatus expected, OrderStatus next) {
+        return expected != null && expected.canBecome(next) && STATUS.compareAndSet(this, expected, next);
+    }
 }
 
@@ -0,0 +1,55 @@
+package coursework.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Pinigų sumos skaičiavimams – long centais (minor units), kad sumos būtų tikslios.
+// Entity laukai (Cuisine.price, FoodOrder.price) lieka double eurais – toks jų formatas DB, log'e ir UI,
+// bet juose visada tiksli centų suma: į double paverčiama tik per toMajor, atgal – per toMinor.
+public final class Money {
+
+    public static final int SCALE = 2;
+    private static final long MINOR_PER_MAJOR = 100;
+
+    private Money() {
+    }
+
+    // 12.34 -> 1234; 0.1 + 0.2 tipo paklaidos nukerpamos iki artimiausio cento
+    public static long toMinor(double major) {
+        if (Double.isNaN(major) || Double.isInfinite(major)) {
+            throw new IllegalArgumentException("Not an amount: " + major);
+        }
+        return Math.round(major * MINOR_PER_MAJOR);
+    }
+
+    public static long toMinor(Double major) {
+        return major != null ? toMinor(major.doubleValue()) : 0;
+    }
+
+    public static double toMajor(long minor) {
+        return minor / (double) MINOR_PER_MAJOR;
+    }
+
+    // "12.5", "12,50" -> 1250; daugiau nei 2 skaitmenys po kablelio suapvalinami
+    public static long parse(String text) {
+        try {
+            return new BigDecimal(text.trim().replace(',', '.'))
+                    .setScale(SCALE, RoundingMode.HALF_UP)
+                    .movePointRight(SCALE)
+                    .longValueExact();
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Amount out of range: " + text);
+        }
+    }
+
+    // 1234 -> "12.34", -5 -> "-0.05"
+    public static String format(long minor) {
+        return BigDecimal.valueOf(minor, SCALE).toPlainString();
+    }
+
+    // amount * basisPoints / 10000, apvalinant pusę į didesnę pusę (1 bp = 0.01 %)
+    public static long percent(long amount, int basisPoints) {
+        long scaled = Math.multiplyExact(amount, (long) basisPoints);
+        return Math.floorDiv(Math.addExact(scaled, 5_000), 10_000);
+    }
+}
@@ -1,5 +1,10 @@
 package coursework.model;
 
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 public enum OrderStatus {
     PENDING,
     SEEN_BY_STAFF,
@@ -10,5 +15,41 @@ public enum OrderStatus {
     IN_DELIVERY,
     DELIVERED,
     COMPLETED,
-    CANCELLED
+    CANCELLED;
+
+    // Užsakymo gyvavimo ciklas – leidžiami perėjimai.
+    // PENDING -> SEEN_BY_STAFF -> ACCEPTED -> FOOD_BEING_PREPARED -> WAITING_FOR_DRIVER
+    //   -> IN_DELIVERY -> DELIVERED -> COMPLETED; iki išvežimo galima REJECTED / CANCELLED.
+    // REJECTED, COMPLETED, CANCELLED – galutinės.
+    private static final Map<OrderStatus, Set<OrderStatus>> TRANSITIONS = new EnumMap<>(OrderStatus.class);
+
+    static {
+        TRANSITIONS.put(PENDING, EnumSet.of(SEEN_BY_STAFF, ACCEPTED, REJECTED, CANCELLED));
+        TRANSITIONS.put(SEEN_BY_STAFF, EnumSet.of(ACCEPTED, REJECTED, CANCELLED));
+        TRANSITIONS.put(ACCEPTED, EnumSet.of(FOOD_BEING_PREPARED, CANCELLED));
+        TRANSITIONS.put(FOOD_BEING_PREPARED, EnumSet.of(WAITING_FOR_DRIVER, CANCELLED));
+        TRANSITIONS.put(WAITING_FOR_DRIVER, EnumSet.of(IN_DELIVERY, CANCELLED));
+        TRANSITIONS.put(IN_DELIVERY, EnumSet.of(DELIVERED));
+        TRANSITIONS.put(DELIVERED, EnumSet.of(COMPLETED));
+        TRANSITIONS.put(REJECTED, EnumSet.noneOf(OrderStatus.class));
+        TRANSITIONS.put(COMPLETED, EnumSet.noneOf(OrderStatus.class));
+        TRANSITIONS.put(CANCELLED, EnumSet.noneOf(OrderStatus.class));
+    }
+
+    // naujas užsakymas visada prasideda PENDING
+    public boolean isInitial() {
+        return this == PENDING;
+    }
+
+    public boolean canBecome(OrderStatus next) {
+        return TRANSITIONS.get(this).contains(next);
+    }
+
+    public Set<OrderStatus> next() {
+        return EnumSet.copyOf(TRANSITIONS.get(this));
+    }
+
+    public boolean isFinal() {
+        return TRANSITIONS.get(this).isEmpty();
+    }
 }
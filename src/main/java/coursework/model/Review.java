@@ -16,7 +16,6 @@ import java.time.LocalDateTime;
 public class Review {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private int id;
 
     // Kas parašė review (VISADA klientas)
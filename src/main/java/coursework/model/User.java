@@ -17,7 +17,6 @@ import java.time.LocalDateTime;
 public class User implements Serializable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     protected Long id;
 
     @Column(unique = true)
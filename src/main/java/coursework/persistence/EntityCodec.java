@@ -0,0 +1,376 @@
+package coursework.persistence;
+
+import coursework.model.*;
+import coursework.service.Services;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+// Kompaktiškas dvejetainis entity formatas log'ui.
+// Ryšiai (pirkėjas, restoranas, patiekalai...) rašomi tik kaip id, o atkuriant
+// surandami per servisus – todėl įrašų tvarka log'e turi atitikti sukūrimo tvarką.
+// 0 kaip id reiškia null (servisų id prasideda nuo 1).
+public class EntityCodec {
+
+    public static final byte USER = 1;
+    public static final byte RESTAURANT = 2;
+    public static final byte DRIVER = 3;
+    public static final byte CUISINE = 4;
+    public static final byte ORDER = 5;
+    public static final byte REVIEW = 6;
+    public static final byte CHAT_MESSAGE = 7;
+
+    // FoodOrder.status neturi setter'io (keičiamas tik per perėjimų lentelę); atkuriant įrašytą
+    // būseną rašom tiesiai į lauką – kaip JPA su field access
+    private static final VarHandle ORDER_STATUS;
+
+    static {
+        try {
+            ORDER_STATUS = MethodHandles.privateLookupIn(FoodOrder.class, MethodHandles.lookup())
+                    .findVarHandle(FoodOrder.class, "status", OrderStatus.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Services services;
+
+    public EntityCodec(Services services) {
+        this.services = services;
+    }
+
+    public byte[] encode(byte type, Object entity) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            write(type, entity, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static byte[] encodeId(long id) {
+        byte[] bytes = new byte[8];
+        for (int i = 7; i >= 0; i--) {
+            bytes[i] = (byte) id;
+            id >>>= 8;
+        }
+        return bytes;
+    }
+
+    public void write(byte type, Object entity, DataOutput out) throws IOException {
+        switch (type) {
+            case USER -> writeUser((BasicUser) entity, out);
+            case RESTAURANT -> writeUser((Restaurant) entity, out);
+            case DRIVER -> writeDriver((Driver) entity, out);
+            case CUISINE -> writeCuisine((Cuisine) entity, out);
+            case ORDER -> writeOrder((FoodOrder) entity, out);
+            case REVIEW -> writeReview((Review) entity, out);
+            case CHAT_MESSAGE -> writeChatMessage((ChatMessage) entity, out);
+            default -> throw new IllegalArgumentException("Unknown entity type: " + type);
+        }
+    }
+
+    // pritaiko vieną log'o įrašą servisams
+    public void apply(WriteAheadLog.Entry entry) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(entry.payload()));
+        if (entry.op() == WriteAheadLog.OP_DELETE) {
+            long id = in.readLong();
+            switch (entry.type()) {
+                case USER -> services.getBasicUserService().getRepository().delete(id);
+                case RESTAURANT -> services.getRestaurantService().getRepository().delete(id);
+                case DRIVER -> services.getDriverService().getRepository().delete(id);
+                case CUISINE -> services.getCuisineService().getRepository().delete(id);
+                case ORDER -> services.getOrderService().getRepository().delete(id);
+                case REVIEW -> services.getReviewService().getRepository().delete(id);
+                case CHAT_MESSAGE -> services.getChatService().getRepository().delete(id);
+                default -> throw new IOException("Unknown entity type: " + entry.type());
+            }
+        } else {
+            read(entry.type(), in);
+        }
+    }
+
+    // nuskaito objektą ir įrašo jį į atitinkamą servisą (sukuria arba atnaujina vietoje)
+    public void read(byte type, DataInput in) throws IOException {
+        switch (type) {
+            case USER -> {
+                var repo = services.getBasicUserService().getRepository();
+                long id = in.readLong();
+                BasicUser u = repo.findById(id);
+                repo.restore(readUser(u != null ? u : new BasicUser(), id, in));
+            }
+            case RESTAURANT -> {
+                var repo = services.getRestaurantService().getRepository();
+                long id = in.readLong();
+                Restaurant r = repo.findById(id);
+                repo.restore(readUser(r != null ? r : new Restaurant(), id, in));
+            }
+            case DRIVER -> {
+                var repo = services.getDriverService().getRepository();
+                long id = in.readLong();
+                Driver d = repo.findById(id);
+                repo.restore(readDriver(d != null ? d : new Driver(), id, in));
+            }
+            case CUISINE -> {
+                var repo = services.getCuisineService().getRepository();
+                int id = in.readInt();
+                Cuisine c = repo.findById(id);
+                repo.restore(readCuisine(c != null ? c : new Cuisine(), id, in));
+            }
+            case ORDER -> {
+                var repo = services.getOrderService().getRepository();
+                int id = in.readInt();
+                FoodOrder o = repo.findById(id);
+                repo.restore(readOrder(o != null ? o : new FoodOrder(), id, in));
+            }
+            case REVIEW -> {
+                var repo = services.getReviewService().getRepository();
+                int id = in.readInt();
+                Review r = repo.findById(id);
+                repo.restore(readReview(r != null ? r : new Review(), id, in));
+            }
+            case CHAT_MESSAGE -> {
+                var repo = services.getChatService().getRepository();
+                long id = in.readLong();
+                ChatMessage m = repo.findById(id);
+                ChatMessage read = readChatMessage(m != null ? m : new ChatMessage(), id, in);
+                if (read.getOrder() != null) {
+                    repo.restore(read);
+                }
+            }
+            default -> throw new IOException("Unknown entity type: " + type);
+        }
+    }
+
+    // --- users ---
+
+    private void writeUser(BasicUser u, DataOutput out) throws IOException {
+        out.writeLong(u.getId());
+        writeString(out, u.getLogin());
+        writeString(out, u.getPassword());
+        writeString(out, u.getName());
+        writeString(out, u.getSurname());
+        writeString(out, u.getPhoneNumber());
+        writeString(out, u.getAddress());
+        out.writeBoolean(u.isAdmin());
+        writeDateTime(out, u.getDateCreated());
+        writeDateTime(out, u.getDateUpdated());
+    }
+
+    private <U extends BasicUser> U readUser(U u, long id, DataInput in) throws IOException {
+        u.setId(id);
+        u.setLogin(readString(in));
+        u.setPassword(readString(in));
+        u.setName(readString(in));
+        u.setSurname(readString(in));
+        u.setPhoneNumber(readString(in));
+        u.setAddress(readString(in));
+        u.setAdmin(in.readBoolean());
+        u.setDateCreated(readDateTime(in));
+        u.setDateUpdated(readDateTime(in));
+        return u;
+    }
+
+    private void writeDriver(Driver d, DataOutput out) throws IOException {
+        writeUser(d, out);
+        writeString(out, d.getLicence());
+        out.writeLong(d.getBDate() != null ? d.getBDate().toEpochDay() : Long.MIN_VALUE);
+        out.writeByte(d.getVehicleType() != null ? d.getVehicleType().ordinal() : -1);
+        out.writeBoolean(d.isAvailable());
+    }
+
+    private Driver readDriver(Driver d, long id, DataInput in) throws IOException {
+        readUser(d, id, in);
+        d.setLicence(readString(in));
+        long epochDay = in.readLong();
+        d.setBDate(epochDay != Long.MIN_VALUE ? LocalDate.ofEpochDay(epochDay) : null);
+        byte vehicle = in.readByte();
+        d.setVehicleType(vehicle >= 0 ? VehicleType.values()[vehicle] : null);
+        d.setAvailable(in.readBoolean());
+        return d;
+    }
+
+    // --- cuisine ---
+
+    private void writeCuisine(Cuisine c, DataOutput out) throws IOException {
+        out.writeInt(c.getId());
+        writeString(out, c.getName());
+        writeString(out, c.getIngredients());
+        out.writeDouble(c.getPrice());
+        out.writeBoolean(c.isSpicy());
+        out.writeBoolean(c.isVegan());
+        out.writeLong(c.getRestaurant() != null ? c.getRestaurant().getId() : 0);
+    }
+
+    private Cuisine readCuisine(Cuisine c, int id, DataInput in) throws IOException {
+        c.setId(id);
+        c.setName(readString(in));
+        c.setIngredients(readString(in));
+        c.setPrice(in.readDouble());
+        c.setSpicy(in.readBoolean());
+        c.setVegan(in.readBoolean());
+        c.setRestaurant(services.getRestaurantService().findById(in.readLong()));
+        return c;
+    }
+
+    // --- orders ---
+
+    private void writeOrder(FoodOrder o, DataOutput out) throws IOException {
+        out.writeInt(o.getId());
+        writeString(out, o.getName());
+        out.writeBoolean(o.getPrice() != null);
+        out.writeDouble(o.getPrice() != null ? o.getPrice() : 0.0);
+        out.writeLong(o.getBuyer() != null ? o.getBuyer().getId() : 0);
+        out.writeLong(o.getRestaurant() != null ? o.getRestaurant().getId() : 0);
+        out.writeLong(o.getDriver() != null ? o.getDriver().getId() : 0);
+        out.writeByte(o.getStatus() != null ? o.getStatus().ordinal() : -1);
+        writeDateTime(out, o.getCreatedAt());
+
+        List<Cuisine> dishes = o.getCuisineList();
+        out.writeInt(dishes != null ? dishes.size() : 0);
+        if (dishes != null) {
+            for (Cuisine c : dishes) {
+                out.writeInt(c.getId());
+            }
+        }
+    }
+
+    private FoodOrder readOrder(FoodOrder o, int id, DataInput in) throws IOException {
+        o.setId(id);
+        o.setName(readString(in));
+        boolean hasPrice = in.readBoolean();
+        double price = in.readDouble();
+        o.setPrice(hasPrice ? price : null);
+        o.setBuyer(services.getBasicUserService().findById(in.readLong()));
+        o.setRestaurant(services.getRestaurantService().findById(in.readLong()));
+        o.setDriver(services.getDriverService().findById(in.readLong()));
+        byte status = in.readByte();
+        ORDER_STATUS.setVolatile(o, status >= 0 ? OrderStatus.values()[status] : null);
+        o.setCreatedAt(readDateTime(in));
+
+        int count = in.readInt();
+        List<Cuisine> dishes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Cuisine c = services.getCuisineService().findById(in.readInt());
+            if (c != null) {
+                dishes.add(c);
+            }
+        }
+        o.setCuisineList(dishes);
+        return o;
+    }
+
+    // --- reviews ---
+
+    private void writeReview(Review r, DataOutput out) throws IOException {
+        out.writeInt(r.getId());
+        out.writeLong(r.getCommentOwner() != null ? r.getCommentOwner().getId() : 0);
+        out.writeLong(r.getFeedbackUser() != null ? r.getFeedbackUser().getId() : 0);
+        out.writeLong(r.getRestaurant() != null ? r.getRestaurant().getId() : 0);
+        out.writeLong(r.getDriver() != null ? r.getDriver().getId() : 0);
+        out.writeInt(r.getRating());
+        writeString(out, r.getText());
+        writeDateTime(out, r.getCreatedAt());
+    }
+
+    private Review readReview(Review r, int id, DataInput in) throws IOException {
+        r.setId(id);
+        r.setCommentOwner(services.getBasicUserService().findById(in.readLong()));
+        r.setFeedbackUser(services.getBasicUserService().findById(in.readLong()));
+        r.setRestaurant(services.getRestaurantService().findById(in.readLong()));
+        r.setDriver(services.getDriverService().findById(in.readLong()));
+        r.setRating(in.readInt());
+        r.setText(readString(in));
+        r.setCreatedAt(readDateTime(in));
+        return r;
+    }
+
+    // --- chat ---
+
+    private void writeChatMessage(ChatMessage m, DataOutput out) throws IOException {
+        out.writeLong(m.getId());
+        out.writeInt(m.getOrder().getId());
+        out.writeLong(m.getSender() != null ? m.getSender().getId() : 0);
+        writeString(out, m.getText());
+        writeDateTime(out, m.getSentAt());
+    }
+
+    // užsakymas jau ištrintas – order lieka null ir pranešimas praleidžiamas
+    private ChatMessage readChatMessage(ChatMessage m, long id, DataInput in) throws IOException {
+        m.setId(id);
+        m.setOrder(services.getOrderService().findById(in.readInt()));
+        m.setSender(user(in.readLong()));
+        m.setText(readString(in));
+        m.setSentAt(readDateTime(in));
+        return m;
+    }
+
+    // siuntėjas – bet kuris vartotojas (pirkėjas, restoranas ar driveris)
+    private BasicUser user(long id) {
+        if (id == 0) {
+            return null;
+        }
+        BasicUser u = services.getBasicUserService().findById(id);
+        if (u == null) {
+            u = services.getRestaurantService().findById(id);
+        }
+        if (u == null) {
+            u = services.getDriverService().findById(id);
+        }
+        return u;
+    }
+
+    // --- primityvai ---
+
+    private static void writeString(DataOutput out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeDateTime(DataOutput out, LocalDateTime dt) throws IOException {
+        out.writeBoolean(dt != null);
+        if (dt != null) {
+            out.writeLong(dt.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(dt.getNano());
+        }
+    }
+
+    private static LocalDateTime readDateTime(DataInput in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        long seconds = in.readLong();
+        int nanos = in.readInt();
+        return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,343 @@
+package coursework.persistence;
+
+import coursework.model.*;
+import coursework.repository.InMemoryRepository;
+import coursework.repository.RepositoryListener;
+import coursework.service.Services;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+
+import java.io.Closeable;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// JPA režimas (-Dpersistence=jpa): servisai lieka in-memory (prie jų jungiasi UI),
+// o visi pakeitimai per listenerius rašomi į embedded DB per JPA.
+// - paleidžiant viskas užkraunama viename EntityManager'yje: užsakymai su entity graph'u
+//   (pirkėjas, restoranas, driveris, patiekalai), review ir pokalbių pranešimai su fetch join – be N+1;
+// - rašymas fone paketais: vienas EntityManager + viena transakcija paketui,
+//   hibernate.jdbc.batch_size sujungia INSERT'us į JDBC batch'us;
+// - į eilę dedama ne pati entity, o jos kopija, padaryta listeneryje (rašančioje gijoje):
+//   gyvų servisų objektų EntityManager nepaliečia (nepakeičia kolekcijų savo wrapper'iais,
+//   neskaito laukų, kol kitos gijos juos keičia). Kopijoje ryšiai lieka nuorodomis
+//   (iš jų imamas tik id), cuisineList nukopijuojamas, o mappedBy kolekcijos – null
+//   (DB jų nesaugo, o cascade per jas vėl pasiektų gyvus objektus);
+// - L2 cache nenaudojamas: po paleidimo DB tik rašoma, skaitoma iš servisų;
+// - įrašas, kurio nepavyksta įrašyti ir pakartojus, sustabdo rašymą (fail-stop): DB lieka
+//   paskutinėje nuoseklioje būsenoje, klaida su stack trace praneša gijų klaidų kanalu,
+//   o flush() / close() ją išmeta – pakeitimai tyliai neprarandami.
+public class JpaPersistence implements Closeable {
+
+    public static final String UNIT = "food-reservation";
+
+    private static final int MAX_BATCH = 500;
+    private static final long MAX_DELAY_MILLIS = 20;
+    // nepavykęs įrašas kartojamas (laikinos DB klaidos), tarp bandymų – RETRY_DELAY_MILLIS * bandymas
+    private static final int RETRIES = 3;
+    private static final long RETRY_DELAY_MILLIS = 100;
+
+    private enum Kind { PERSIST, MERGE, REMOVE, STOP }
+
+    private record Op(Kind kind, Class<?> type, Object entity, Object id, CompletableFuture<Void> done) {
+    }
+
+    // kopijai statusas rašomas tiesiai į lauką – kaip EntityCodec atkuriant
+    private static final VarHandle ORDER_STATUS;
+
+    static {
+        try {
+            ORDER_STATUS = MethodHandles.privateLookupIn(FoodOrder.class, MethodHandles.lookup())
+                    .findVarHandle(FoodOrder.class, "status", OrderStatus.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final EntityManagerFactory emf;
+    private final BlockingQueue<Op> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private volatile boolean running = true;
+    // ne null – rašymas sustabdytas
+    private volatile IllegalStateException failure;
+
+    private JpaPersistence(EntityManagerFactory emf) {
+        this.emf = emf;
+        this.writer = new Thread(this::runWriter, "jpa-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    public static JpaPersistence open(Services services, Map<String, String> overrides) {
+        EntityManagerFactory emf = jakarta.persistence.Persistence.createEntityManagerFactory(UNIT, overrides);
+        load(emf, services);
+
+        JpaPersistence persistence = new JpaPersistence(emf);
+        persistence.attach(services.getBasicUserService().getRepository(), BasicUser.class);
+        persistence.attach(services.getRestaurantService().getRepository(), Restaurant.class);
+        persistence.attach(services.getDriverService().getRepository(), Driver.class);
+        persistence.attach(services.getCuisineService().getRepository(), Cuisine.class);
+        persistence.attach(services.getOrderService().getRepository(), FoodOrder.class);
+        persistence.attach(services.getReviewService().getRepository(), Review.class);
+        persistence.attach(services.getChatService().getRepository(), ChatMessage.class);
+        return persistence;
+    }
+
+    // palaukia, kol viskas, kas jau eilėje, bus įrašyta į DB; rašymas sustabdytas – IllegalStateException
+    public void flush() {
+        CompletableFuture<Void> marker = new CompletableFuture<>();
+        queue.add(new Op(Kind.MERGE, null, null, null, marker));
+        marker.join();
+        throwIfFailed();
+    }
+
+    @Override
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        CompletableFuture<Void> stopped = new CompletableFuture<>();
+        queue.add(new Op(Kind.STOP, null, null, null, stopped));
+        stopped.join();
+        emf.close();
+        throwIfFailed();
+    }
+
+    private void throwIfFailed() {
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static void load(EntityManagerFactory emf, Services services) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            // vienas persistence context – tas pats id visur grąžina tą patį objektą,
+            // todėl užsakymo buyer / restaurant yra tie patys objektai kaip servisuose
+            List<BasicUser> users = em.createQuery(
+                    "select u from BasicUser u where type(u) = BasicUser", BasicUser.class).getResultList();
+            List<Restaurant> restaurants = em.createQuery(
+                    "select r from Restaurant r", Restaurant.class).getResultList();
+            List<Driver> drivers = em.createQuery(
+                    "select d from Driver d", Driver.class).getResultList();
+            List<Cuisine> cuisines = em.createQuery(
+                    "select c from Cuisine c left join fetch c.restaurant", Cuisine.class).getResultList();
+            List<FoodOrder> orders = em.createQuery("select o from FoodOrder o", FoodOrder.class)
+                    .setHint("jakarta.persistence.fetchgraph", em.getEntityGraph(FoodOrder.TABLE_GRAPH))
+                    .getResultList();
+            List<Review> reviews = em.createQuery(
+                    "select r from Review r"
+                            + " left join fetch r.commentOwner left join fetch r.feedbackUser"
+                            + " left join fetch r.restaurant left join fetch r.driver", Review.class)
+                    .getResultList();
+            List<ChatMessage> messages = em.createQuery(
+                    "select m from ChatMessage m left join fetch m.sender order by m.id", ChatMessage.class)
+                    .getResultList();
+
+            // lazy kolekcijos po em.close() nebepasiekiamos – servisai jų nenaudoja,
+            // o Restaurant.menu užpildo CuisineService, kai atkuriami patiekalai
+            for (FoodOrder o : orders) {
+                o.setCuisineList(new ArrayList<>(o.getCuisineList()));
+            }
+            for (Restaurant r : restaurants) {
+                r.setMenu(List.of());
+            }
+
+            users.forEach(services.getBasicUserService().getRepository()::restore);
+            restaurants.forEach(services.getRestaurantService().getRepository()::restore);
+            drivers.forEach(services.getDriverService().getRepository()::restore);
+            cuisines.forEach(services.getCuisineService().getRepository()::restore);
+            orders.forEach(services.getOrderService().getRepository()::restore);
+            reviews.forEach(services.getReviewService().getRepository()::restore);
+            messages.forEach(services.getChatService().getRepository()::restore);
+        } finally {
+            em.close();
+        }
+    }
+
+    private <T> void attach(InMemoryRepository<T> repository, Class<T> type) {
+        repository.addListener(new RepositoryListener<>() {
+            @Override
+            public void added(T entity) {
+                queue.add(new Op(Kind.PERSIST, type, detach(entity), null, null));
+            }
+
+            @Override
+            public void updated(T entity) {
+                queue.add(new Op(Kind.MERGE, type, detach(entity), null, null));
+            }
+
+            @Override
+            public void removed(T entity) {
+                Object id = emf.getPersistenceUnitUtil().getIdentifier(entity);
+                queue.add(new Op(Kind.REMOVE, type, null, id, null));
+            }
+        });
+    }
+
+    // --- kopijos ---
+
+    private static Object detach(Object entity) {
+        // Restaurant ir Driver – BasicUser poklasiai, tikrinami pirmi
+        if (entity instanceof Restaurant r) {
+            return copyUser(r, new Restaurant());
+        } else if (entity instanceof Driver d) {
+            Driver copy = copyUser(d, new Driver());
+            copy.setLicence(d.getLicence());
+            copy.setBDate(d.getBDate());
+            copy.setVehicleType(d.getVehicleType());
+            copy.setAvailable(d.isAvailable());
+            return copy;
+        } else if (entity instanceof BasicUser u) {
+            return copyUser(u, new BasicUser());
+        } else if (entity instanceof Cuisine c) {
+            return new Cuisine(c.getId(), c.getName(), c.getIngredients(), c.getPrice(),
+                    c.isSpicy(), c.isVegan(), c.getRestaurant());
+        } else if (entity instanceof FoodOrder o) {
+            FoodOrder copy = new FoodOrder();
+            copy.setId(o.getId());
+            copy.setName(o.getName());
+            copy.setPrice(o.getPrice());
+            copy.setBuyer(o.getBuyer());
+            copy.setRestaurant(o.getRestaurant());
+            copy.setDriver(o.getDriver());
+            copy.setCreatedAt(o.getCreatedAt());
+            List<Cuisine> dishes = o.getCuisineList();
+            copy.setCuisineList(dishes != null ? new ArrayList<>(dishes) : new ArrayList<>());
+            ORDER_STATUS.setVolatile(copy, o.getStatus());
+            return copy;
+        } else if (entity instanceof Review r) {
+            return new Review(r.getId(), r.getCommentOwner(), r.getFeedbackUser(), r.getRestaurant(),
+                    r.getDriver(), r.getRating(), r.getText(), r.getCreatedAt(), r.getChat());
+        } else if (entity instanceof ChatMessage m) {
+            return new ChatMessage(m.getId(), m.getOrder(), m.getSender(), m.getText(), m.getSentAt());
+        }
+        throw new IllegalArgumentException("Unsupported entity: " + entity.getClass().getName());
+    }
+
+    private static <U extends BasicUser> U copyUser(BasicUser u, U copy) {
+        copy.setId(u.getId());
+        copy.setLogin(u.getLogin());
+        copy.setPassword(u.getPassword());
+        copy.setName(u.getName());
+        copy.setSurname(u.getSurname());
+        copy.setPhoneNumber(u.getPhoneNumber());
+        copy.setAddress(u.getAddress());
+        copy.setLatitude(u.getLatitude());
+        copy.setLongitude(u.getLongitude());
+        copy.setAdmin(u.isAdmin());
+        copy.setDateCreated(u.getDateCreated());
+        copy.setDateUpdated(u.getDateUpdated());
+        return copy;
+    }
+
+    private void runWriter() {
+        List<Op> batch = new ArrayList<>();
+        boolean stop = false;
+        while (!stop) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, MAX_BATCH - 1);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(MAX_DELAY_MILLIS);
+                while (batch.size() < MAX_BATCH && batch.get(batch.size() - 1).kind() != Kind.STOP) {
+                    long remaining = deadline - System.nanoTime();
+                    Op next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, MAX_BATCH - batch.size());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stop = true;
+            }
+            stop |= !batch.isEmpty() && batch.get(batch.size() - 1).kind() == Kind.STOP;
+
+            // po klaidos nebe rašom – tik užbaigiam flush / stop žymes
+            if (failure == null && write(batch) != null) {
+                // vienas blogas įrašas neturi numušti viso paketo – bandom po vieną
+                for (Op op : batch) {
+                    RuntimeException error = op.type() != null ? writeWithRetry(op) : null;
+                    if (error != null) {
+                        fail(op, error);
+                        break;
+                    }
+                }
+            }
+            for (Op op : batch) {
+                if (op.done() != null) {
+                    op.done().complete(null);
+                }
+            }
+            batch.clear();
+        }
+    }
+
+    // null – įrašyta
+    private RuntimeException writeWithRetry(Op op) {
+        RuntimeException error = null;
+        for (int attempt = 1; attempt <= RETRIES; attempt++) {
+            error = write(List.of(op));
+            if (error == null) {
+                return null;
+            }
+            try {
+                Thread.sleep(RETRY_DELAY_MILLIS * attempt);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return error;
+    }
+
+    private void fail(Op op, RuntimeException error) {
+        failure = new IllegalStateException("JPA write failed, persistence stopped: "
+                + op.kind() + " " + op.type().getSimpleName(), error);
+        Thread.currentThread().getUncaughtExceptionHandler().uncaughtException(Thread.currentThread(), failure);
+    }
+
+    // null – įrašyta, kitaip klaida (transakcija atšaukta)
+    private RuntimeException write(List<Op> batch) {
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        try {
+            tx.begin();
+            for (Op op : batch) {
+                if (op.type() == null) {
+                    continue; // flush / stop žymė
+                }
+                switch (op.kind()) {
+                    case PERSIST -> em.persist(op.entity());
+                    case MERGE -> em.merge(op.entity());
+                    case REMOVE -> {
+                        Object managed = em.find(op.type(), op.id());
+                        if (managed != null) {
+                            em.remove(managed);
+                        }
+                    }
+                    default -> {
+                    }
+                }
+            }
+            tx.commit();
+            return null;
+        } catch (RuntimeException e) {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            return e;
+        } finally {
+            em.close();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package coursework.persistence;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Nuoseklus skaitymas iš failo per memory-mapped langus – be viso failo kopijavimo į heap'ą.
+class MappedInput implements Closeable {
+
+    private static final long WINDOW = 256L << 20;
+
+    private final FileChannel channel;
+    private final long size;
+    private MappedByteBuffer buffer;
+    private long windowStart;
+
+    MappedInput(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.size = channel.size();
+    }
+
+    int readInt() throws IOException {
+        return ensure(4).getInt();
+    }
+
+    long readLong() throws IOException {
+        return ensure(8).getLong();
+    }
+
+    byte readByte() throws IOException {
+        return ensure(1).get();
+    }
+
+    void readFully(byte[] target, int length) throws IOException {
+        ensure(length).get(target, 0, length);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private MappedByteBuffer ensure(int bytes) throws IOException {
+        if (buffer == null || buffer.remaining() < bytes) {
+            long start = windowStart + (buffer != null ? buffer.position() : 0);
+            if (start + bytes > size) {
+                throw new EOFException("Unexpected end of snapshot");
+            }
+            long length = Math.min(size - start, Math.max(WINDOW, bytes));
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            windowStart = start;
+        }
+        return buffer;
+    }
+}
@@ -0,0 +1,68 @@
+package coursework.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Nuoseklus rašymas į failą per memory-mapped langus (po WINDOW baitų).
+// Uždarant failas nukerpamas iki realaus ilgio.
+class MappedOutput implements Closeable {
+
+    private static final long WINDOW = 64L << 20;
+
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long windowStart;
+
+    MappedOutput(Path file) throws IOException {
+        this.channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    void writeInt(int value) throws IOException {
+        ensure(4).putInt(value);
+    }
+
+    void writeLong(long value) throws IOException {
+        ensure(8).putLong(value);
+    }
+
+    void writeByte(byte value) throws IOException {
+        ensure(1).put(value);
+    }
+
+    void writeBytes(byte[] bytes) throws IOException {
+        ensure(bytes.length).put(bytes);
+    }
+
+    long position() {
+        return windowStart + (buffer != null ? buffer.position() : 0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        long length = position();
+        if (buffer != null) {
+            buffer.force();
+        }
+        channel.truncate(length);
+        channel.force(true);
+        channel.close();
+    }
+
+    private MappedByteBuffer ensure(int bytes) throws IOException {
+        if (buffer == null || buffer.remaining() < bytes) {
+            long start = position();
+            if (buffer != null) {
+                buffer.force();
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, start, Math.max(WINDOW, bytes));
+            windowStart = start;
+        }
+        return buffer;
+    }
+}
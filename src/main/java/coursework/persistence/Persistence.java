@@ -0,0 +1,178 @@
+package coursework.persistence;
+
+import coursework.model.*;
+import coursework.repository.InMemoryRepository;
+import coursework.repository.RepositoryListener;
+import coursework.service.Services;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// Servisų būsenos išsaugojimas: periodinis snapshot'as + write-ahead log'as.
+// Log'as skaidomas į segmentus operations-<karta>.wal. Snapshot'as snapshot-<karta>.snap
+// turi viską, kas buvo segmentuose su mažesne karta, todėl paleidžiant užtenka
+// nuskaityti naujausią snapshot'ą ir pritaikyti tik likusius segmentus (uodegą).
+// Snapshot'as daromas "gyvai": įrašai log'e pilni ir idempotentiški, tad pakeitimai,
+// patekę ir į snapshot'ą, ir į uodegą, po pakartotinio pritaikymo duoda tą pačią būseną.
+public class Persistence implements Closeable {
+
+    private static final Pattern SEGMENT = Pattern.compile("operations-(\\d+)\\.wal");
+    private static final Pattern SNAPSHOT = Pattern.compile("snapshot-(\\d+)\\.snap");
+
+    private final Path dataDir;
+    private final Services services;
+    private final EntityCodec codec;
+    private final WriteAheadLog wal;
+    private final ScheduledExecutorService scheduler;
+    private long generation;
+
+    private Persistence(Path dataDir, Services services, EntityCodec codec, WriteAheadLog wal, long generation) {
+        this.dataDir = dataDir;
+        this.services = services;
+        this.codec = codec;
+        this.wal = wal;
+        this.generation = generation;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "snapshot");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public static Persistence open(Path dataDir, WriteAheadLog.Config config, Services services) throws IOException {
+        Files.createDirectories(dataDir);
+        EntityCodec codec = new EntityCodec(services);
+
+        // 1. naujausias snapshot'as
+        long snapshotGeneration = 0;
+        List<Long> snapshots = generations(dataDir, SNAPSHOT);
+        if (!snapshots.isEmpty()) {
+            long latest = snapshots.get(snapshots.size() - 1);
+            snapshotGeneration = Snapshot.load(snapshotPath(dataDir, latest), codec);
+        }
+
+        // 2. log'o uodega
+        long lastSegment = snapshotGeneration;
+        for (long segment : generations(dataDir, SEGMENT)) {
+            if (segment >= snapshotGeneration) {
+                for (WriteAheadLog.Entry entry : WriteAheadLog.readAll(segmentPath(dataDir, segment))) {
+                    codec.apply(entry);
+                }
+            }
+            lastSegment = Math.max(lastSegment, segment);
+        }
+
+        // 3. rašom į naują segmentą
+        long generation = lastSegment + 1;
+        WriteAheadLog wal = new WriteAheadLog(segmentPath(dataDir, generation), config);
+
+        attach(services.getBasicUserService().getRepository(), EntityCodec.USER, BasicUser::getId, wal, codec);
+        attach(services.getRestaurantService().getRepository(), EntityCodec.RESTAURANT, Restaurant::getId, wal, codec);
+        attach(services.getDriverService().getRepository(), EntityCodec.DRIVER, Driver::getId, wal, codec);
+        attach(services.getCuisineService().getRepository(), EntityCodec.CUISINE, Cuisine::getId, wal, codec);
+        attach(services.getOrderService().getRepository(), EntityCodec.ORDER, FoodOrder::getId, wal, codec);
+        attach(services.getReviewService().getRepository(), EntityCodec.REVIEW, Review::getId, wal, codec);
+        attach(services.getChatService().getRepository(), EntityCodec.CHAT_MESSAGE, ChatMessage::getId, wal, codec);
+
+        return new Persistence(dataDir, services, codec, wal, generation);
+    }
+
+    // periodiniai snapshot'ai fone. Klaida (su stack trace) – į bendrą gijų klaidų kanalą;
+    // ir RuntimeException pagaunama, kitaip scheduler'is tyliai nutrauktų tolesnius snapshot'us
+    public void scheduleSnapshots(long intervalMinutes) {
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                snapshot();
+            } catch (IOException | RuntimeException e) {
+                Thread.currentThread().getUncaughtExceptionHandler().uncaughtException(Thread.currentThread(),
+                        new IllegalStateException("Snapshot failed: " + dataDir, e));
+            }
+        }, intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+    }
+
+    public synchronized void snapshot() throws IOException {
+        long next = generation + 1;
+        wal.rotate(segmentPath(dataDir, next));
+        generation = next;
+
+        Path tmp = dataDir.resolve("snapshot-" + next + ".tmp");
+        Snapshot.write(tmp, next, services, codec);
+        Files.move(tmp, snapshotPath(dataDir, next), StandardCopyOption.ATOMIC_MOVE);
+
+        // seni snapshot'ai ir jau į snapshot'ą patekę segmentai nebereikalingi
+        for (long old : generations(dataDir, SNAPSHOT)) {
+            if (old < next) {
+                Files.deleteIfExists(snapshotPath(dataDir, old));
+            }
+        }
+        for (long old : generations(dataDir, SEGMENT)) {
+            if (old < next) {
+                Files.deleteIfExists(segmentPath(dataDir, old));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        scheduler.shutdownNow();
+        wal.close();
+    }
+
+    private static Path segmentPath(Path dataDir, long generation) {
+        return dataDir.resolve("operations-" + generation + ".wal");
+    }
+
+    private static Path snapshotPath(Path dataDir, long generation) {
+        return dataDir.resolve("snapshot-" + generation + ".snap");
+    }
+
+    private static List<Long> generations(Path dataDir, Pattern pattern) throws IOException {
+        List<Long> result = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dataDir)) {
+            files.forEach(f -> {
+                Matcher m = pattern.matcher(f.getFileName().toString());
+                if (m.matches()) {
+                    result.add(Long.parseLong(m.group(1)));
+                }
+            });
+        }
+        result.sort(null);
+        return result;
+    }
+
+    private static <T> void attach(InMemoryRepository<T> repository,
+                                   byte type,
+                                   ToLongFunction<T> idOf,
+                                   WriteAheadLog wal,
+                                   EntityCodec codec) {
+
+        repository.addListener(new RepositoryListener<>() {
+            @Override
+            public void added(T entity) {
+                wal.append(type, WriteAheadLog.OP_CREATE, codec.encode(type, entity));
+            }
+
+            @Override
+            public void updated(T entity) {
+                wal.append(type, WriteAheadLog.OP_UPDATE, codec.encode(type, entity));
+            }
+
+            @Override
+            public void removed(T entity) {
+                wal.append(type, WriteAheadLog.OP_DELETE, EntityCodec.encodeId(idOf.applyAsLong(entity)));
+            }
+        });
+    }
+}
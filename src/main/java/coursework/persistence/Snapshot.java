@@ -0,0 +1,73 @@
+package coursework.persistence;
+
+import coursework.service.Services;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+
+// Visos servisų būsenos snapshot'as kompaktišku dvejetainiu formatu per memory-mapped failą.
+// Formatas: [int MAGIC][int VERSION][long generation], tada įrašai [byte tipas][int ilgis][payload],
+// pabaigoje [byte 0]. Tipai rašomi priklausomybių tvarka (vartotojai -> ... -> užsakymai, review),
+// kad nuskaitant ryšiai jau būtų atkurti. Pokalbių pranešimai – po užsakymų, kiekvieno užsakymo savo tvarka.
+final class Snapshot {
+
+    private static final int MAGIC = 0x46525353; // "FRSS"
+    private static final int VERSION = 1;
+    private static final byte END = 0;
+
+    private Snapshot() {
+    }
+
+    static void write(Path file, long generation, Services services, EntityCodec codec) throws IOException {
+        try (MappedOutput out = new MappedOutput(file)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(generation);
+
+            writeAll(out, EntityCodec.USER, services.getBasicUserService().getRepository().values(), codec);
+            writeAll(out, EntityCodec.RESTAURANT, services.getRestaurantService().getRepository().values(), codec);
+            writeAll(out, EntityCodec.DRIVER, services.getDriverService().getRepository().values(), codec);
+            writeAll(out, EntityCodec.CUISINE, services.getCuisineService().getRepository().values(), codec);
+            writeAll(out, EntityCodec.ORDER, services.getOrderService().getRepository().values(), codec);
+            writeAll(out, EntityCodec.REVIEW, services.getReviewService().getRepository().values(), codec);
+            writeAll(out, EntityCodec.CHAT_MESSAGE, services.getChatService().allMessages(), codec);
+
+            out.writeByte(END);
+        }
+    }
+
+    // grąžina snapshot'o kartą (generation) – nuo jos reikia pritaikyti log'o segmentus
+    static long load(Path file, EntityCodec codec) throws IOException {
+        try (MappedInput in = new MappedInput(file)) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a snapshot file: " + file);
+            }
+            long generation = in.readLong();
+
+            byte[] record = new byte[256];
+            byte type;
+            while ((type = in.readByte()) != END) {
+                int length = in.readInt();
+                if (record.length < length) {
+                    record = new byte[Math.max(length, record.length * 2)];
+                }
+                in.readFully(record, length);
+                codec.read(type, new DataInputStream(new ByteArrayInputStream(record, 0, length)));
+            }
+            return generation;
+        }
+    }
+
+    private static void writeAll(MappedOutput out, byte type, Collection<?> entities, EntityCodec codec)
+            throws IOException {
+        for (Object entity : entities) {
+            byte[] payload = codec.encode(type, entity);
+            out.writeByte(type);
+            out.writeInt(payload.length);
+            out.writeBytes(payload);
+        }
+    }
+}
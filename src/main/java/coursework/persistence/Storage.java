@@ -0,0 +1,26 @@
+package coursework.persistence;
+
+import coursework.service.Services;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+
+// Persistence režimo pasirinkimas pagal system properties – bendra UI ir headless serveriui:
+// -Dpersistence=jpa – per JPA į embedded DB, kitaip snapshot + log'as kataloge -Ddata.dir.
+public final class Storage {
+
+    private Storage() {
+    }
+
+    public static Closeable open(Services services) throws IOException {
+        if ("jpa".equals(System.getProperty("persistence"))) {
+            return JpaPersistence.open(services, Map.of());
+        }
+        Path dataDir = Path.of(System.getProperty("data.dir", "data"));
+        Persistence wal = Persistence.open(dataDir, WriteAheadLog.Config.fromSystemProperties(), services);
+        wal.scheduleSnapshots(Long.getLong("snapshot.intervalMin", 10));
+        return wal;
+    }
+}
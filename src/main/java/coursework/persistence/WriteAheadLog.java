@@ -0,0 +1,277 @@
+package coursework.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+// Append-only operacijų log'as su group commit.
+// Įrašas: [int ilgis][byte tipas][byte operacija][payload][int crc32].
+// Rašytojai tik įdeda įrašą į eilę; viena "wal-writer" gija surenka paketą
+// (iki maxBatchRecords arba maxDelayMillis), įrašo jį vienu write ir daro vieną fsync.
+// Rašymo klaida – fail-stop: po nepavykusio (gal pusiau įrašyto) paketo nieko nebe rašom, kad
+// atkuriant nukirsta sugadinta uodega nenusineštų vėlesnių sveikų įrašų. Klaida pranešama
+// uncaught-exception handler'iui, o append / flush / close ją meta toliau.
+public class WriteAheadLog implements Closeable {
+
+    public static final byte OP_CREATE = 1;
+    public static final byte OP_UPDATE = 2;
+    public static final byte OP_DELETE = 3;
+
+    private static final int HEADER = 4 + 1 + 1;
+    private static final int TRAILER = 4;
+    private static final byte[] STOP = new byte[0];
+
+    // maxBatchRecords / maxDelayMillis – group commit dydis ir laukimas;
+    // awaitSync = true – append grįžta tik po fsync (lėčiau, bet nieko neprarandam)
+    public record Config(int maxBatchRecords, long maxDelayMillis, boolean awaitSync) {
+
+        public static Config defaults() {
+            return new Config(512, 5, false);
+        }
+
+        public static Config fromSystemProperties() {
+            Config d = defaults();
+            return new Config(
+                    Integer.getInteger("wal.batch", d.maxBatchRecords()),
+                    Long.getLong("wal.delayMs", d.maxDelayMillis()),
+                    Boolean.parseBoolean(System.getProperty("wal.awaitSync", String.valueOf(d.awaitSync())))
+            );
+        }
+    }
+
+    public record Entry(byte type, byte op, byte[] payload) {
+    }
+
+    private record Pending(byte[] record, CompletableFuture<Void> done) {
+    }
+
+    private final Config config;
+    private Path file;
+    private FileChannel channel;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private volatile boolean running = true;
+    private volatile IllegalStateException failure;
+
+    public WriteAheadLog(Path file, Config config) throws IOException {
+        this.file = file;
+        this.config = config;
+        this.channel = openChannel(file);
+
+        this.writer = new Thread(this::runWriter, "wal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    public synchronized Path getFile() {
+        return file;
+    }
+
+    public CompletableFuture<Void> append(byte type, byte op, byte[] payload) {
+        throwIfFailed();
+        if (!running) {
+            throw new IllegalStateException("WAL is closed");
+        }
+        ByteBuffer buf = ByteBuffer.allocate(HEADER + payload.length + TRAILER);
+        buf.putInt(payload.length).put(type).put(op).put(payload);
+        buf.putInt(crc(buf.array(), 4, 2 + payload.length));
+
+        Pending p = new Pending(buf.array(), new CompletableFuture<>());
+        queue.add(p);
+        if (config.awaitSync()) {
+            p.done().exceptionally(e -> null).join();
+            throwIfFailed();
+        }
+        return p.done();
+    }
+
+    // visi sveiki įrašai iš (ne)aktyvaus segmento failo
+    public static List<Entry> readAll(Path file) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            scan(in, entries);
+        }
+        return entries;
+    }
+
+    // perjungia rašymą į naują segmentą (prieš snapshot'ą); senas lieka kol snapshot'as bus baigtas
+    public void rotate(Path newFile) throws IOException {
+        flush();
+        synchronized (this) {
+            channel.force(true);
+            channel.close();
+            channel = openChannel(newFile);
+            file = newFile;
+        }
+    }
+
+    // palaukia, kol viskas, kas jau įdėta į eilę, bus fsync'inta
+    public void flush() {
+        CompletableFuture<Void> marker = new CompletableFuture<>();
+        queue.add(new Pending(new byte[0], marker));
+        marker.exceptionally(e -> null).join();
+        throwIfFailed();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        // STOP įrašas eilės gale – writer'is įrašo viską prieš jį ir baigia darbą
+        CompletableFuture<Void> stopped = new CompletableFuture<>();
+        queue.add(new Pending(STOP, stopped));
+        stopped.exceptionally(e -> null).join();
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            channel.close();
+        }
+        throwIfFailed();
+    }
+
+    private void throwIfFailed() {
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void runWriter() {
+        List<Pending> batch = new ArrayList<>();
+        boolean stop = false;
+        while (!stop) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, config.maxBatchRecords() - 1);
+
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.maxDelayMillis());
+                while (batch.size() < config.maxBatchRecords() && !containsStop(batch)) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, config.maxBatchRecords() - batch.size());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stop = true;
+            }
+            stop |= containsStop(batch);
+            writeBatch(batch);
+            batch.clear();
+        }
+    }
+
+    private static boolean containsStop(List<Pending> batch) {
+        return !batch.isEmpty() && batch.get(batch.size() - 1).record() == STOP;
+    }
+
+    private synchronized void writeBatch(List<Pending> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (failure != null) {
+            for (Pending p : batch) {
+                p.done().completeExceptionally(failure);
+            }
+            return;
+        }
+        try {
+            int total = 0;
+            for (Pending p : batch) {
+                total += p.record().length;
+            }
+            ByteBuffer buf = ByteBuffer.allocate(total);
+            for (Pending p : batch) {
+                buf.put(p.record());
+            }
+            buf.flip();
+            while (buf.hasRemaining()) {
+                channel.write(buf);
+            }
+            channel.force(false);
+            for (Pending p : batch) {
+                p.done().complete(null);
+            }
+        } catch (IOException e) {
+            failure = new IllegalStateException("WAL write failed, persistence stopped: " + file,
+                    new UncheckedIOException(e));
+            for (Pending p : batch) {
+                p.done().completeExceptionally(failure);
+            }
+            Thread.currentThread().getUncaughtExceptionHandler().uncaughtException(Thread.currentThread(), failure);
+        }
+    }
+
+    private static FileChannel openChannel(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        FileChannel ch = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long valid = scan(ch, null);
+        ch.truncate(valid); // nukertam nebaigtą paskutinį įrašą
+        ch.position(valid);
+        return ch;
+    }
+
+    // eina per įrašus kol randa sugadintą / nebaigtą; grąžina sveikos dalies ilgį
+    private static long scan(FileChannel ch, List<Entry> out) throws IOException {
+        long size = ch.size();
+        long pos = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER);
+        while (pos + HEADER + TRAILER <= size) {
+            header.clear();
+            ch.read(header, pos);
+            header.flip();
+            int length = header.getInt();
+            byte type = header.get();
+            byte op = header.get();
+            if (length < 0 || pos + HEADER + length + TRAILER > size) {
+                break;
+            }
+            ByteBuffer body = ByteBuffer.allocate(2 + length + TRAILER);
+            ch.read(body, pos + 4);
+            byte[] bytes = body.array();
+            int stored = ByteBuffer.wrap(bytes, 2 + length, TRAILER).getInt();
+            if (stored != crc(bytes, 0, 2 + length)) {
+                break;
+            }
+            if (out != null) {
+                byte[] payload = new byte[length];
+                System.arraycopy(bytes, 2, payload, 0, length);
+                out.add(new Entry(type, op, payload));
+            }
+            pos += HEADER + length + TRAILER;
+        }
+        return pos;
+    }
+
+    private static int crc(byte[] bytes, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,47 @@
+package coursework.repository;
+
+import javafx.collections.ModifiableObservableListBase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// ObservableList, kurio pakeitimus galima sugrupuoti: viskas, kas padaryta batch(...) viduje,
+// klausytojams (SortedList, TableView) ateina kaip VIENAS list change.
+class BatchList<T> extends ModifiableObservableListBase<T> {
+
+    private final List<T> items = new ArrayList<>();
+
+    void batch(Runnable changes) {
+        beginChange();
+        try {
+            changes.run();
+        } finally {
+            endChange();
+        }
+    }
+
+    @Override
+    public T get(int index) {
+        return items.get(index);
+    }
+
+    @Override
+    public int size() {
+        return items.size();
+    }
+
+    @Override
+    protected void doAdd(int index, T element) {
+        items.add(index, element);
+    }
+
+    @Override
+    protected T doSet(int index, T element) {
+        return items.set(index, element);
+    }
+
+    @Override
+    protected T doRemove(int index) {
+        return items.remove(index);
+    }
+}
@@ -0,0 +1,71 @@
+package coursework.repository;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Pakeitimų "magistralė" į UI giją: užduotys iš darbinių gijų kaupiamos eilėje ir
+// perduodamos target dispatcheriui (FX – Platform.runLater) ne dažniau nei kartą per kadrą.
+// Vienas runLater per kadrą visiems repository – kiek pakeitimų beateitų per sekundę,
+// FX eilė neužtvindoma, o kiekvienas repository savo paketą pritaiko vienu list change.
+public class FrameDispatcher implements ListDispatcher {
+
+    public static final long FRAME_NANOS = TimeUnit.SECONDS.toNanos(1) / 60;
+
+    private final ListDispatcher target;
+    private final long frameNanos;
+
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private volatile long lastFrame = System.nanoTime() - FRAME_NANOS;
+
+    // kadrui palaukti – tik kai kadras dar nesibaigė
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "frame-dispatcher");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public FrameDispatcher(ListDispatcher target) {
+        this(target, FRAME_NANOS);
+    }
+
+    public FrameDispatcher(ListDispatcher target, long frameNanos) {
+        this.target = target;
+        this.frameNanos = frameNanos;
+    }
+
+    @Override
+    public boolean isDispatchThread() {
+        return target.isDispatchThread();
+    }
+
+    @Override
+    public void dispatch(Runnable task) {
+        tasks.add(task);
+        if (scheduled.compareAndSet(false, true)) {
+            long wait = lastFrame + frameNanos - System.nanoTime();
+            if (wait <= 0) {
+                target.dispatch(this::flush);
+            } else {
+                timer.schedule(() -> target.dispatch(this::flush), wait, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private void flush() {
+        lastFrame = System.nanoTime();
+        scheduled.set(false);
+        // tik tai, kas buvo eilėje prieš pradedant – kas ateina dabar, laukia kito kadro
+        for (int n = tasks.size(); n > 0; n--) {
+            Runnable task = tasks.poll();
+            if (task == null) {
+                break;
+            }
+            task.run();
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package coursework.repository;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+
+// Bendra in-memory saugykla visiems servisams.
+// Tiesos šaltinis – ConcurrentHashMap id -> objektas, todėl findById / update / delete yra O(1)
+// ir juos galima kviesti iš bet kurios gijos. Vieno id pakeitimai serializuojami per lock stripe,
+// skirtingi id eina lygiagrečiai.
+// ObservableList (prie jo jungiasi JavaFX lentelės) ir id -> pozicija map'as priklauso
+// dispatcher gijai: pakeitimai į juos patenka per vieną eilę (pending) ir pritaikomi ten
+// paketu – vienas list change visam paketui, o to paties id atnaujinimai, kuriuos paketo viduje
+// pakeičia vėlesni, praleidžiami (sąrašas vis tiek rodo tą patį objektą).
+// Trinant paskutinis elementas perkeliamas į ištrinto vietą, tad tvarka po trynimo
+// neišlaikoma (lentelės rūšiuoja pačios per SortedList).
+public class InMemoryRepository<T> {
+
+    private static final int STRIPES = 64;
+
+    private enum Kind { ADD, SET, REMOVE }
+
+    private record Change<T>(Kind kind, long id, T entity) {
+    }
+
+    private final Map<Long, T> byId = new ConcurrentHashMap<>();
+    private final Object[] locks = new Object[STRIPES];
+    private final AtomicLong idSequence;
+    private final List<RepositoryListener<? super T>> listeners = new CopyOnWriteArrayList<>();
+
+    // tik dispatcher gijai
+    private final BatchList<T> items = new BatchList<>();
+    private final ObservableList<T> readOnlyItems = FXCollections.unmodifiableObservableList(items);
+    private final Map<Long, Integer> positions = new HashMap<>();
+
+    private final Queue<Change<T>> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+
+    private final ToLongFunction<T> idOf;
+    private final ListDispatcher dispatcher;
+
+    public InMemoryRepository(ToLongFunction<T> idOf) {
+        this(idOf, ListDispatcher.FX);
+    }
+
+    public InMemoryRepository(ToLongFunction<T> idOf, ListDispatcher dispatcher) {
+        this(idOf, dispatcher, new AtomicLong(1));
+    }
+
+    // idSequence gali būti bendra keliems repository (pvz. visai User hierarchijai)
+    public InMemoryRepository(ToLongFunction<T> idOf, ListDispatcher dispatcher, AtomicLong idSequence) {
+        this.idOf = idOf;
+        this.dispatcher = dispatcher;
+        this.idSequence = idSequence;
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    public void addListener(RepositoryListener<? super T> listener) {
+        listeners.add(listener);
+    }
+
+    public long nextId() {
+        return idSequence.getAndIncrement();
+    }
+
+    public void add(T entity) {
+        long id = idOf.applyAsLong(entity);
+        synchronized (lockFor(id)) {
+            if (byId.putIfAbsent(id, entity) != null) {
+                throw new IllegalArgumentException("Duplicate id: " + id);
+            }
+            for (RepositoryListener<? super T> l : listeners) {
+                l.added(entity);
+            }
+            pending.add(new Change<>(Kind.ADD, id, entity));
+        }
+        publish();
+    }
+
+    // masinis pridėjimas (importas): listeneriai kviečiami kiekvienam objektui kaip add,
+    // bet į sąrašą viskas patenka vienu paketu – vienas list change visam batch'ui
+    public void addAll(Collection<? extends T> entities) {
+        try {
+            for (T entity : entities) {
+                long id = idOf.applyAsLong(entity);
+                synchronized (lockFor(id)) {
+                    if (byId.putIfAbsent(id, entity) != null) {
+                        throw new IllegalArgumentException("Duplicate id: " + id);
+                    }
+                    for (RepositoryListener<? super T> l : listeners) {
+                        l.added(entity);
+                    }
+                    pending.add(new Change<>(Kind.ADD, id, entity));
+                }
+            }
+        } finally {
+            publish();
+        }
+    }
+
+    // tik skaitymui ir tik dispatcher gijoje – visi pakeitimai turi eiti per repository
+    public ObservableList<T> getAll() {
+        return readOnlyItems;
+    }
+
+    public T findById(long id) {
+        return byId.get(id);
+    }
+
+    // visi objektai iš concurrent map'o – galima iteruoti iš bet kurios gijos (weakly consistent)
+    public Collection<T> values() {
+        return Collections.unmodifiableCollection(byId.values());
+    }
+
+    public boolean update(T updated) {
+        long id = idOf.applyAsLong(updated);
+        synchronized (lockFor(id)) {
+            if (byId.replace(id, updated) == null) {
+                return false;
+            }
+            for (RepositoryListener<? super T> l : listeners) {
+                l.updated(updated);
+            }
+            pending.add(new Change<>(Kind.SET, id, updated));
+        }
+        publish();
+        return true;
+    }
+
+    public boolean delete(long id) {
+        synchronized (lockFor(id)) {
+            T removed = byId.remove(id);
+            if (removed == null) {
+                return false;
+            }
+            for (RepositoryListener<? super T> l : listeners) {
+                l.removed(removed);
+            }
+            pending.add(new Change<>(Kind.REMOVE, id, removed));
+        }
+        publish();
+        return true;
+    }
+
+    // įrašo objektą su jau turimu id (pvz. atkuriant iš log'o) ir pastumia id seką už jo
+    public void restore(T entity) {
+        long id = idOf.applyAsLong(entity);
+        idSequence.accumulateAndGet(id + 1, Math::max);
+        synchronized (lockFor(id)) {
+            if (byId.containsKey(id)) {
+                update(entity);
+            } else {
+                add(entity);
+            }
+        }
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    private Object lockFor(long id) {
+        int h = Long.hashCode(id);
+        return locks[(h ^ (h >>> 16)) & (STRIPES - 1)];
+    }
+
+    // vienintelis perdavimo taškas į ObservableList
+    private void publish() {
+        if (dispatcher.isDispatchThread()) {
+            drain();
+        } else if (drainScheduled.compareAndSet(false, true)) {
+            dispatcher.dispatch(this::drain);
+        }
+    }
+
+    private void drain() {
+        drainScheduled.set(false);
+        List<Change<T>> batch = new ArrayList<>();
+        Change<T> change;
+        while ((change = pending.poll()) != null) {
+            batch.add(change);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (batch.size() == 1) {
+            apply(batch.get(0));
+            return;
+        }
+        // paskutinis kiekvieno id pakeitimas pakete; ankstesni SET jam nieko nebeprideda
+        Map<Long, Integer> last = new HashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            last.put(batch.get(i).id(), i);
+        }
+        items.batch(() -> {
+            for (int i = 0; i < batch.size(); i++) {
+                Change<T> c = batch.get(i);
+                if (c.kind() != Kind.SET || last.get(c.id()) == i) {
+                    apply(c);
+                }
+            }
+        });
+    }
+
+    private void apply(Change<T> c) {
+        switch (c.kind()) {
+            case ADD -> listAdd(c.id(), c.entity());
+            case SET -> listSet(c.id(), c.entity());
+            case REMOVE -> listRemove(c.id());
+        }
+    }
+
+    private void listAdd(long id, T entity) {
+        positions.put(id, items.size());
+        items.add(entity);
+    }
+
+    private void listSet(long id, T entity) {
+        Integer index = positions.get(id);
+        if (index != null) {
+            items.set(index, entity);
+        }
+    }
+
+    private void listRemove(long id) {
+        Integer index = positions.remove(id);
+        if (index == null) {
+            return;
+        }
+        int lastIndex = items.size() - 1;
+        if (index != lastIndex) {
+            T last = items.get(lastIndex);
+            items.set(index, last);
+            positions.put(idOf.applyAsLong(last), index);
+        }
+        items.remove(lastIndex);
+    }
+}
@@ -0,0 +1,38 @@
+package coursework.repository;
+
+import javafx.application.Platform;
+
+// Gija, kuriai priklauso repository ObservableList (JavaFX atveju – FX gija).
+// Visi sąrašo pakeitimai vykdomi tik per šitą dispatcherį.
+public interface ListDispatcher {
+
+    ListDispatcher FX = new ListDispatcher() {
+        @Override
+        public boolean isDispatchThread() {
+            return Platform.isFxApplicationThread();
+        }
+
+        @Override
+        public void dispatch(Runnable task) {
+            Platform.runLater(task);
+        }
+    };
+
+    // be JavaFX: sąrašas keičiamas iškart kviečiančioje gijoje.
+    // Tinka tik kai servisus naudoja viena gija (benchmark'ai, įrankiai).
+    ListDispatcher DIRECT = new ListDispatcher() {
+        @Override
+        public boolean isDispatchThread() {
+            return true;
+        }
+
+        @Override
+        public void dispatch(Runnable task) {
+            task.run();
+        }
+    };
+
+    boolean isDispatchThread();
+
+    void dispatch(Runnable task);
+}
@@ -0,0 +1,15 @@
+package coursework.repository;
+
+// Kviečiamas rašančioje gijoje, laikant to id lock stripe – todėl vieno objekto
+// pakeitimai ateina nuosekliai. Listeneriai turi būti greiti ir patys thread-safe.
+public interface RepositoryListener<T> {
+
+    default void added(T entity) {
+    }
+
+    default void updated(T entity) {
+    }
+
+    default void removed(T entity) {
+    }
+}
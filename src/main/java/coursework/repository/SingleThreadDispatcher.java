@@ -0,0 +1,31 @@
+package coursework.repository;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Dispatcher be JavaFX, bet daugiagijams servisams (headless serveris):
+// ObservableList'us prižiūri viena atskira daemon gija, rašyti galima iš bet kurios.
+public class SingleThreadDispatcher implements ListDispatcher {
+
+    private final ExecutorService executor;
+    private volatile Thread thread;
+
+    public SingleThreadDispatcher(String name) {
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            thread = t;
+            return t;
+        });
+    }
+
+    @Override
+    public boolean isDispatchThread() {
+        return Thread.currentThread() == thread;
+    }
+
+    @Override
+    public void dispatch(Runnable task) {
+        executor.execute(task);
+    }
+}
@@ -0,0 +1,158 @@
+package coursework.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import coursework.service.AuthService;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+// Bendras handler'is: JSON atsakymai ir klaidų -> HTTP statusų susiejimas.
+// IllegalArgumentException – 400, NotLoggedIn – 401, SecurityException – 403,
+// NoSuchElementException – 404, UnsupportedOperationException – 405, IllegalStateException – 409.
+// Token'as (AuthService) tikrinamas kiekvienai užklausai – teises tikrina patys handler'iai per allow().
+abstract class ApiHandler implements HttpHandler {
+
+    // nėra / pasibaigęs token'as
+    static final class NotLoggedIn extends RuntimeException {
+
+        NotLoggedIn() {
+            super("Not logged in.");
+        }
+    }
+
+    // atsakymas su kitu nei 200 statusu
+    record Response(int status, Object body) {
+    }
+
+    // srautinis atsakymas (eksportas): turinys rašomas tiesiai į atsakymo kanalą, ilgis iš anksto nežinomas
+    record Download(String contentType, String fileName, Body body) {
+
+        interface Body {
+            void writeTo(WritableByteChannel channel) throws IOException;
+        }
+    }
+
+    private final AuthService auth;
+
+    ApiHandler(AuthService auth) {
+        this.auth = auth;
+    }
+
+    protected abstract Object handle(ApiRequest request);
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        int status;
+        Object body;
+        try {
+            Object result = handle(ApiRequest.read(exchange, auth));
+            if (result instanceof Response r) {
+                status = r.status();
+                body = r.body();
+            } else {
+                status = 200;
+                body = result;
+            }
+        } catch (IllegalArgumentException e) {
+            status = 400;
+            body = error(e);
+        } catch (NotLoggedIn e) {
+            status = 401;
+            body = error(e);
+        } catch (SecurityException e) {
+            status = 403;
+            body = error(e);
+        } catch (NoSuchElementException e) {
+            status = 404;
+            body = error(e);
+        } catch (UnsupportedOperationException e) {
+            status = 405;
+            body = error(e);
+        } catch (IllegalStateException e) {
+            status = 409;
+            body = error(e);
+        } catch (RuntimeException e) {
+            status = 500;
+            body = error(e);
+        }
+        send(exchange, status, body);
+    }
+
+    static Response created(Object body) {
+        return new Response(201, body);
+    }
+
+    static Response noContent() {
+        return new Response(204, null);
+    }
+
+    // JSON objektas su fiksuota laukų tvarka (reikšmės gali būti null)
+    static Map<String, Object> object(Object... keyValues) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            map.put((String) keyValues[i], keyValues[i + 1]);
+        }
+        return map;
+    }
+
+    // neprisijungęs – 401, prisijungęs, bet be teisių – 403
+    static void allow(ApiRequest request, boolean allowed) {
+        if (allowed) {
+            return;
+        }
+        if (request.user() == null) {
+            throw new NotLoggedIn();
+        }
+        throw new SecurityException("Not allowed.");
+    }
+
+    static void requireUser(ApiRequest request) {
+        if (request.user() == null) {
+            throw new NotLoggedIn();
+        }
+    }
+
+    static void requireAdmin(ApiRequest request) {
+        allow(request, request.isAdmin());
+    }
+
+    static UnsupportedOperationException notAllowed(ApiRequest request) {
+        return new UnsupportedOperationException("Method not allowed: " + request.method());
+    }
+
+    private static Map<String, Object> error(RuntimeException e) {
+        return object("error", String.valueOf(e.getMessage()));
+    }
+
+    private static void send(HttpExchange exchange, int status, Object body) throws IOException {
+        try (exchange) {
+            if (status == 204) {
+                exchange.sendResponseHeaders(status, -1);
+                return;
+            }
+            if (body instanceof Download d) {
+                exchange.getResponseHeaders().set("Content-Type", d.contentType());
+                exchange.getResponseHeaders().set("Content-Disposition", "attachment; filename=\"" + d.fileName() + "\"");
+                exchange.sendResponseHeaders(status, 0);
+                try (OutputStream out = exchange.getResponseBody();
+                     WritableByteChannel channel = Channels.newChannel(out)) {
+                    d.body().writeTo(channel);
+                }
+                return;
+            }
+            byte[] bytes = Json.write(body).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package coursework.server;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import coursework.model.User;
+import coursework.service.AuthService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+// Vienos HTTP užklausos duomenys: metodas, kelio dalys po /api/<resursas>, query ir JSON body.
+// Trūkstami / blogi laukai – IllegalArgumentException (400), kaip controllerių validate().
+// user – pagal "Authorization: Bearer <token>" prisijungęs vartotojas (null – neprisijungęs).
+final class ApiRequest {
+
+    private final String method;
+    private final List<String> path;
+    private final Map<String, String> query;
+    private final Map<String, Object> body;
+    private final Headers headers;
+    private User user;
+
+    private ApiRequest(String method, List<String> path, Map<String, String> query, Map<String, Object> body,
+                       Headers headers) {
+        this.method = method;
+        this.path = path;
+        this.query = query;
+        this.body = body;
+        this.headers = headers;
+    }
+
+    static ApiRequest read(HttpExchange exchange, AuthService auth) throws IOException {
+        String method = exchange.getRequestMethod();
+        String context = exchange.getHttpContext().getPath();
+        String rest = exchange.getRequestURI().getPath().substring(context.length());
+
+        List<String> path = new ArrayList<>();
+        for (String part : rest.split("/")) {
+            if (!part.isEmpty()) {
+                path.add(part);
+            }
+        }
+
+        Map<String, String> query = new HashMap<>();
+        String rawQuery = exchange.getRequestURI().getRawQuery();
+        if (rawQuery != null) {
+            for (String pair : rawQuery.split("&")) {
+                int eq = pair.indexOf('=');
+                String key = eq < 0 ? pair : pair.substring(0, eq);
+                String value = eq < 0 ? "" : pair.substring(eq + 1);
+                query.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+            }
+        }
+
+        Map<String, Object> body = Map.of();
+        if ("POST".equals(method) || "PUT".equals(method)) {
+            try (InputStream in = exchange.getRequestBody()) {
+                body = Json.parseObject(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        ApiRequest request = new ApiRequest(method, path, query, body, exchange.getRequestHeaders());
+        request.user = auth.authenticate(request.bearerToken());
+        return request;
+    }
+
+    String method() {
+        return method;
+    }
+
+    List<String> path() {
+        return path;
+    }
+
+    long pathId(int index) {
+        try {
+            return Long.parseLong(path.get(index));
+        } catch (NumberFormatException e) {
+            throw new NoSuchElementException("Not found: " + path.get(index));
+        }
+    }
+
+    // "Authorization: Bearer <token>" reikšmė; null – nėra
+    String bearerToken() {
+        String value = headers.getFirst("Authorization");
+        if (value == null || !value.regionMatches(true, 0, "Bearer ", 0, 7)) {
+            return null;
+        }
+        String token = value.substring(7).strip();
+        return token.isEmpty() ? null : token;
+    }
+
+    User user() {
+        return user;
+    }
+
+    boolean isAdmin() {
+        return user != null && user.isAdmin();
+    }
+
+    // ar prisijungęs vartotojas – būtent šis (id bendras visai User hierarchijai)
+    boolean isSelf(User other) {
+        return other != null && isSelf(other.getId());
+    }
+
+    boolean isSelf(Long id) {
+        return user != null && id != null && id.equals(user.getId());
+    }
+
+    String query(String name) {
+        return query.get(name);
+    }
+
+    int queryInt(String name, int defaultValue) {
+        String value = query.get(name);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a number.");
+        }
+    }
+
+    // ISO-8601 vietinis laikas, pvz. 2024-05-01T12:00
+    LocalDateTime queryDateTime(String name, LocalDateTime defaultValue) {
+        String value = query.get(name);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(name + " must be a date-time like 2024-05-01T12:00.");
+        }
+    }
+
+    double queryDouble(String name, double defaultValue) {
+        String value = query.get(name);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a number.");
+        }
+    }
+
+    boolean has(String field) {
+        return body.containsKey(field);
+    }
+
+    String string(String field) {
+        Object value = body.get(field);
+        return value != null ? value.toString() : null;
+    }
+
+    String requireString(String field, String message) {
+        String value = string(field);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException(message);
+        }
+        return value;
+    }
+
+    Long longValue(String field) {
+        Object value = body.get(field);
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Long l) {
+            return l;
+        }
+        throw new IllegalArgumentException(field + " must be an integer.");
+    }
+
+    long requireLong(String field, String message) {
+        Long value = longValue(field);
+        if (value == null) {
+            throw new IllegalArgumentException(message);
+        }
+        return value;
+    }
+
+    double requireDouble(String field, String message) {
+        Object value = body.get(field);
+        if (value instanceof Number n) {
+            return n.doubleValue();
+        }
+        throw new IllegalArgumentException(message);
+    }
+
+    boolean bool(String field) {
+        return Boolean.TRUE.equals(body.get(field));
+    }
+
+    List<Long> longList(String field) {
+        Object value = body.get(field);
+        if (value == null) {
+            return List.of();
+        }
+        if (!(value instanceof List<?> list)) {
+            throw new IllegalArgumentException(field + " must be an array.");
+        }
+        List<Long> result = new ArrayList<>(list.size());
+        for (Object item : list) {
+            if (!(item instanceof Long l)) {
+                throw new IllegalArgumentException(field + " must contain integers.");
+            }
+            result.add(l);
+        }
+        return result;
+    }
+
+    <E extends Enum<E>> E enumValue(String field, Class<E> type) {
+        String value = string(field);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, value);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(field + " must be one of " + java.util.Arrays.toString(type.getEnumConstants()));
+        }
+    }
+}
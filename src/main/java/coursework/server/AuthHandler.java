@@ -0,0 +1,78 @@
+package coursework.server;
+
+import coursework.model.Driver;
+import coursework.model.Restaurant;
+import coursework.model.User;
+import coursework.service.AuthService;
+
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+// POST /api/auth/login   {login, password} – sesijos token'as (blogi duomenys – 401)
+// POST /api/auth/logout  – token'as iš "Authorization: Bearer <token>" panaikinamas
+// GET  /api/auth/me      – prisijungęs vartotojas (nėra / pasibaigusi sesija – 401)
+class AuthHandler extends ApiHandler {
+
+    private final AuthService auth;
+
+    AuthHandler(AuthService auth) {
+        super(auth);
+        this.auth = auth;
+    }
+
+    @Override
+    protected Object handle(ApiRequest request) {
+        if (request.path().size() != 1) {
+            throw new NoSuchElementException("Not found: " + request.path());
+        }
+        return switch (request.path().get(0)) {
+            case "login" -> {
+                requireMethod(request, "POST");
+                AuthService.Session session = auth.login(
+                        request.requireString("login", "Login is required."),
+                        request.requireString("password", "Password is required."));
+                if (session == null) {
+                    yield unauthorized("Invalid login or password.");
+                }
+                yield object(
+                        "token", session.token(),
+                        "expiresAt", session.expiresAt().toString(),
+                        "user", user(session.user()));
+            }
+            case "logout" -> {
+                requireMethod(request, "POST");
+                auth.logout(request.bearerToken());
+                yield noContent();
+            }
+            case "me" -> {
+                requireMethod(request, "GET");
+                User user = auth.authenticate(request.bearerToken());
+                yield user != null ? user(user) : unauthorized("Not logged in.");
+            }
+            default -> throw new NoSuchElementException("Not found: " + request.path().get(0));
+        };
+    }
+
+    private static void requireMethod(ApiRequest request, String method) {
+        if (!method.equals(request.method())) {
+            throw notAllowed(request);
+        }
+    }
+
+    private static Response unauthorized(String message) {
+        return new Response(401, object("error", message));
+    }
+
+    private static Map<String, Object> user(User u) {
+        String role = switch (u) {
+            case Driver d -> "driver";
+            case Restaurant r -> "restaurant";
+            default -> u.isAdmin() ? "admin" : "user";
+        };
+        return object(
+                "id", u.getId(),
+                "login", u.getLogin(),
+                "name", u.getName(),
+                "role", role);
+    }
+}
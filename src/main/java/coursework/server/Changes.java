@@ -0,0 +1,75 @@
+package coursework.server;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// PUT pakeitimai, surinkti jau po validacijos: objektas keičiamas tik apply() metu, o jei
+// update atmetamas (pvz. login'ą ką tik užėmė kitas) – undo() atstato senas reikšmes.
+// Taip klaidos atsakymas niekada nepalieka pusiau pakeisto bendro objekto.
+// Kas turi įvykti tik po sėkmingo update (pvz. atlaisvinti ankstesnį driverį) – afterUpdate.
+final class Changes {
+
+    private final List<Runnable> steps = new ArrayList<>();
+    private final Deque<Runnable> undo = new ArrayDeque<>();
+    private final List<Runnable> afterUpdate = new ArrayList<>();
+
+    // lauko reikšmė; sena įsimenama pritaikant
+    <V> Changes set(Supplier<V> getter, Consumer<V> setter, V value) {
+        return step(() -> {
+            V old = getter.get();
+            setter.accept(value);
+            return () -> setter.accept(old);
+        });
+    }
+
+    // veiksmas, kuris grąžina, kaip jį atšaukti (null – nėra ką)
+    Changes step(Supplier<Runnable> step) {
+        steps.add(() -> {
+            Runnable revert = step.get();
+            if (revert != null) {
+                undo.push(revert);
+            }
+        });
+        return this;
+    }
+
+    // veiksmas be atstatymo (pvz. statuso CAS) – dedamas paskutinis, po jo lieka tik update
+    Changes then(Runnable step) {
+        steps.add(step);
+        return this;
+    }
+
+    // vykdoma tik įrašius pakeitimus (kviečiama iš žingsnių)
+    Changes afterUpdate(Runnable action) {
+        afterUpdate.add(action);
+        return this;
+    }
+
+    // žingsnis nepavyko – jau pritaikyti atstatomi
+    void apply() {
+        try {
+            for (Runnable step : steps) {
+                step.run();
+            }
+        } catch (RuntimeException e) {
+            undo();
+            throw e;
+        }
+    }
+
+    void undo() {
+        afterUpdate.clear();
+        while (!undo.isEmpty()) {
+            undo.pop().run();
+        }
+    }
+
+    void updated() {
+        undo.clear();
+        afterUpdate.forEach(Runnable::run);
+    }
+}
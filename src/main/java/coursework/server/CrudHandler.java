@@ -0,0 +1,154 @@
+package coursework.server;
+
+import coursework.service.AuthService;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+// /api/<resursas>            GET – sąrašas (?offset=&limit=), POST – sukurti
+// /api/<resursas>/{id}       GET, PUT – atnaujinti nurodytus laukus, DELETE
+// /api/<resursas>/{id}/<veiksmas> – resurso specifiniai veiksmai
+// Teisės: bet koks rašymas (POST, PUT, DELETE, ne GET veiksmai) – tik prisijungus ir tik kam
+// leidžia canCreate / canEdit (pagal nutylėjimą – administratoriui); skaitymas – canList / canRead
+// (pagal nutylėjimą viešas).
+abstract class CrudHandler<T> extends ApiHandler {
+
+    private static final int DEFAULT_LIMIT = 100;
+    private static final int MAX_LIMIT = 10_000;
+
+    CrudHandler(AuthService auth) {
+        super(auth);
+    }
+
+    protected abstract T find(long id);
+
+    // visi objektai (weakly consistent – galima skaityti iš bet kurios gijos)
+    protected abstract Collection<T> all();
+
+    protected abstract T create(ApiRequest request);
+
+    // patikrina body esančius laukus ir surenka jų pakeitimus; objekto dar nekeičia –
+    // blogas laukas (400) nepalieka pusiau pakeisto objekto
+    protected abstract void prepare(T entity, ApiRequest request, Changes changes);
+
+    protected abstract boolean update(T entity);
+
+    protected abstract boolean delete(long id);
+
+    protected abstract Map<String, Object> toJson(T entity);
+
+    // filtrai per ?parametrus – pagal nutylėjimą visi
+    protected Collection<T> list(ApiRequest request) {
+        return all();
+    }
+
+    // request.user() čia jau ne null
+    protected boolean canCreate(ApiRequest request) {
+        return request.isAdmin();
+    }
+
+    protected boolean canEdit(ApiRequest request, T entity) {
+        return request.isAdmin();
+    }
+
+    protected boolean canList(ApiRequest request) {
+        return true;
+    }
+
+    protected boolean canRead(ApiRequest request, T entity) {
+        return true;
+    }
+
+    protected Object action(T entity, String action, ApiRequest request) {
+        throw new NoSuchElementException("Unknown action: " + action);
+    }
+
+    @Override
+    protected Object handle(ApiRequest request) {
+        List<String> path = request.path();
+        String method = request.method();
+
+        if (path.isEmpty()) {
+            return switch (method) {
+                case "GET" -> {
+                    allow(request, canList(request));
+                    yield page(list(request), request);
+                }
+                case "POST" -> {
+                    requireUser(request);
+                    allow(request, canCreate(request));
+                    yield created(toJson(create(request)));
+                }
+                default -> throw notAllowed(request);
+            };
+        }
+
+        long id = request.pathId(0);
+        T entity = require(id);
+
+        if ("GET".equals(method)) {
+            allow(request, canRead(request, entity));
+        } else {
+            requireUser(request);
+            allow(request, canEdit(request, entity));
+        }
+        if (path.size() > 1) {
+            return action(entity, path.get(1), request);
+        }
+        return switch (method) {
+            case "GET" -> toJson(entity);
+            case "PUT" -> {
+                // controlleriai keičia objektą vietoje ir tada kviečia update – darom tą patį,
+                // tik viskas patikrinama prieš keičiant, o lygiagrečius to paties objekto
+                // pakeitimus serializuojam; update atmestas – pakeitimai atšaukiami
+                Changes changes = new Changes();
+                prepare(entity, request, changes);
+                synchronized (entity) {
+                    changes.apply();
+                    boolean updated;
+                    try {
+                        updated = update(entity);
+                    } catch (RuntimeException e) {
+                        changes.undo();
+                        throw e;
+                    }
+                    if (!updated) {
+                        changes.undo();
+                        throw new NoSuchElementException("Not found: " + id);
+                    }
+                    changes.updated();
+                    yield toJson(entity);
+                }
+            }
+            case "DELETE" -> {
+                if (!delete(id)) {
+                    throw new NoSuchElementException("Not found: " + id);
+                }
+                yield noContent();
+            }
+            default -> throw notAllowed(request);
+        };
+    }
+
+    protected T require(long id) {
+        T entity = find(id);
+        if (entity == null) {
+            throw new NoSuchElementException("Not found: " + id);
+        }
+        return entity;
+    }
+
+    // tvarka nefiksuota (concurrent map'o tvarka) – puslapiavimas skirtas dideliems kiekiams neperduoti
+    private Map<String, Object> page(Collection<T> items, ApiRequest request) {
+        int offset = Math.max(0, request.queryInt("offset", 0));
+        int limit = Math.min(MAX_LIMIT, Math.max(0, request.queryInt("limit", DEFAULT_LIMIT)));
+        List<Map<String, Object>> page = items.stream()
+                .skip(offset)
+                .limit(limit)
+                .map(this::toJson)
+                .toList();
+        return object("total", items.size(), "offset", offset, "items", page);
+    }
+}
@@ -0,0 +1,128 @@
+package coursework.server;
+
+import coursework.model.Cuisine;
+import coursework.model.Money;
+import coursework.model.Restaurant;
+import coursework.service.AuthService;
+import coursework.service.CuisineService;
+import coursework.service.RestaurantService;
+
+import java.util.Collection;
+import java.util.Map;
+
+// /api/cuisines – patiekalai; restoranas nurodomas restaurantId
+// GET /api/cuisines?q=pea – paieška pavadinime ir ingredientuose (tinkamiausi pirmi)
+// Rašyti gali administratorius ir restoranas – tik savo meniu.
+class CuisinesHandler extends CrudHandler<Cuisine> {
+
+    private static final int SEARCH_LIMIT = 1000;
+
+    private final CuisineService cuisines;
+    private final RestaurantService restaurants;
+
+    CuisinesHandler(AuthService auth, CuisineService cuisines, RestaurantService restaurants) {
+        super(auth);
+        this.cuisines = cuisines;
+        this.restaurants = restaurants;
+    }
+
+    @Override
+    protected Cuisine find(long id) {
+        return id > Integer.MAX_VALUE ? null : cuisines.findById((int) id);
+    }
+
+    @Override
+    protected Collection<Cuisine> all() {
+        return cuisines.getRepository().values();
+    }
+
+    @Override
+    protected boolean canCreate(ApiRequest request) {
+        return request.isAdmin() || request.isSelf(request.longValue("restaurantId"));
+    }
+
+    @Override
+    protected boolean canEdit(ApiRequest request, Cuisine c) {
+        return request.isAdmin() || request.isSelf(c.getRestaurant());
+    }
+
+    @Override
+    protected Collection<Cuisine> list(ApiRequest request) {
+        String q = request.query("q");
+        return q != null ? cuisines.search(q, SEARCH_LIMIT) : all();
+    }
+
+    @Override
+    protected Cuisine create(ApiRequest request) {
+        return cuisines.createCuisine(
+                request.requireString("name", "Dish name is required."),
+                request.string("ingredients"),
+                price(request),
+                request.bool("spicy"),
+                request.bool("vegan"),
+                restaurant(request));
+    }
+
+    @Override
+    protected void prepare(Cuisine c, ApiRequest request, Changes changes) {
+        if (request.has("name")) {
+            changes.set(c::getName, c::setName, request.requireString("name", "Dish name is required."));
+        }
+        if (request.has("ingredients")) {
+            changes.set(c::getIngredients, c::setIngredients, request.string("ingredients"));
+        }
+        if (request.has("price")) {
+            changes.set(c::getPrice, c::setPrice, price(request));
+        }
+        if (request.has("spicy")) {
+            changes.set(c::isSpicy, c::setSpicy, request.bool("spicy"));
+        }
+        if (request.has("vegan")) {
+            changes.set(c::isVegan, c::setVegan, request.bool("vegan"));
+        }
+        if (request.has("restaurantId")) {
+            allow(request, canCreate(request));
+            changes.set(c::getRestaurant, c::setRestaurant, restaurant(request));
+        }
+    }
+
+    @Override
+    protected boolean update(Cuisine c) {
+        return cuisines.updateCuisine(c);
+    }
+
+    @Override
+    protected boolean delete(long id) {
+        return id <= Integer.MAX_VALUE && cuisines.deleteCuisine((int) id);
+    }
+
+    @Override
+    protected Map<String, Object> toJson(Cuisine c) {
+        return cuisine(c);
+    }
+
+    static Map<String, Object> cuisine(Cuisine c) {
+        return object(
+                "id", c.getId(),
+                "name", c.getName(),
+                "ingredients", c.getIngredients(),
+                "price", c.getPrice(),
+                "priceMinor", Money.toMinor(c.getPrice()),
+                "spicy", c.isSpicy(),
+                "vegan", c.isVegan(),
+                "restaurantId", c.getRestaurant() != null ? c.getRestaurant().getId() : null);
+    }
+
+    // kaina visada tiksliais centais
+    private static double price(ApiRequest request) {
+        return Money.toMajor(Money.toMinor(request.requireDouble("price", "Price must be a valid number.")));
+    }
+
+    private Restaurant restaurant(ApiRequest request) {
+        Restaurant r = restaurants.findById(request.requireLong("restaurantId", "Restaurant must be selected."));
+        if (r == null) {
+            throw new IllegalArgumentException("Restaurant not found.");
+        }
+        return r;
+    }
+}
@@ -0,0 +1,137 @@
+package coursework.server;
+
+import coursework.model.Driver;
+import coursework.model.VehicleType;
+import coursework.service.AuthService;
+import coursework.service.DriverService;
+import coursework.service.OrderService;
+import coursework.service.ReviewService;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.Map;
+
+// /api/drivers, papildomai /{id}/orders, /{id}/rating
+// Kurti / trinti – administratorius, keisti ir matyti užsakymus – dar ir pats driveris.
+class DriversHandler extends CrudHandler<Driver> {
+
+    private final DriverService drivers;
+    private final OrderService orders;
+    private final ReviewService reviews;
+
+    DriversHandler(AuthService auth, DriverService drivers, OrderService orders, ReviewService reviews) {
+        super(auth);
+        this.drivers = drivers;
+        this.orders = orders;
+        this.reviews = reviews;
+    }
+
+    @Override
+    protected Driver find(long id) {
+        return drivers.findById(id);
+    }
+
+    @Override
+    protected boolean canEdit(ApiRequest request, Driver d) {
+        return request.isAdmin() || request.isSelf(d);
+    }
+
+    @Override
+    protected Collection<Driver> all() {
+        return drivers.getRepository().values();
+    }
+
+    @Override
+    protected Driver create(ApiRequest request) {
+        VehicleType vehicle = request.enumValue("vehicleType", VehicleType.class);
+        if (vehicle == null) {
+            throw new IllegalArgumentException("Vehicle type is required.");
+        }
+        Driver d = drivers.createDriver(
+                request.requireString("login", "Login is required."),
+                request.requireString("password", "Password is required."),
+                request.requireString("name", "Name is required."),
+                request.requireString("surname", "Surname is required."),
+                UsersHandler.phone(request.requireString("phoneNumber", "Phone is required.")),
+                request.requireString("address", "Address is required."),
+                request.requireString("licence", "Licence is required."),
+                date(request.string("bDate")),
+                vehicle,
+                !request.has("available") || request.bool("available"));
+        return d;
+    }
+
+    @Override
+    protected void prepare(Driver d, ApiRequest request, Changes changes) {
+        UsersHandler.prepareUser(d, request, drivers.getLogins(), changes);
+        if (request.has("licence")) {
+            changes.set(d::getLicence, d::setLicence, request.requireString("licence", "Licence is required."));
+        }
+        if (request.has("bDate")) {
+            changes.set(d::getBDate, d::setBDate, date(request.string("bDate")));
+        }
+        if (request.has("vehicleType")) {
+            VehicleType vehicle = request.enumValue("vehicleType", VehicleType.class);
+            if (vehicle == null) {
+                throw new IllegalArgumentException("Vehicle type is required.");
+            }
+            changes.set(d::getVehicleType, d::setVehicleType, vehicle);
+        }
+        if (request.has("available")) {
+            changes.set(d::isAvailable, d::setAvailable, request.bool("available"));
+        }
+    }
+
+    @Override
+    protected boolean update(Driver d) {
+        return drivers.updateDriver(d);
+    }
+
+    @Override
+    protected boolean delete(long id) {
+        return drivers.deleteDriver(id);
+    }
+
+    @Override
+    protected Map<String, Object> toJson(Driver d) {
+        return driver(d);
+    }
+
+    static Map<String, Object> driver(Driver d) {
+        Map<String, Object> json = UsersHandler.user(d);
+        json.put("licence", d.getLicence());
+        json.put("bDate", d.getBDate());
+        json.put("vehicleType", d.getVehicleType());
+        json.put("available", d.isAvailable());
+        return json;
+    }
+
+    @Override
+    protected Object action(Driver d, String action, ApiRequest request) {
+        if (!"GET".equals(request.method())) {
+            throw notAllowed(request);
+        }
+        return switch (action) {
+            case "orders" -> {
+                allow(request, canEdit(request, d));
+                yield orders.findByDriver(d).stream()
+                        .map(OrdersHandler::order)
+                        .toList();
+            }
+            case "rating" -> ReviewsHandler.rating(reviews.getDriverRating(d));
+            default -> super.action(d, action, request);
+        };
+    }
+
+    private static LocalDate date(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(text);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("bDate must be yyyy-MM-dd.");
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package coursework.server;
+
+import coursework.bulk.HistoryExport;
+import coursework.model.OrderStatus;
+import coursework.service.AuthService;
+import coursework.service.RestaurantService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+
+// GET /api/export/orders?format=csv|columnar&from=&to=&status=&restaurantId=
+// GET /api/export/reviews?format=csv|columnar&from=&to=&restaurantId=
+//     – istorija srautu per HistoryExport (from / to – createdAt, [from, to)); be format – CSV
+// Tik administratoriui.
+class ExportHandler extends ApiHandler {
+
+    private final HistoryExport export;
+    private final RestaurantService restaurantService;
+
+    ExportHandler(AuthService auth, HistoryExport export, RestaurantService restaurantService) {
+        super(auth);
+        this.export = export;
+        this.restaurantService = restaurantService;
+    }
+
+    @Override
+    protected Object handle(ApiRequest request) {
+        requireAdmin(request);
+        if (!"GET".equals(request.method())) {
+            throw notAllowed(request);
+        }
+        if (request.path().size() != 1) {
+            throw new NoSuchElementException("Not found: " + request.path());
+        }
+        HistoryExport.Format format = format(request.query("format"));
+        LocalDateTime from = request.queryDateTime("from", null);
+        LocalDateTime to = request.queryDateTime("to", null);
+        Long restaurantId = null;
+        if (request.query("restaurantId") != null) {
+            restaurantId = id(request.query("restaurantId"));
+            if (restaurantService.findById(restaurantId) == null) {
+                throw new NoSuchElementException("Restaurant not found: " + restaurantId);
+            }
+        }
+        String suffix = format == HistoryExport.Format.CSV ? ".csv" : ".frc";
+        String contentType = format == HistoryExport.Format.CSV
+                ? "text/csv; charset=utf-8"
+                : "application/octet-stream";
+
+        return switch (request.path().get(0)) {
+            case "orders" -> {
+                HistoryExport.Filter filter = new HistoryExport.Filter(from, to,
+                        request.query("status") != null ? status(request.query("status")) : null, restaurantId);
+                yield new Download(contentType, "orders" + suffix,
+                        channel -> export.exportOrders(filter, format, channel));
+            }
+            case "reviews" -> {
+                if (request.query("status") != null) {
+                    throw new IllegalArgumentException("Reviews have no status.");
+                }
+                HistoryExport.Filter filter = new HistoryExport.Filter(from, to, null, restaurantId);
+                yield new Download(contentType, "reviews" + suffix,
+                        channel -> export.exportReviews(filter, format, channel));
+            }
+            default -> throw new NoSuchElementException("Not found: " + request.path().get(0));
+        };
+    }
+
+    private static HistoryExport.Format format(String text) {
+        if (text == null || text.isBlank()) {
+            return HistoryExport.Format.CSV;
+        }
+        try {
+            return HistoryExport.Format.valueOf(text.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("format must be one of " + List.of(HistoryExport.Format.values()));
+        }
+    }
+
+    private static long id(String text) {
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Id must be a number: " + text);
+        }
+    }
+
+    private static OrderStatus status(String text) {
+        try {
+            return OrderStatus.valueOf(text);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown status: " + text);
+        }
+    }
+}
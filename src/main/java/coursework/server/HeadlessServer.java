@@ -0,0 +1,110 @@
+package coursework.server;
+
+import com.sun.net.httpserver.HttpServer;
+import coursework.bulk.HistoryExport;
+import coursework.persistence.Storage;
+import coursework.repository.SingleThreadDispatcher;
+import coursework.service.AuthService;
+import coursework.service.DispatchService;
+import coursework.service.Services;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Headless režimas: tie patys servisai ir persistence kaip App, tik vietoj JavaFX – HTTP API.
+// JavaFX toolkit'as nepaleidžiamas; ObservableList'us prižiūri atskira gija.
+// Kiekviena užklausa vykdoma savo virtualioje gijoje.
+// Rašymams ir ne viešiems skaitymams reikia token'o (POST /api/auth/login, "Authorization: Bearer ...").
+//   java -cp ... coursework.server.HeadlessServer   (-Dhttp.port=8080, -Dpersistence=jpa, -Ddata.dir=...)
+// Pagal nutylėjimą klausoma tik loopback adresu; kitiems tinklams – aiškiai -Dhttp.host=0.0.0.0 (ar konkretus adresas).
+public class HeadlessServer {
+
+    public static void main(String[] args) throws IOException {
+        int port = Integer.getInteger("http.port", 8080);
+        String host = System.getProperty("http.host");
+        InetSocketAddress address = host != null
+                ? new InetSocketAddress(host, port)
+                : new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+        if (address.isUnresolved()) {
+            throw new IllegalArgumentException("Unknown http.host: " + host);
+        }
+
+        Services services = new Services(new SingleThreadDispatcher("list-dispatcher"));
+        Closeable persistence = Storage.open(services);
+        DispatchService dispatch = services.getDispatchService();
+        dispatch.start();
+
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        HttpServer server = HttpServer.create(address, Integer.getInteger("http.backlog", 1024));
+        server.setExecutor(executor);
+        register(server, services);
+        server.start();
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop(1);
+            executor.close();
+            dispatch.close();
+            try {
+                persistence.close();
+            } catch (IOException | RuntimeException e) {
+                Thread.currentThread().getUncaughtExceptionHandler().uncaughtException(Thread.currentThread(),
+                        new IllegalStateException("Persistence close failed.", e));
+            }
+        }, "shutdown"));
+
+        String listening = server.getAddress().getHostString();
+        System.out.println("Listening on http://" + (listening.contains(":") ? "[" + listening + "]" : listening)
+                + ":" + server.getAddress().getPort() + "/api");
+    }
+
+    public static void register(HttpServer server, Services services) {
+        AuthService auth = services.getAuthService();
+        server.createContext("/api/auth", new AuthHandler(auth));
+        server.createContext("/api/users", new UsersHandler(auth, services.getBasicUserService(), services.getGeoService()));
+        server.createContext("/api/restaurants", new RestaurantsHandler(
+                auth,
+                services.getRestaurantService(),
+                services.getCuisineService(),
+                services.getOrderService(),
+                services.getReviewService(),
+                services.getGeoService()));
+        server.createContext("/api/drivers", new DriversHandler(
+                auth,
+                services.getDriverService(),
+                services.getOrderService(),
+                services.getReviewService()));
+        server.createContext("/api/cuisines", new CuisinesHandler(
+                auth,
+                services.getCuisineService(),
+                services.getRestaurantService()));
+        server.createContext("/api/orders", new OrdersHandler(
+                auth,
+                services.getOrderService(),
+                services.getBasicUserService(),
+                services.getRestaurantService(),
+                services.getDriverService(),
+                services.getCuisineService(),
+                services.getPricingService(),
+                services.getChatService(),
+                services.getDispatchService()));
+        server.createContext("/api/reviews", new ReviewsHandler(
+                auth,
+                services.getReviewService(),
+                services.getBasicUserService(),
+                services.getRestaurantService(),
+                services.getDriverService()));
+        server.createContext("/api/stats", new StatsHandler(
+                auth,
+                services.getOrderService().getStatistics(),
+                services.getOrderService().getRollups(),
+                services.getOrderService().getColumns()));
+        server.createContext("/api/export", new ExportHandler(
+                auth,
+                new HistoryExport(services),
+                services.getRestaurantService()));
+    }
+}
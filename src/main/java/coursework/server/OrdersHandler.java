@@ -0,0 +1,401 @@
+package coursework.server;
+
+import coursework.model.BasicUser;
+import coursework.model.ChatMessage;
+import coursework.model.Cuisine;
+import coursework.model.Driver;
+import coursework.model.FoodOrder;
+import coursework.model.Money;
+import coursework.model.OrderStatus;
+import coursework.model.Restaurant;
+import coursework.service.AuthService;
+import coursework.service.BasicUserService;
+import coursework.service.ChatService;
+import coursework.service.CuisineService;
+import coursework.service.DispatchService;
+import coursework.service.DriverService;
+import coursework.service.OrderService;
+import coursework.service.PricingService;
+import coursework.service.RestaurantService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+// /api/orders – užsakymai ir jų eiga:
+//   GET  /api/orders?status=&restaurantId=&driverId=&buyerId=  (per OrderService indeksus)
+//   POST/PUT {"dishIds": [...], "quantities": [...]} – kaina skaičiuojama per PricingService
+//   POST /api/orders/{id}/status {"status": ...}
+//   POST /api/orders/{id}/driver {"driverId": ...}  – užimtas driveris atmetamas (409)
+//   GET  /api/orders/{id}/chat?from=&limit=  – pranešimų puslapis (be from – paskutiniai limit)
+//   POST /api/orders/{id}/chat {"text": ..., "senderId": ...}  – naujas pranešimas (siuntėjas – pirkėjas, jei nenurodytas)
+// Sąrašas – administratoriui; užsakymą mato ir keičia administratorius ir jo dalyviai (pirkėjas,
+// restoranas, driveris); kurti ne sau, perkelti kitam pirkėjui ir rašyti kito vardu – tik administratorius.
+class OrdersHandler extends CrudHandler<FoodOrder> {
+
+    private static final int MAX_QUANTITY = 100;
+    private static final int CHAT_PAGE = 50;
+    private static final int MAX_CHAT_PAGE = 500;
+
+    private final OrderService orders;
+    private final BasicUserService users;
+    private final RestaurantService restaurants;
+    private final DriverService drivers;
+    private final CuisineService cuisines;
+    private final PricingService pricing;
+    private final ChatService chats;
+    private final DispatchService dispatch;
+
+    OrdersHandler(AuthService auth, OrderService orders, BasicUserService users, RestaurantService restaurants,
+                  DriverService drivers, CuisineService cuisines, PricingService pricing, ChatService chats,
+                  DispatchService dispatch) {
+        super(auth);
+        this.orders = orders;
+        this.users = users;
+        this.restaurants = restaurants;
+        this.drivers = drivers;
+        this.cuisines = cuisines;
+        this.pricing = pricing;
+        this.chats = chats;
+        this.dispatch = dispatch;
+    }
+
+    @Override
+    protected FoodOrder find(long id) {
+        return id > Integer.MAX_VALUE ? null : orders.findById((int) id);
+    }
+
+    @Override
+    protected Collection<FoodOrder> all() {
+        return orders.getRepository().values();
+    }
+
+    // pirmas nurodytas filtras eina per indeksą, likę tikrinami tik jo rezultate
+    @Override
+    protected Collection<FoodOrder> list(ApiRequest request) {
+        OrderStatus status = status(request.query("status"));
+        Restaurant restaurant = request.query("restaurantId") != null ? restaurant(id(request.query("restaurantId"))) : null;
+        Driver driver = request.query("driverId") != null ? driver(id(request.query("driverId"))) : null;
+        BasicUser buyer = request.query("buyerId") != null ? buyer(id(request.query("buyerId"))) : null;
+
+        Collection<FoodOrder> base;
+        if (restaurant != null) {
+            base = orders.findByRestaurant(restaurant);
+        } else if (driver != null) {
+            base = orders.findByDriver(driver);
+        } else if (buyer != null) {
+            base = orders.findByBuyer(buyer);
+        } else if (status != null) {
+            base = orders.findByStatus(status);
+        } else {
+            return all();
+        }
+
+        Stream<FoodOrder> result = base.stream();
+        if (status != null) {
+            result = result.filter(o -> o.getStatus() == status);
+        }
+        if (driver != null) {
+            result = result.filter(o -> o.getDriver() == driver);
+        }
+        if (buyer != null) {
+            result = result.filter(o -> o.getBuyer() == buyer);
+        }
+        return result.toList();
+    }
+
+    @Override
+    protected boolean canCreate(ApiRequest request) {
+        return request.isAdmin() || request.isSelf(request.longValue("buyerId"));
+    }
+
+    @Override
+    protected boolean canEdit(ApiRequest request, FoodOrder o) {
+        return request.isAdmin() || request.isSelf(o.getBuyer()) || request.isSelf(o.getRestaurant())
+                || request.isSelf(o.getDriver());
+    }
+
+    @Override
+    protected boolean canList(ApiRequest request) {
+        return request.isAdmin();
+    }
+
+    @Override
+    protected boolean canRead(ApiRequest request, FoodOrder o) {
+        return canEdit(request, o);
+    }
+
+    // kaip OrdersController.addOrder(): kaina – pasirinktų patiekalų suma
+    @Override
+    protected FoodOrder create(ApiRequest request) {
+        FoodOrder order = new FoodOrder();
+        order.setName(request.has("name") ? request.string("name") : "Order");
+        order.setBuyer(buyer(request.requireLong("buyerId", "Buyer must be selected.")));
+        order.setRestaurant(restaurant(request.requireLong("restaurantId", "Restaurant must be selected.")));
+        // naujas užsakymas – visada PENDING, toliau tik per perėjimus (/status)
+        OrderStatus status = request.enumValue("status", OrderStatus.class);
+        if (status != null && !status.isInitial()) {
+            throw new IllegalArgumentException("New orders start as " + OrderStatus.PENDING + ".");
+        }
+        order.initStatus(OrderStatus.PENDING);
+        Driver driver = request.longValue("driverId") != null ? driver(request.longValue("driverId")) : null;
+        pricing.price(order, dishes(request));
+        order.setCreatedAt(LocalDateTime.now());
+
+        // ranka parinktas driveris užimamas per DispatchService (užimtas – 409)
+        if (driver != null) {
+            dispatch.claimDriver(driver);
+            order.setDriver(driver);
+        }
+        try {
+            orders.add(order);
+        } catch (RuntimeException e) {
+            dispatch.releaseDriver(driver);
+            throw e;
+        }
+
+        // "chat" – pirmas pirkėjo pranešimas
+        String message = request.string("chat");
+        if (message != null && !message.isBlank()) {
+            chats.send(order, order.getBuyer(), message);
+        }
+        return order;
+    }
+
+    // visos nuorodos ir patiekalai patikrinami prieš keičiant užsakymą; statuso CAS – paskutinis
+    // žingsnis prieš update(), nepavykus jau pritaikyti laukai atšaukiami (Changes)
+    @Override
+    protected void prepare(FoodOrder order, ApiRequest request, Changes changes) {
+        if (request.has("chat")) {
+            throw new IllegalArgumentException("Chat is append-only: POST /api/orders/" + order.getId() + "/chat.");
+        }
+        if (request.has("buyerId")) {
+            allow(request, canCreate(request));
+            changes.set(order::getBuyer, order::setBuyer,
+                    buyer(request.requireLong("buyerId", "Buyer must be selected.")));
+        }
+        if (request.has("restaurantId")) {
+            changes.set(order::getRestaurant, order::setRestaurant,
+                    restaurant(request.requireLong("restaurantId", "Restaurant must be selected.")));
+        }
+        if (request.has("driverId")) {
+            // per DispatchService: užimtas driveris – 409; ankstesnis atlaisvinamas tik įrašius
+            Driver driver = driver(request.requireLong("driverId", "Driver must be selected."));
+            changes.step(() -> {
+                Driver previous = order.getDriver();
+                if (previous == driver) {
+                    return null;
+                }
+                dispatch.claimDriver(driver);
+                order.setDriver(driver);
+                changes.afterUpdate(() -> dispatch.releaseDriver(previous));
+                return () -> {
+                    order.setDriver(previous);
+                    dispatch.releaseDriver(driver);
+                };
+            });
+        }
+        if (request.has("dishIds")) {
+            // kaina visada atitinka patiekalus (kaip PricingService.price)
+            List<Cuisine> dishes = dishes(request);
+            double price = Money.toMajor(pricing.totalMinor(dishes));
+            changes.set(order::getCuisineList, order::setCuisineList, dishes);
+            changes.set(order::getPrice, order::setPrice, price);
+        }
+        if (request.has("status")) {
+            OrderStatus next = request.enumValue("status", OrderStatus.class);
+            if (next == null) {
+                throw new IllegalArgumentException("Order status must be selected.");
+            }
+            changes.then(() -> {
+                OrderStatus current = order.getStatus();
+                if (!orders.moveStatus(order, next)) {
+                    throw new IllegalStateException("Cannot change status from " + current + " to " + next + ".");
+                }
+            });
+        }
+    }
+
+    @Override
+    protected boolean update(FoodOrder order) {
+        return orders.update(order);
+    }
+
+    @Override
+    protected boolean delete(long id) {
+        return id <= Integer.MAX_VALUE && orders.delete((int) id);
+    }
+
+    @Override
+    protected Map<String, Object> toJson(FoodOrder o) {
+        return order(o);
+    }
+
+    @Override
+    protected Object action(FoodOrder order, String action, ApiRequest request) {
+        if ("chat".equals(action)) {
+            return chat(order, request);
+        }
+        if (!"POST".equals(request.method())) {
+            throw notAllowed(request);
+        }
+        switch (action) {
+            case "status" -> {
+                // be lock'o – CAS OrderService.changeStatus viduje
+                OrderStatus status = request.enumValue("status", OrderStatus.class);
+                if (status == null) {
+                    throw new IllegalArgumentException("Order status must be selected.");
+                }
+                OrderStatus current = order.getStatus();
+                if (!orders.changeStatus(order, status)) {
+                    throw new IllegalStateException("Cannot change status from " + current + " to " + status + ".");
+                }
+            }
+            case "driver" -> dispatch.assignDriver(order,
+                    driver(request.requireLong("driverId", "Driver must be selected.")));
+            default -> {
+                return super.action(order, action, request);
+            }
+        }
+        return order(order);
+    }
+
+    static Map<String, Object> order(FoodOrder o) {
+        List<Integer> dishIds = new ArrayList<>();
+        if (o.getCuisineList() != null) {
+            for (Cuisine c : o.getCuisineList()) {
+                dishIds.add(c.getId());
+            }
+        }
+        return object(
+                "id", o.getId(),
+                "name", o.getName(),
+                "price", o.getPrice(),
+                "priceMinor", Money.toMinor(o.getPrice()),
+                "status", o.getStatus(),
+                "buyerId", o.getBuyer() != null ? o.getBuyer().getId() : null,
+                "restaurantId", o.getRestaurant() != null ? o.getRestaurant().getId() : null,
+                "driverId", o.getDriver() != null ? o.getDriver().getId() : null,
+                "dishIds", dishIds,
+                "createdAt", o.getCreatedAt());
+    }
+
+    private Object chat(FoodOrder order, ApiRequest request) {
+        return switch (request.method()) {
+            case "GET" -> {
+                int total = chats.size(order);
+                int limit = Math.min(MAX_CHAT_PAGE, Math.max(0, request.queryInt("limit", CHAT_PAGE)));
+                int from = Math.max(0, request.queryInt("from", total - limit));
+                List<Map<String, Object>> items = chats.page(order, from, limit).stream()
+                        .map(OrdersHandler::message)
+                        .toList();
+                yield object("total", total, "from", from, "items", items);
+            }
+            case "POST" -> {
+                Long senderId = request.longValue("senderId");
+                BasicUser sender = senderId != null ? sender(senderId) : order.getBuyer();
+                allow(request, request.isAdmin() || request.isSelf(sender));
+                String text = request.requireString("text", "Message is empty.");
+                yield created(message(chats.send(order, sender, text)));
+            }
+            default -> throw notAllowed(request);
+        };
+    }
+
+    static Map<String, Object> message(ChatMessage m) {
+        return object(
+                "id", m.getId(),
+                "senderId", m.getSender() != null ? m.getSender().getId() : null,
+                "text", m.getText(),
+                "sentAt", m.getSentAt());
+    }
+
+    // siuntėjas – pirkėjas, restoranas arba driveris
+    private BasicUser sender(long id) {
+        BasicUser u = users.findById(id);
+        if (u == null) {
+            u = restaurants.findById(id);
+        }
+        if (u == null) {
+            u = drivers.findById(id);
+        }
+        if (u == null) {
+            throw new IllegalArgumentException("Sender not found.");
+        }
+        return u;
+    }
+
+    private List<Cuisine> dishes(ApiRequest request) {
+        List<Long> ids = request.longList("dishIds");
+        if (ids.isEmpty()) {
+            throw new IllegalArgumentException("Select at least one dish.");
+        }
+        // "quantities" (nebūtina) – kiekis kiekvienam dishIds; užsakyme patiekalas kartojamas tiek kartų
+        List<Long> quantities = request.has("quantities") ? request.longList("quantities") : List.of();
+        if (!quantities.isEmpty() && quantities.size() != ids.size()) {
+            throw new IllegalArgumentException("Each dish needs a quantity.");
+        }
+        List<Cuisine> dishes = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            long id = ids.get(i);
+            Cuisine c = id > Integer.MAX_VALUE ? null : cuisines.findById((int) id);
+            if (c == null) {
+                throw new IllegalArgumentException("Dish not found: " + id);
+            }
+            long quantity = quantities.isEmpty() ? 1 : quantities.get(i);
+            if (quantity < 1 || quantity > MAX_QUANTITY) {
+                throw new IllegalArgumentException("Quantity must be between 1 and " + MAX_QUANTITY + ".");
+            }
+            for (long q = 0; q < quantity; q++) {
+                dishes.add(c);
+            }
+        }
+        return dishes;
+    }
+
+    private BasicUser buyer(long id) {
+        BasicUser u = users.findById(id);
+        if (u == null) {
+            throw new IllegalArgumentException("Buyer not found.");
+        }
+        return u;
+    }
+
+    private Restaurant restaurant(long id) {
+        Restaurant r = restaurants.findById(id);
+        if (r == null) {
+            throw new IllegalArgumentException("Restaurant not found.");
+        }
+        return r;
+    }
+
+    private Driver driver(long id) {
+        Driver d = drivers.findById(id);
+        if (d == null) {
+            throw new IllegalArgumentException("Driver not found.");
+        }
+        return d;
+    }
+
+    private static long id(String text) {
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Id must be a number: " + text);
+        }
+    }
+
+    private static OrderStatus status(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        try {
+            return OrderStatus.valueOf(text);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown status: " + text);
+        }
+    }
+}
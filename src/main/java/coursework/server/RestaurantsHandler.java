@@ -0,0 +1,103 @@
+package coursework.server;
+
+import coursework.model.Restaurant;
+import coursework.service.AuthService;
+import coursework.service.CuisineService;
+import coursework.service.GeoService;
+import coursework.service.OrderService;
+import coursework.service.RestaurantService;
+import coursework.service.ReviewService;
+
+import java.util.Collection;
+import java.util.Map;
+
+// /api/restaurants, papildomai /{id}/menu, /{id}/orders, /{id}/rating,
+// /{id}/drivers?k= – k artimiausių laisvų driverių
+// Kurti / trinti – administratorius, keisti ir matyti užsakymus – dar ir pats restoranas.
+class RestaurantsHandler extends CrudHandler<Restaurant> {
+
+    private final RestaurantService restaurants;
+    private final CuisineService cuisines;
+    private final OrderService orders;
+    private final ReviewService reviews;
+    private final GeoService geo;
+
+    RestaurantsHandler(AuthService auth, RestaurantService restaurants, CuisineService cuisines,
+                       OrderService orders, ReviewService reviews, GeoService geo) {
+        super(auth);
+        this.restaurants = restaurants;
+        this.cuisines = cuisines;
+        this.orders = orders;
+        this.reviews = reviews;
+        this.geo = geo;
+    }
+
+    @Override
+    protected Restaurant find(long id) {
+        return restaurants.findById(id);
+    }
+
+    @Override
+    protected Collection<Restaurant> all() {
+        return restaurants.getRepository().values();
+    }
+
+    @Override
+    protected boolean canEdit(ApiRequest request, Restaurant r) {
+        return request.isAdmin() || request.isSelf(r);
+    }
+
+    @Override
+    protected Restaurant create(ApiRequest request) {
+        return restaurants.createRestaurant(
+                request.requireString("login", "Login is required."),
+                request.requireString("password", "Password is required."),
+                request.requireString("name", "Name is required."),
+                request.requireString("surname", "Surname is required."),
+                UsersHandler.phone(request.requireString("phoneNumber", "Phone is required.")),
+                request.requireString("address", "Address is required."));
+    }
+
+    @Override
+    protected void prepare(Restaurant r, ApiRequest request, Changes changes) {
+        UsersHandler.prepareUser(r, request, restaurants.getLogins(), changes);
+    }
+
+    @Override
+    protected boolean update(Restaurant r) {
+        return restaurants.updateRestaurant(r);
+    }
+
+    @Override
+    protected boolean delete(long id) {
+        return restaurants.deleteRestaurant(id);
+    }
+
+    @Override
+    protected Map<String, Object> toJson(Restaurant r) {
+        return UsersHandler.user(r);
+    }
+
+    @Override
+    protected Object action(Restaurant r, String action, ApiRequest request) {
+        if (!"GET".equals(request.method())) {
+            throw notAllowed(request);
+        }
+        return switch (action) {
+            case "menu" -> cuisines.getMenu(r).stream()
+                    .map(CuisinesHandler::cuisine)
+                    .toList();
+            case "orders" -> {
+                allow(request, canEdit(request, r));
+                yield orders.findByRestaurant(r).stream()
+                        .map(OrdersHandler::order)
+                        .toList();
+            }
+            case "rating" -> ReviewsHandler.rating(reviews.getRestaurantRating(r));
+            case "drivers" -> geo.nearestAvailableDrivers(r, request.queryInt("k", 5)).stream()
+                    .map(DriversHandler::driver)
+                    .toList();
+            default -> super.action(r, action, request);
+        };
+    }
+}
@@ -0,0 +1,148 @@
+package coursework.server;
+
+import coursework.model.BasicUser;
+import coursework.model.Driver;
+import coursework.model.Restaurant;
+import coursework.model.Review;
+import coursework.service.AuthService;
+import coursework.service.BasicUserService;
+import coursework.service.DriverService;
+import coursework.service.RatingAggregates;
+import coursework.service.RestaurantService;
+import coursework.service.ReviewService;
+
+import java.util.Collection;
+import java.util.Map;
+
+// /api/reviews – review restoranui ARBA driveriui (kaip ReviewController)
+// Rašyti gali administratorius ir pats review autorius.
+class ReviewsHandler extends CrudHandler<Review> {
+
+    private final ReviewService reviews;
+    private final BasicUserService users;
+    private final RestaurantService restaurants;
+    private final DriverService drivers;
+
+    ReviewsHandler(AuthService auth, ReviewService reviews, BasicUserService users,
+                   RestaurantService restaurants, DriverService drivers) {
+        super(auth);
+        this.reviews = reviews;
+        this.users = users;
+        this.restaurants = restaurants;
+        this.drivers = drivers;
+    }
+
+    @Override
+    protected Review find(long id) {
+        return id > Integer.MAX_VALUE ? null : reviews.findById((int) id);
+    }
+
+    @Override
+    protected Collection<Review> all() {
+        return reviews.getRepository().values();
+    }
+
+    @Override
+    protected boolean canCreate(ApiRequest request) {
+        return request.isAdmin() || request.isSelf(request.longValue("commentOwnerId"));
+    }
+
+    @Override
+    protected boolean canEdit(ApiRequest request, Review r) {
+        return request.isAdmin() || request.isSelf(r.getCommentOwner());
+    }
+
+    @Override
+    protected Review create(ApiRequest request) {
+        BasicUser owner = user(request.requireLong("commentOwnerId", "Comment owner is required."));
+        Long feedbackUserId = request.longValue("feedbackUserId");
+        Long restaurantId = request.longValue("restaurantId");
+        Long driverId = request.longValue("driverId");
+        if ((restaurantId == null) == (driverId == null)) {
+            throw new IllegalArgumentException("Select review type: restaurant or driver.");
+        }
+        return reviews.createReview(
+                owner,
+                feedbackUserId != null ? user(feedbackUserId) : null,
+                restaurantId != null ? restaurant(restaurantId) : null,
+                driverId != null ? driver(driverId) : null,
+                rating(request),
+                request.string("text"));
+    }
+
+    @Override
+    protected void prepare(Review r, ApiRequest request, Changes changes) {
+        if (request.has("feedbackUserId")) {
+            Long id = request.longValue("feedbackUserId");
+            changes.set(r::getFeedbackUser, r::setFeedbackUser, id != null ? user(id) : null);
+        }
+        if (request.has("rating")) {
+            changes.set(r::getRating, r::setRating, rating(request));
+        }
+        if (request.has("text")) {
+            changes.set(r::getText, r::setText, request.string("text"));
+        }
+    }
+
+    @Override
+    protected boolean update(Review r) {
+        return reviews.updateReview(r);
+    }
+
+    @Override
+    protected boolean delete(long id) {
+        return id <= Integer.MAX_VALUE && reviews.deleteReview((int) id);
+    }
+
+    @Override
+    protected Map<String, Object> toJson(Review r) {
+        return object(
+                "id", r.getId(),
+                "commentOwnerId", r.getCommentOwner() != null ? r.getCommentOwner().getId() : null,
+                "feedbackUserId", r.getFeedbackUser() != null ? r.getFeedbackUser().getId() : null,
+                "restaurantId", r.getRestaurant() != null ? r.getRestaurant().getId() : null,
+                "driverId", r.getDriver() != null ? r.getDriver().getId() : null,
+                "rating", r.getRating(),
+                "text", r.getText(),
+                "createdAt", r.getCreatedAt());
+    }
+
+    static Map<String, Object> rating(RatingAggregates.Summary summary) {
+        return object(
+                "average", summary.getAverage(),
+                "count", summary.getCount(),
+                "distribution", java.util.Arrays.stream(summary.getDistribution()).boxed().toList());
+    }
+
+    private static int rating(ApiRequest request) {
+        long rating = request.requireLong("rating", "Rating is required.");
+        if (rating < RatingAggregates.MIN_RATING || rating > RatingAggregates.MAX_RATING) {
+            throw new IllegalArgumentException("Rating must be 1-5.");
+        }
+        return (int) rating;
+    }
+
+    private BasicUser user(long id) {
+        BasicUser u = users.findById(id);
+        if (u == null) {
+            throw new IllegalArgumentException("User not found: " + id);
+        }
+        return u;
+    }
+
+    private Restaurant restaurant(long id) {
+        Restaurant r = restaurants.findById(id);
+        if (r == null) {
+            throw new IllegalArgumentException("Restaurant not found.");
+        }
+        return r;
+    }
+
+    private Driver driver(long id) {
+        Driver d = drivers.findById(id);
+        if (d == null) {
+            throw new IllegalArgumentException("Driver not found.");
+        }
+        return d;
+    }
+}
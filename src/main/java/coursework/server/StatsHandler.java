@@ -0,0 +1,183 @@
+package coursework.server;
+
+import coursework.model.OrderStatus;
+import coursework.service.AuthService;
+import coursework.service.OrderColumns;
+import coursework.service.OrderRollups;
+import coursework.service.OrderStatistics;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.List;
+import java.util.Map;
+
+// GET /api/stats – gyvi užsakymų skaitliukai iš OrderStatistics
+// GET /api/stats/timeline?resolution=MINUTE|HOUR|DAY&from=&to=&restaurantId=|status=
+//     – kiekis ir pajamos kiekvienam intervalui iš OrderRollups (be from/to – paskutiniai 24 intervalai)
+//       (restoranui langas trumpesnis – senesni intervalai grąžinami tušti, žr. Resolution)
+// GET /api/stats/analytics?from=&to=&status=A,B&restaurantId=&groupBy=restaurant|buyer|driver&limit=
+//     – bet kokio lango suma per OrderColumns (be from / to – visi laikai); byStatus – to lango
+//       kiekiai visiems restoranams; groupBy – daugiausiai pajamų atnešusios grupės
+// Tik administratoriui (pajamos).
+class StatsHandler extends ApiHandler {
+
+    private static final int DEFAULT_BUCKETS = 24;
+    private static final int DEFAULT_GROUPS = 10;
+
+    private final OrderStatistics statistics;
+    private final OrderRollups rollups;
+    private final OrderColumns columns;
+
+    StatsHandler(AuthService auth, OrderStatistics statistics, OrderRollups rollups, OrderColumns columns) {
+        super(auth);
+        this.statistics = statistics;
+        this.rollups = rollups;
+        this.columns = columns;
+    }
+
+    @Override
+    protected Object handle(ApiRequest request) {
+        requireAdmin(request);
+        if (!"GET".equals(request.method())) {
+            throw notAllowed(request);
+        }
+        if (request.path().equals(List.of("timeline"))) {
+            return timeline(request);
+        }
+        if (request.path().equals(List.of("analytics"))) {
+            return analytics(request);
+        }
+        if (!request.path().isEmpty()) {
+            throw notAllowed(request);
+        }
+        Map<String, Object> byStatus = new LinkedHashMap<>();
+        for (OrderStatus status : OrderStatus.values()) {
+            byStatus.put(status.name(), counter(statistics.getByStatus(status)));
+        }
+        return object(
+                "total", counter(statistics.getTotal()),
+                "byStatus", byStatus,
+                "version", statistics.getVersion());
+    }
+
+    private Map<String, Object> timeline(ApiRequest request) {
+        OrderRollups.Resolution resolution = resolution(request.query("resolution"));
+        LocalDateTime to = request.queryDateTime("to", LocalDateTime.now());
+        LocalDateTime from = request.queryDateTime("from",
+                to.minusSeconds(DEFAULT_BUCKETS * resolution.getSeconds()));
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to.");
+        }
+
+        OrderRollups.Series series = rollups.getTotal();
+        if (request.query("restaurantId") != null) {
+            series = rollups.getByRestaurant(id(request.query("restaurantId")));
+        } else if (request.query("status") != null) {
+            series = rollups.getByStatus(status(request.query("status")));
+        }
+
+        List<Map<String, Object>> buckets = series.buckets(resolution, from, to).stream()
+                .map(b -> object("start", b.start(), "count", b.count(), "revenueMinor", b.revenueMinor()))
+                .toList();
+        OrderRollups.Total sum = series.sum(resolution, from, to);
+        return object(
+                "resolution", resolution,
+                "count", sum.count(),
+                "revenueMinor", sum.revenueMinor(),
+                "buckets", buckets);
+    }
+
+    private Map<String, Object> analytics(ApiRequest request) {
+        LocalDateTime from = request.queryDateTime("from", null);
+        LocalDateTime to = request.queryDateTime("to", null);
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to.");
+        }
+        int mask = OrderColumns.ALL_STATUSES;
+        if (request.query("status") != null && !request.query("status").isBlank()) {
+            mask = 0;
+            for (String name : request.query("status").split(",")) {
+                mask |= OrderColumns.mask(status(name.trim()));
+            }
+        }
+
+        OrderColumns.Total sum = request.query("restaurantId") != null
+                ? columns.sum(from, to, mask, id(request.query("restaurantId")))
+                : columns.sum(from, to, mask);
+        Map<String, Object> result = object(
+                "count", sum.count(),
+                "revenueMinor", sum.revenueMinor());
+
+        Map<String, Object> byStatus = new LinkedHashMap<>();
+        long[] counts = columns.countByStatus(from, to);
+        for (OrderStatus status : OrderStatus.values()) {
+            byStatus.put(status.name(), counts[status.ordinal()]);
+        }
+        result.put("byStatus", byStatus);
+
+        if (request.query("groupBy") != null) {
+            result.put("groups", groups(request, columns.groupBy(key(request.query("groupBy")), from, to, mask)));
+        }
+        return result;
+    }
+
+    // limit grupių su didžiausiomis pajamomis
+    private static List<Map<String, Object>> groups(ApiRequest request, OrderColumns.Grouped grouped) {
+        int limit = request.queryInt("limit", DEFAULT_GROUPS);
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive.");
+        }
+        List<Integer> ids = new ArrayList<>();
+        for (int id = 0; id < grouped.counts().length; id++) {
+            if (grouped.counts()[id] > 0) {
+                ids.add(id);
+            }
+        }
+        ids.sort((a, b) -> Long.compare(grouped.revenueMinor()[b], grouped.revenueMinor()[a]));
+        return ids.stream()
+                .limit(limit)
+                .map(id -> object("id", (long) id, "count", grouped.counts()[id], "revenueMinor", grouped.revenueMinor()[id]))
+                .toList();
+    }
+
+    private static OrderColumns.Key key(String text) {
+        try {
+            return OrderColumns.Key.valueOf(text.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("groupBy must be restaurant, buyer or driver.");
+        }
+    }
+
+    private static Map<String, Object> counter(OrderStatistics.Counter c) {
+        return object("count", c.getCount(), "revenue", c.getRevenue(), "revenueMinor", c.getRevenueMinor());
+    }
+
+    private static OrderRollups.Resolution resolution(String text) {
+        if (text == null || text.isBlank()) {
+            return OrderRollups.Resolution.HOUR;
+        }
+        try {
+            return OrderRollups.Resolution.valueOf(text);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown resolution: " + text);
+        }
+    }
+
+    private static long id(String text) {
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Id must be a number: " + text);
+        }
+    }
+
+    private static OrderStatus status(String text) {
+        try {
+            return OrderStatus.valueOf(text);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown status: " + text);
+        }
+    }
+}
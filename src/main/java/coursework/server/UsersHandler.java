@@ -0,0 +1,165 @@
+package coursework.server;
+
+import coursework.model.BasicUser;
+import coursework.model.Restaurant;
+import coursework.service.AuthService;
+import coursework.service.BasicUserService;
+import coursework.service.GeoService;
+import coursework.service.LoginIndex;
+import coursework.service.Passwords;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+// /api/users – pirkėjai / administratoriai. Slaptažodis saugomas tik hash'u ir atsakymuose nerodomas.
+// /api/users/{id}/restaurants?km=  – restoranai per km nuo pirkėjo, ?k= – k artimiausių
+// Sąrašas ir kūrimas – administratoriui; vienas vartotojas – jam pačiam arba administratoriui.
+class UsersHandler extends CrudHandler<BasicUser> {
+
+    private static final String PHONE = "\\+?[0-9 ]{6,15}";
+
+    private final BasicUserService users;
+    private final GeoService geo;
+
+    UsersHandler(AuthService auth, BasicUserService users, GeoService geo) {
+        super(auth);
+        this.users = users;
+        this.geo = geo;
+    }
+
+    @Override
+    protected BasicUser find(long id) {
+        return users.findById(id);
+    }
+
+    @Override
+    protected Collection<BasicUser> all() {
+        return users.getRepository().values();
+    }
+
+    @Override
+    protected boolean canEdit(ApiRequest request, BasicUser u) {
+        return request.isAdmin() || request.isSelf(u);
+    }
+
+    @Override
+    protected boolean canList(ApiRequest request) {
+        return request.isAdmin();
+    }
+
+    @Override
+    protected boolean canRead(ApiRequest request, BasicUser u) {
+        return canEdit(request, u);
+    }
+
+    @Override
+    protected BasicUser create(ApiRequest request) {
+        BasicUser u = users.createBasicUser(
+                request.requireString("login", "Login is required."),
+                request.requireString("password", "Password is required."),
+                request.requireString("name", "Name is required."),
+                request.requireString("surname", "Surname is required."),
+                phone(request.requireString("phoneNumber", "Phone is required.")),
+                request.requireString("address", "Address is required."),
+                request.bool("admin"));
+        return u;
+    }
+
+    @Override
+    protected void prepare(BasicUser u, ApiRequest request, Changes changes) {
+        prepareUser(u, request, users.getLogins(), changes);
+    }
+
+    @Override
+    protected boolean update(BasicUser u) {
+        return users.updateBasicUser(u);
+    }
+
+    @Override
+    protected boolean delete(long id) {
+        return users.deleteBasicUser(id);
+    }
+
+    @Override
+    protected Map<String, Object> toJson(BasicUser u) {
+        return user(u);
+    }
+
+    @Override
+    protected Object action(BasicUser u, String action, ApiRequest request) {
+        if (!"GET".equals(request.method())) {
+            throw notAllowed(request);
+        }
+        if (!"restaurants".equals(action)) {
+            return super.action(u, action, request);
+        }
+        List<Restaurant> found = request.query("km") != null
+                ? geo.restaurantsWithin(u, request.queryDouble("km", 0))
+                : geo.nearestRestaurants(u, request.queryInt("k", 10));
+        return found.stream().map(UsersHandler::user).toList();
+    }
+
+    // bendri User laukai – naudoja ir restoranų bei driverių handler'iai.
+    // Užimtas login'as atmetamas čia, prieš keičiant objektą; lenktynes su kitu rašytoju
+    // dar pagauna servisų update (LoginIndex), tada pakeitimai atšaukiami.
+    // admin požymį keisti gali tik administratorius
+    static void prepareUser(BasicUser u, ApiRequest request, LoginIndex logins, Changes changes) {
+        if (request.has("admin")) {
+            allow(request, request.isAdmin());
+        }
+        if (request.has("login")) {
+            String login = request.requireString("login", "Login is required.");
+            if (!logins.isAvailable(login, u.getId())) {
+                throw new IllegalArgumentException("Login is already taken: " + login + ".");
+            }
+            changes.set(u::getLogin, u::setLogin, login);
+        }
+        if (request.has("password")) {
+            // brangus hash'as – dar prieš užrakinant objektą
+            changes.set(u::getPassword, u::setPassword,
+                    Passwords.hash(request.requireString("password", "Password is required.")));
+        }
+        if (request.has("name")) {
+            changes.set(u::getName, u::setName, request.requireString("name", "Name is required."));
+        }
+        if (request.has("surname")) {
+            changes.set(u::getSurname, u::setSurname, request.requireString("surname", "Surname is required."));
+        }
+        if (request.has("phoneNumber")) {
+            changes.set(u::getPhoneNumber, u::setPhoneNumber,
+                    phone(request.requireString("phoneNumber", "Phone is required.")));
+        }
+        if (request.has("address")) {
+            changes.set(u::getAddress, u::setAddress, request.requireString("address", "Address is required."));
+        }
+        if (request.has("admin")) {
+            changes.set(u::isAdmin, u::setAdmin, request.bool("admin"));
+        }
+        changes.set(u::getDateUpdated, u::setDateUpdated, LocalDateTime.now());
+    }
+
+    static Map<String, Object> user(BasicUser u) {
+        return object(
+                "id", u.getId(),
+                "login", u.getLogin(),
+                "name", u.getName(),
+                "surname", u.getSurname(),
+                "phoneNumber", u.getPhoneNumber(),
+                "address", u.getAddress(),
+                "latitude", u.getLatitude(),
+                "longitude", u.getLongitude(),
+                "admin", u.isAdmin(),
+                "dateCreated", u.getDateCreated(),
+                "dateUpdated", u.getDateUpdated());
+    }
+
+    static String phone(String phone) {
+        String trimmed = phone.trim();
+        if (!trimmed.matches(PHONE)) {
+            throw new IllegalArgumentException("Must be a valid phone number.");
+        }
+        return trimmed;
+    }
+}
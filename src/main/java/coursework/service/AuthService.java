@@ -0,0 +1,133 @@
+package coursework.service;
+
+import coursework.model.BasicUser;
+import coursework.model.Driver;
+import coursework.model.Restaurant;
+import coursework.model.User;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Prisijungimas visiems User tipams: login -> vartotojas per LoginIndex (viena hash paieška)
+// ir vienas slaptažodžio patikrinimas (PBKDF2, žr. Passwords). Pavykus išduodamas atsitiktinis
+// token'as – tolesnės užklausos tikrinamos tik sesijų map'e, be PBKDF2.
+// Nežinomam login'ui tikrinamas fiktyvus hash'as, kad atsakymo laikas neišduotų, ar login'as yra.
+// Sesijos tik atmintyje: perkrovus programą reikia prisijungti iš naujo.
+public class AuthService {
+
+    public record Session(String token, User user, Instant expiresAt) {
+    }
+
+    private static final int TOKEN_BYTES = 32;
+    // pasibaigusios sesijos išmetamos kas tiek prisijungimų (ir pavieniui – tikrinant token'ą)
+    private static final int SWEEP_EVERY = 1024;
+
+    private final LoginIndex logins;
+    private final BasicUserService basicUserService;
+    private final RestaurantService restaurantService;
+    private final DriverService driverService;
+    private final Duration sessionTtl;
+    private final String dummyHash;
+
+    private final ConcurrentHashMap<String, Session> sessions = new ConcurrentHashMap<>();
+    private final AtomicInteger loginsSinceSweep = new AtomicInteger();
+    private final SecureRandom random = new SecureRandom();
+
+    // -Dauth.sessionMinutes=60
+    public AuthService(LoginIndex logins, BasicUserService basicUserService,
+                       RestaurantService restaurantService, DriverService driverService) {
+        this(logins, basicUserService, restaurantService, driverService,
+                Duration.ofMinutes(Long.getLong("auth.sessionMinutes", 60)));
+    }
+
+    public AuthService(LoginIndex logins, BasicUserService basicUserService,
+                       RestaurantService restaurantService, DriverService driverService, Duration sessionTtl) {
+        if (sessionTtl.isNegative() || sessionTtl.isZero()) {
+            throw new IllegalArgumentException("Session lifetime must be positive.");
+        }
+        this.logins = logins;
+        this.basicUserService = basicUserService;
+        this.restaurantService = restaurantService;
+        this.driverService = driverService;
+        this.sessionTtl = sessionTtl;
+        this.dummyHash = Passwords.hash("");
+    }
+
+    // null – blogas login'as arba slaptažodis
+    public Session login(String login, String password) {
+        if (login == null || password == null) {
+            return null;
+        }
+        User user = logins.find(login);
+        String stored = user != null ? user.getPassword() : null;
+        boolean valid = Passwords.verify(password, stored != null ? stored : dummyHash) && stored != null;
+        if (!valid) {
+            return null;
+        }
+        if (Passwords.needsRehash(stored)) {
+            rehash(user, password);
+        }
+        if (loginsSinceSweep.incrementAndGet() >= SWEEP_EVERY) {
+            loginsSinceSweep.set(0);
+            sweep();
+        }
+        Session session = new Session(newToken(), user, Instant.now().plus(sessionTtl));
+        sessions.put(session.token(), session);
+        return session;
+    }
+
+    // sesijos vartotojas (dabartinis objektas); null – token'as nežinomas, pasibaigęs
+    // arba vartotojas ištrintas
+    public User authenticate(String token) {
+        Session session = token != null ? sessions.get(token) : null;
+        if (session == null) {
+            return null;
+        }
+        User current = logins.findById(session.user().getId());
+        if (current == null || Instant.now().isAfter(session.expiresAt())) {
+            sessions.remove(token, session);
+            return null;
+        }
+        return current;
+    }
+
+    public boolean logout(String token) {
+        return token != null && sessions.remove(token) != null;
+    }
+
+    public int sessionCount() {
+        return sessions.size();
+    }
+
+    // atviras ar pigesnis senas hash'as -> hash'as su dabartine kaina
+    private void rehash(User user, String password) {
+        synchronized (user) {
+            if (!Passwords.needsRehash(user.getPassword())) {
+                return;
+            }
+            user.setPassword(Passwords.hash(password));
+            switch (user) {
+                case Driver d -> driverService.updateDriver(d);
+                case Restaurant r -> restaurantService.updateRestaurant(r);
+                case BasicUser u -> basicUserService.updateBasicUser(u);
+                default -> {
+                }
+            }
+        }
+    }
+
+    private void sweep() {
+        Instant now = Instant.now();
+        sessions.values().removeIf(s -> now.isAfter(s.expiresAt()));
+    }
+
+    private String newToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -1,59 +1,86 @@
 package coursework.service;
 
 import coursework.model.BasicUser;
-import java.util.Optional;
-import javafx.collections.FXCollections;
+import coursework.repository.InMemoryRepository;
+import coursework.repository.ListDispatcher;
 import javafx.collections.ObservableList;
 
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
 public class BasicUserService {
 
-    private final ObservableList<BasicUser> users = FXCollections.observableArrayList();
-    private long idCounter = 1;
+    private final InMemoryRepository<BasicUser> users;
+    private final LoginIndex logins;
+
+    public BasicUserService() {
+        this(ListDispatcher.FX, new AtomicLong(1), new LoginIndex());
+    }
+
+    // vartotojai, restoranai ir driveriai gali dalintis viena id seka ir vienu login'ų indeksu
+    public BasicUserService(ListDispatcher dispatcher, AtomicLong idSequence, LoginIndex logins) {
+        this.users = new InMemoryRepository<>(BasicUser::getId, dispatcher, idSequence);
+        this.logins = logins;
+        users.addListener(logins);
+    }
 
     // CREATE
     public BasicUser createBasicUser(String login, String password, String name, String surname,
                                      String phoneNumber, String address, boolean isAdmin) {
 
         BasicUser user = new BasicUser();
-        user.setId(idCounter++);
+        user.setId(users.nextId());
         user.setLogin(login);
-        user.setPassword(password);
+        user.setPassword(Passwords.hash(password));
         user.setName(name);
         user.setSurname(surname);
         user.setPhoneNumber(phoneNumber);
         user.setAddress(address);
         user.setAdmin(isAdmin);
 
-        users.add(user);
+        // login'as unikalus visiems User tipams – užimtas: IllegalArgumentException
+        logins.claimed(user, () -> {
+            users.add(user);
+            return true;
+        });
         return user;
     }
 
+    // CREATE MANY (importas) – vienas sąrašo pakeitimas visam batch'ui
+    public void addBasicUsers(List<BasicUser> batch) {
+        for (BasicUser user : batch) {
+            user.setId(users.nextId());
+        }
+        logins.claimedAll(batch, () -> users.addAll(batch));
+    }
+
     // READ ALL
     public ObservableList<BasicUser> getAllUsers() {
-        return users;
+        return users.getAll();
     }
 
     // READ ONE
     public BasicUser findById(long id) {
-        Optional<BasicUser> result = users.stream()
-                .filter(u -> u.getId() == id)
-                .findFirst();
-        return result.orElse(null);
+        return users.findById(id);
     }
 
     // UPDATE
     public boolean updateBasicUser(BasicUser updated) {
-        for (int i = 0; i < users.size(); i++) {
-            if (users.get(i).getId() == updated.getId()) {
-                users.set(i, updated);
-                return true;
-            }
-        }
-        return false;
+        return logins.claimed(updated, () -> users.update(updated));
     }
 
     // DELETE
     public boolean deleteBasicUser(long id) {
-        return users.removeIf(u -> u.getId() == id);
+        return users.delete(id);
+    }
+
+    // persistence sluoksniui (log'as, snapshot'ai)
+    public InMemoryRepository<BasicUser> getRepository() {
+        return users;
+    }
+
+    // bendras visiems User tipams (unikalumo patikrinimas formose, importas)
+    public LoginIndex getLogins() {
+        return logins;
     }
 }
@@ -0,0 +1,57 @@
+package coursework.service;
+
+import coursework.model.ChatMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Vieno užsakymo pokalbis: pranešimai blokais po CHUNK.
+// Pridėjimas O(1) – įrašom į paskutinį bloką, naujas blokas tik kai jis pilnas;
+// senų pranešimų niekas nekopijuoja (auga tik blokų nuorodų masyvas).
+// Puslapis [from, from + limit) randamas tiesiogiai: blokas from / CHUNK, vieta from % CHUNK.
+// Rašo vienas (synchronized), skaito be lock'ų: pranešimas įrašomas prieš padidinant size.
+final class ChatLog {
+
+    static final int CHUNK = 64;
+
+    private volatile ChatMessage[][] chunks = new ChatMessage[4][];
+    private volatile int size;
+
+    synchronized void append(ChatMessage message) {
+        int n = size;
+        ChatMessage[][] c = chunks;
+        int chunk = n / CHUNK;
+        if (chunk == c.length) {
+            ChatMessage[][] grown = new ChatMessage[c.length * 2][];
+            System.arraycopy(c, 0, grown, 0, c.length);
+            c = grown;
+        }
+        if (c[chunk] == null) {
+            c[chunk] = new ChatMessage[CHUNK];
+        }
+        c[chunk][n % CHUNK] = message;
+        chunks = c;
+        size = n + 1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    ChatMessage get(int index) {
+        return chunks[index / CHUNK][index % CHUNK];
+    }
+
+    // chronologine tvarka
+    List<ChatMessage> range(int from, int limit) {
+        int n = size;
+        int start = Math.max(0, Math.min(from, n));
+        int end = (int) Math.min(n, (long) start + Math.max(0, limit));
+        ChatMessage[][] c = chunks;
+        List<ChatMessage> page = new ArrayList<>(end - start);
+        for (int i = start; i < end; i++) {
+            page.add(c[i / CHUNK][i % CHUNK]);
+        }
+        return page;
+    }
+}
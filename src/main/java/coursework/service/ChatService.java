@@ -0,0 +1,135 @@
+package coursework.service;
+
+import coursework.model.BasicUser;
+import coursework.model.ChatMessage;
+import coursework.model.FoodOrder;
+import coursework.repository.InMemoryRepository;
+import coursework.repository.ListDispatcher;
+import coursework.repository.RepositoryListener;
+import javafx.collections.ObservableList;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Užsakymų pokalbiai: kiekvienam užsakymui – tik pildomas pranešimų log'as (ChatLog).
+// Pranešimai – atskiri objektai savo repository, todėl persistence rašo tik naują pranešimą,
+// o ne visą pokalbį; užsakymo atnaujinimas pokalbio visai neliečia.
+// Vieno užsakymo pranešimai pridedami po vieną (lock'as ant jo ChatLog), tad id, log'o
+// ir persistence tvarka sutampa. Ištrynus užsakymą ištrinamas ir jo pokalbis.
+public class ChatService {
+
+    public static final int MAX_TEXT_LENGTH = 2000;
+
+    private final OrderService orderService;
+    private final InMemoryRepository<ChatMessage> messages;
+    private final Map<Integer, ChatLog> logs = new ConcurrentHashMap<>();
+
+    public ChatService(OrderService orderService) {
+        this(ListDispatcher.FX, orderService);
+    }
+
+    public ChatService(ListDispatcher dispatcher, OrderService orderService) {
+        this.orderService = orderService;
+        this.messages = new InMemoryRepository<>(ChatMessage::getId, dispatcher);
+        this.messages.addListener(new RepositoryListener<>() {
+            @Override
+            public void added(ChatMessage message) {
+                logs.computeIfAbsent(message.getOrder().getId(), k -> new ChatLog()).append(message);
+            }
+
+            @Override
+            public void updated(ChatMessage message) {
+                // tas pats objektas jau log'e
+            }
+
+            // pavienių pranešimų netrinam – tik visą pokalbį kartu su užsakymu
+            @Override
+            public void removed(ChatMessage message) {
+                logs.remove(message.getOrder().getId());
+            }
+        });
+        orderService.getRepository().addListener(new RepositoryListener<>() {
+            @Override
+            public void added(FoodOrder order) {
+            }
+
+            @Override
+            public void updated(FoodOrder order) {
+            }
+
+            @Override
+            public void removed(FoodOrder order) {
+                ChatLog log = logs.get(order.getId());
+                if (log == null) {
+                    return;
+                }
+                for (ChatMessage m : log.range(0, log.size())) {
+                    messages.delete(m.getId());
+                }
+                logs.remove(order.getId());
+            }
+        });
+    }
+
+    public ChatMessage send(FoodOrder order, BasicUser sender, String text) {
+        if (text == null || text.isBlank()) {
+            throw new IllegalArgumentException("Message is empty.");
+        }
+        if (text.length() > MAX_TEXT_LENGTH) {
+            throw new IllegalArgumentException("Message is longer than " + MAX_TEXT_LENGTH + " characters.");
+        }
+        if (orderService.findById(order.getId()) != order) {
+            throw new IllegalArgumentException("Order not found.");
+        }
+        ChatLog log = logs.computeIfAbsent(order.getId(), k -> new ChatLog());
+        synchronized (log) {
+            ChatMessage m = new ChatMessage();
+            m.setId(messages.nextId());
+            m.setOrder(order);
+            m.setSender(sender);
+            m.setText(text);
+            m.setSentAt(LocalDateTime.now());
+            messages.add(m);
+            return m;
+        }
+    }
+
+    public int size(FoodOrder order) {
+        ChatLog log = logs.get(order.getId());
+        return log != null ? log.size() : 0;
+    }
+
+    // pranešimai [from, from + limit) chronologine tvarka (0 – seniausias)
+    public List<ChatMessage> page(FoodOrder order, int from, int limit) {
+        ChatLog log = logs.get(order.getId());
+        return log != null ? log.range(from, limit) : List.of();
+    }
+
+    // paskutiniai limit pranešimų
+    public List<ChatMessage> latest(FoodOrder order, int limit) {
+        ChatLog log = logs.get(order.getId());
+        return log != null ? log.range(log.size() - limit, limit) : List.of();
+    }
+
+    // visi pranešimai, kiekvieno užsakymo – jų tvarka (snapshot'ui)
+    public List<ChatMessage> allMessages() {
+        List<ChatMessage> all = new ArrayList<>(messages.size());
+        for (ChatLog log : logs.values()) {
+            all.addAll(log.range(0, log.size()));
+        }
+        return all;
+    }
+
+    // tik dispatcher gijoje (UI): nauji pranešimai
+    public ObservableList<ChatMessage> getAllMessages() {
+        return messages.getAll();
+    }
+
+    // persistence sluoksniui (log'as, snapshot'ai)
+    public InMemoryRepository<ChatMessage> getRepository() {
+        return messages;
+    }
+}
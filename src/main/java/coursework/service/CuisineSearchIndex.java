@@ -0,0 +1,287 @@
+package coursework.service;
+
+import coursework.model.Cuisine;
+import coursework.repository.RepositoryListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+// Invertuotas patiekalų indeksas: žodis -> patiekalai, atskirai pavadinimui ir ingredientams.
+// Žodynai surūšiuoti (skip list), tad prefiksas "pi" – tai tik žodžių intervalas nuo "pi" iki "pi" + MAX_VALUE.
+// Žodžiai be didžiųjų raidžių ir diakritikų ("Žemaičių" == "zemaiciu").
+// Patiekalai keičiami vietoje, todėl kaip OrderIndex atsimenam, kokius žodžius įdėjom (Entry);
+// tas pats Entry guli ir žodynuose, tad tikrinant kandidatą nereikia papildomų paieškų.
+// Rašymai (listeneriai) serializuojami vienu lock'u – jų mažai; paieška be lock'ų.
+class CuisineSearchIndex implements RepositoryListener<Cuisine> {
+
+    // įvertinimas vienam užklausos žodžiui: geriausias atitikmuo
+    private static final int NAME_EXACT = 8;
+    private static final int NAME_PREFIX = 4;
+    private static final int INGREDIENT_EXACT = 2;
+    private static final int INGREDIENT_PREFIX = 1;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // lygybė pagal identitetą – žodynų aibėse
+    private static final class Entry {
+        final Cuisine cuisine;
+        final String[] name;
+        final String[] ingredients;
+
+        Entry(Cuisine cuisine) {
+            this.cuisine = cuisine;
+            this.name = tokenize(cuisine.getName()).toArray(String[]::new);
+            this.ingredients = tokenize(cuisine.getIngredients()).toArray(String[]::new);
+        }
+    }
+
+    private record Scored(Cuisine cuisine, int score) {
+    }
+
+    private static final Comparator<Scored> RANKING = Comparator.comparingInt(Scored::score).reversed()
+            .thenComparing(s -> s.cuisine().getName(), Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
+            .thenComparingInt(s -> s.cuisine().getId());
+
+    private final Map<Integer, Entry> indexed = new ConcurrentHashMap<>();
+    private final NavigableMap<String, Set<Entry>> byName = new ConcurrentSkipListMap<>();
+    private final NavigableMap<String, Set<Entry>> byIngredient = new ConcurrentSkipListMap<>();
+
+    @Override
+    public synchronized void added(Cuisine cuisine) {
+        index(cuisine);
+    }
+
+    @Override
+    public synchronized void updated(Cuisine cuisine) {
+        unindex(cuisine.getId());
+        index(cuisine);
+    }
+
+    @Override
+    public synchronized void removed(Cuisine cuisine) {
+        unindex(cuisine.getId());
+    }
+
+    // visi užklausos žodžiai turi atitikti (kaip prefiksai) pavadinimą arba ingredientus;
+    // geriausi pirmi. Nereikia rūšiuoti visų atitikmenų:
+    // - vienas žodis (type-ahead): einam pakopomis nuo geriausios (pavadinime tiksliai, pavadinime
+    //   prefiksas, ingredientuose tiksliai, ingredientuose prefiksas) ir sustojam, kai surinkom limit;
+    // - keli žodžiai: kandidatai – tik rečiausio žodžio atitikmenys, kiti žodžiai tikrinami
+    //   pagal kandidato žodžius, o geriausi limit renkami ribotame heap'e.
+    List<Cuisine> search(String query, Predicate<Cuisine> filter, int limit) {
+        List<String> terms = new ArrayList<>(tokenize(query));
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        terms.sort(Comparator.comparingInt(String::length).reversed());
+        return terms.size() == 1
+                ? searchTerm(terms.get(0), filter, limit)
+                : searchAll(terms, filter, limit);
+    }
+
+    private List<Cuisine> searchTerm(String term, Predicate<Cuisine> filter, int limit) {
+        List<Cuisine> result = new ArrayList<>();
+        Set<Entry> seen = new HashSet<>();
+        for (NavigableMap<String, Set<Entry>> dictionary : List.of(byName, byIngredient)) {
+            if (collect(dictionary.get(term), filter, limit, seen, result)) {
+                return result;
+            }
+            for (Set<Entry> set : prefixed(dictionary, term, false).values()) {
+                if (collect(set, filter, limit, seen, result)) {
+                    return result;
+                }
+            }
+        }
+        return result;
+    }
+
+    // true – surinkta limit
+    private static boolean collect(Set<Entry> set, Predicate<Cuisine> filter, int limit,
+                                   Set<Entry> seen, List<Cuisine> result) {
+        if (set == null) {
+            return false;
+        }
+        for (Entry e : set) {
+            if (filter.test(e.cuisine) && seen.add(e)) {
+                result.add(e.cuisine);
+                if (result.size() >= limit) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private List<Cuisine> searchAll(List<String> terms, Predicate<Cuisine> filter, int limit) {
+        String first = rarest(terms);
+        PriorityQueue<Scored> top = new PriorityQueue<>(RANKING.reversed()); // blogiausias – viršuje
+        // tas pats patiekalas gali būti po keliais žodžiais – imam tik po pirmuoju atitinkančiu
+        for (Map.Entry<String, Set<Entry>> match : prefixed(byName, first, true).entrySet()) {
+            for (Entry e : match.getValue()) {
+                if (match.getKey().equals(firstMatch(e.name, first))) {
+                    consider(e, terms, filter, limit, top);
+                }
+            }
+        }
+        for (Map.Entry<String, Set<Entry>> match : prefixed(byIngredient, first, true).entrySet()) {
+            for (Entry e : match.getValue()) {
+                if (firstMatch(e.name, first) == null && match.getKey().equals(firstMatch(e.ingredients, first))) {
+                    consider(e, terms, filter, limit, top);
+                }
+            }
+        }
+        List<Scored> ranked = new ArrayList<>(top);
+        ranked.sort(RANKING);
+        List<Cuisine> result = new ArrayList<>(ranked.size());
+        for (Scored s : ranked) {
+            result.add(s.cuisine());
+        }
+        return result;
+    }
+
+    private String rarest(List<String> terms) {
+        String rarest = null;
+        long fewest = Long.MAX_VALUE;
+        for (String term : terms) {
+            long n = postings(byName, term, fewest);
+            n += postings(byIngredient, term, fewest - n);
+            if (n < fewest) {
+                fewest = n;
+                rarest = term;
+            }
+        }
+        return rarest;
+    }
+
+    // kiek patiekalų po žodžiais su prefix; skaičiuojam tik iki max
+    private static long postings(NavigableMap<String, Set<Entry>> dictionary, String prefix, long max) {
+        long n = 0;
+        for (Set<Entry> set : prefixed(dictionary, prefix, true).values()) {
+            n += set.size();
+            if (n >= max) {
+                break;
+            }
+        }
+        return n;
+    }
+
+    private static void consider(Entry e, List<String> terms, Predicate<Cuisine> filter, int limit,
+                                 PriorityQueue<Scored> top) {
+        if (!filter.test(e.cuisine)) {
+            return;
+        }
+        int score = score(e, terms);
+        if (score == 0) {
+            return;
+        }
+        top.add(new Scored(e.cuisine, score));
+        if (top.size() > limit) {
+            top.poll();
+        }
+    }
+
+    // balų suma per visus žodžius; 0 – kuris nors žodis neatitiko
+    private static int score(Entry e, List<String> terms) {
+        int total = 0;
+        for (String term : terms) {
+            int best = Math.max(
+                    best(e.name, term, NAME_EXACT, NAME_PREFIX),
+                    best(e.ingredients, term, INGREDIENT_EXACT, INGREDIENT_PREFIX));
+            if (best == 0) {
+                return 0;
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    private static int best(String[] tokens, String term, int exactScore, int prefixScore) {
+        int best = 0;
+        for (String token : tokens) {
+            if (token.startsWith(term)) {
+                if (token.length() == term.length()) {
+                    return exactScore;
+                }
+                best = prefixScore;
+            }
+        }
+        return best;
+    }
+
+    // mažiausias (žodyno tvarka) žodis, prasidedantis prefix
+    private static String firstMatch(String[] tokens, String prefix) {
+        String first = null;
+        for (String token : tokens) {
+            if (token.startsWith(prefix) && (first == null || token.compareTo(first) < 0)) {
+                first = token;
+            }
+        }
+        return first;
+    }
+
+    private static NavigableMap<String, Set<Entry>> prefixed(NavigableMap<String, Set<Entry>> dictionary,
+                                                             String prefix,
+                                                             boolean includeExact) {
+        return dictionary.subMap(prefix, includeExact, prefix + Character.MAX_VALUE, false);
+    }
+
+    static Set<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Set.of();
+        }
+        String plain = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String token : SEPARATORS.split(plain.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private void index(Cuisine cuisine) {
+        Entry entry = new Entry(cuisine);
+        indexed.put(cuisine.getId(), entry);
+        for (String t : entry.name) {
+            byName.computeIfAbsent(t, k -> ConcurrentHashMap.newKeySet()).add(entry);
+        }
+        for (String t : entry.ingredients) {
+            byIngredient.computeIfAbsent(t, k -> ConcurrentHashMap.newKeySet()).add(entry);
+        }
+    }
+
+    private void unindex(int cuisineId) {
+        Entry entry = indexed.remove(cuisineId);
+        if (entry == null) {
+            return;
+        }
+        for (String t : entry.name) {
+            remove(byName, t, entry);
+        }
+        for (String t : entry.ingredients) {
+            remove(byIngredient, t, entry);
+        }
+    }
+
+    // tuščių žodžių nepaliekam – kitaip prefiksų intervalai tik ilgėtų
+    private static void remove(Map<String, Set<Entry>> dictionary, String term, Entry entry) {
+        Set<Entry> set = dictionary.get(term);
+        if (set != null && set.remove(entry) && set.isEmpty()) {
+            dictionary.remove(term);
+        }
+    }
+}
@@ -2,15 +2,30 @@ package coursework.service;
 
 import coursework.model.Cuisine;
 import coursework.model.Restaurant;
-import javafx.collections.FXCollections;
+import coursework.repository.InMemoryRepository;
+import coursework.repository.ListDispatcher;
 import javafx.collections.ObservableList;
 
-import java.util.Optional;
+import java.util.List;
+
 
 public class CuisineService {
 
-    private final ObservableList<Cuisine> cuisines = FXCollections.observableArrayList();
-    private int idCounter = 1;
+    private final InMemoryRepository<Cuisine> cuisines;
+    private final CuisineSearchIndex searchIndex = new CuisineSearchIndex();
+    private final MenuIndex menuIndex = new MenuIndex();
+    private final PriceTable priceTable = new PriceTable();
+
+    public CuisineService() {
+        this(ListDispatcher.FX);
+    }
+
+    public CuisineService(ListDispatcher dispatcher) {
+        this.cuisines = new InMemoryRepository<>(Cuisine::getId, dispatcher);
+        this.cuisines.addListener(searchIndex);
+        this.cuisines.addListener(menuIndex);
+        this.cuisines.addListener(priceTable);
+    }
 
     public Cuisine createCuisine(String name,
                                  String ingredients,
@@ -20,7 +35,7 @@ public class CuisineService {
                                  Restaurant restaurant) {
 
         Cuisine c = new Cuisine();
-        c.setId(idCounter++);
+        c.setId(Math.toIntExact(cuisines.nextId()));
         c.setName(name);
         c.setIngredients(ingredients);
         c.setPrice(price);
@@ -32,28 +47,53 @@ public class CuisineService {
         return c;
     }
 
+    // masinis importas: id priskiriami čia, sąrašas gauna vieną pakeitimą visam batch'ui
+    public void addCuisines(List<Cuisine> batch) {
+        for (Cuisine c : batch) {
+            c.setId(Math.toIntExact(cuisines.nextId()));
+        }
+        cuisines.addAll(batch);
+    }
+
     public ObservableList<Cuisine> getAllCuisines() {
-        return cuisines;
+        return cuisines.getAll();
     }
 
     public Cuisine findById(int id) {
-        Optional<Cuisine> result = cuisines.stream()
-                .filter(c -> c.getId() == id)
-                .findFirst();
-        return result.orElse(null);
+        return cuisines.findById(id);
     }
 
     public boolean updateCuisine(Cuisine updated) {
-        for (int i = 0; i < cuisines.size(); i++) {
-            if (cuisines.get(i).getId() == updated.getId()) {
-                cuisines.set(i, updated);
-                return true;
-            }
-        }
-        return false;
+        return cuisines.update(updated);
     }
 
     public boolean deleteCuisine(int id) {
-        return cuisines.removeIf(c -> c.getId() == id);
+        return cuisines.delete(id);
+    }
+
+    // restorano patiekalai (pagal id), nekeičiamas sąrašas – nereikia eiti per visą katalogą
+    public List<Cuisine> getMenu(Restaurant restaurant) {
+        return menuIndex.menu(restaurant);
+    }
+
+    // patiekalo kaina centais, kokia paskutinį kartą išsaugota servise (žr. PricingService)
+    public long getPriceMinor(Cuisine cuisine) {
+        return priceTable.priceMinor(cuisine);
+    }
+
+    // paieška pavadinime ir ingredientuose: "peanut", "pi" (type-ahead), "spicy chicken";
+    // kiekvienas žodis – prefiksas, visi turi atitikti; tinkamiausi pirmi
+    public List<Cuisine> search(String query, int limit) {
+        return searchIndex.search(query, c -> true, limit);
+    }
+
+    // tik to restorano patiekalai (užsakymo formai)
+    public List<Cuisine> search(String query, Restaurant restaurant, int limit) {
+        return searchIndex.search(query, c -> c.getRestaurant() == restaurant, limit);
+    }
+
+    // persistence sluoksniui (log'as, snapshot'ai)
+    public InMemoryRepository<Cuisine> getRepository() {
+        return cuisines;
     }
 }
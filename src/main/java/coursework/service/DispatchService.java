@@ -0,0 +1,432 @@
+package coursework.service;
+
+import coursework.model.Driver;
+import coursework.model.FoodOrder;
+import coursework.model.OrderStatus;
+import coursework.model.VehicleType;
+import coursework.repository.RepositoryListener;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Automatinis driverio priskyrimas užsakymams, patekusiems į WAITING_FOR_DRIVER.
+// - laisvi driveriai (available = true) laikomi indeksuose pagal vietą (adresą) ir transporto tipą,
+//   o jei yra GeoService – pirmiausia imami artimiausi restoranui pagal koordinates;
+//   tad ieškant nereikia peržiūrėti viso driverių sąrašo;
+// - driveris "užimamas" vienu atominiu free.remove(id) – tą patį driverį gali gauti tik vienas užsakymas;
+//   kol užėmimas dar nepaskelbtas (available = false ir updateDriver), id laikomas claimed – kitas
+//   to driverio update (login'o rehash, UI, PUT) jo atgal į laisvus negrąžina;
+// - priskyrimą daro atskira gija: listeneriai kviečiami repository lock'o viduje,
+//   todėl iš jų tik pranešam apie įvykį, o servisus keičiam jau ne lock'e.
+// Priskirtas užsakymas pereina į IN_DELIVERY, driveris tampa neužimtas (available = true),
+// kai užsakymas baigiasi (DELIVERED, COMPLETED, REJECTED, CANCELLED) arba ištrinamas.
+// Ranka parinktas driveris (UI, API) užimamas per tą patį tašką (claimDriver) – užimtas atmetamas,
+// tad driveris niekada neturi dviejų nebaigtų užsakymų.
+public class DispatchService implements Closeable {
+
+    private static final Set<OrderStatus> FINISHED =
+            EnumSet.of(OrderStatus.DELIVERED, OrderStatus.COMPLETED, OrderStatus.REJECTED, OrderStatus.CANCELLED);
+
+    private enum Kind { ASSIGN, RELEASE, RETRY, STOP }
+
+    private record Event(Kind kind, long id) {
+    }
+
+    private record Slot(String location, VehicleType vehicle) {
+    }
+
+    // kiek artimiausių laisvų driverių bandom užimti, kol pereinam prie adreso indekso
+    private static final int NEAREST_CANDIDATES = 16;
+
+    private final OrderService orderService;
+    private final DriverService driverService;
+    private final GeoService geoService;
+    private final List<VehicleType> vehiclePreference;
+
+    // laisvi driveriai: id -> driveris (tiesos šaltinis užimant) ir kur jie įdėti indeksuose
+    private final Map<Long, Driver> free = new ConcurrentHashMap<>();
+    private final Map<Long, Slot> slots = new ConcurrentHashMap<>();
+    private final Map<Slot, Set<Driver>> byLocation = new ConcurrentHashMap<>();
+    private final Map<VehicleType, Set<Driver>> byVehicle = new ConcurrentHashMap<>();
+    // užimti, bet dar nepaskelbti (tarp tryClaim ir settle)
+    private final Set<Long> claimed = ConcurrentHashMap.newKeySet();
+
+    // paskutinis matytas kiekvieno užsakymo statusas – perėjimams aptikti (užsakymai keičiami vietoje)
+    private final Map<Integer, OrderStatus> lastStatus = new ConcurrentHashMap<>();
+
+    private final BlockingQueue<Event> events = new LinkedBlockingQueue<>();
+    private final Thread worker;
+    // iki start() (būsenos atkūrimas) užsakymų įvykių nekaupiam – start() juos paima pats
+    private volatile boolean started;
+
+    // tik worker gijai: užsakymai, kuriems dar nebuvo laisvo driverio
+    private final Deque<Integer> backlog = new ArrayDeque<>();
+
+    public DispatchService(OrderService orderService, DriverService driverService) {
+        this(orderService, driverService, null);
+    }
+
+    // geoService – artimiausi laisvi driveriai pagal koordinates (null – tik pagal adresą)
+    public DispatchService(OrderService orderService, DriverService driverService, GeoService geoService) {
+        this(orderService, driverService, geoService, List.of(VehicleType.values()));
+    }
+
+    // vehiclePreference – kokia tvarka rinktis transportą, kai toje pačioje vietoje laisvi keli
+    public DispatchService(OrderService orderService, DriverService driverService,
+                           GeoService geoService, List<VehicleType> vehiclePreference) {
+        this.orderService = orderService;
+        this.driverService = driverService;
+        this.geoService = geoService;
+        this.vehiclePreference = List.copyOf(vehiclePreference);
+        this.worker = new Thread(this::run, "dispatch");
+        this.worker.setDaemon(true);
+
+        driverService.getRepository().addListener(new RepositoryListener<>() {
+            @Override
+            public void added(Driver driver) {
+                reindex(driver);
+            }
+
+            @Override
+            public void updated(Driver driver) {
+                reindex(driver);
+            }
+
+            @Override
+            public void removed(Driver driver) {
+                unindex(driver.getId());
+            }
+        });
+        orderService.getRepository().addListener(new RepositoryListener<>() {
+            @Override
+            public void added(FoodOrder order) {
+                if (started) {
+                    statusChanged(order, remember(order), order.getStatus());
+                }
+            }
+
+            @Override
+            public void updated(FoodOrder order) {
+                if (started) {
+                    statusChanged(order, remember(order), order.getStatus());
+                }
+            }
+
+            @Override
+            public void removed(FoodOrder order) {
+                if (!started) {
+                    return;
+                }
+                OrderStatus previous = lastStatus.remove(order.getId());
+                if (order.getDriver() != null && previous != null && !FINISHED.contains(previous)) {
+                    events.add(new Event(Kind.RELEASE, order.getDriver().getId()));
+                }
+            }
+        });
+    }
+
+    // paleidžiama po būsenos atkūrimo: indeksuojam esamus driverius ir paimam jau laukiančius užsakymus
+    public void start() {
+        started = true;
+        for (Driver d : driverService.getRepository().values()) {
+            reindex(d);
+        }
+        for (FoodOrder o : orderService.getRepository().values()) {
+            if (o.getStatus() != null) {
+                lastStatus.putIfAbsent(o.getId(), o.getStatus());
+            }
+        }
+        for (FoodOrder o : orderService.findByStatus(OrderStatus.WAITING_FOR_DRIVER)) {
+            events.add(new Event(Kind.ASSIGN, o.getId()));
+        }
+        worker.start();
+    }
+
+    public int getAvailableDriverCount() {
+        return free.size();
+    }
+
+    // ranka parinktas driveris: užimamas kaip ir automatiškai (available = false);
+    // jau užimtas ar nepasiekiamas – IllegalStateException
+    public void claimDriver(Driver driver) {
+        if (!tryClaim(driver)) {
+            throw new IllegalStateException("Driver is not available: " + driver.getName() + " " + driver.getSurname() + ".");
+        }
+        settle(driver, true);
+    }
+
+    // driveris vėl laisvas, kai nebeturi nebaigto užsakymo (tikrina worker'is); null – nieko
+    public void releaseDriver(Driver driver) {
+        if (driver != null) {
+            events.add(new Event(Kind.RELEASE, driver.getId()));
+        }
+    }
+
+    // ranka priskirti driverį užsakymui: naujas užimamas, ankstesnis atlaisvinamas įrašius
+    public void assignDriver(FoodOrder order, Driver driver) {
+        Driver previous;
+        boolean updated;
+        synchronized (order) {
+            previous = order.getDriver();
+            if (previous == driver) {
+                return;
+            }
+            if (driver != null) {
+                claimDriver(driver);
+            }
+            order.setDriver(driver);
+            updated = orderService.update(order);
+        }
+        releaseDriver(updated ? previous : driver);
+    }
+
+    @Override
+    public void close() {
+        events.add(new Event(Kind.STOP, 0));
+        if (worker.isAlive()) {
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // --- listeneriai (repository lock'o viduje – tik indeksai ir eilė) ---
+
+    private void statusChanged(FoodOrder order, OrderStatus previous, OrderStatus current) {
+        if (current == previous) {
+            return;
+        }
+        if (current == OrderStatus.WAITING_FOR_DRIVER) {
+            events.add(new Event(Kind.ASSIGN, order.getId()));
+        } else if (current != null && FINISHED.contains(current) && previous != null
+                && !FINISHED.contains(previous) && order.getDriver() != null) {
+            events.add(new Event(Kind.RELEASE, order.getDriver().getId()));
+        }
+    }
+
+    private void reindex(Driver driver) {
+        boolean wasFree = unindex(driver.getId());
+        // available = true ranka (UI / API), nors driveris dar veža – laisvu netampa;
+        // ką tik užimtas (claimed) – irgi, nors available dar gali būti true
+        if (claimed.contains(driver.getId()) || !driver.isAvailable() || driver.getVehicleType() == null
+                || busy(driver, null)) {
+            return;
+        }
+        Slot slot = new Slot(location(driver.getAddress()), driver.getVehicleType());
+        slots.put(driver.getId(), slot);
+        byLocation.computeIfAbsent(slot, k -> ConcurrentHashMap.newKeySet()).add(driver);
+        byVehicle.computeIfAbsent(slot.vehicle(), k -> ConcurrentHashMap.newKeySet()).add(driver);
+        free.put(driver.getId(), driver);
+        if (!wasFree) {
+            events.add(new Event(Kind.RETRY, 0)); // atsirado naujas laisvas driveris
+        }
+    }
+
+    // true – driveris buvo laisvas
+    private boolean unindex(long driverId) {
+        Driver driver = free.remove(driverId);
+        Slot slot = slots.remove(driverId);
+        if (slot != null && driver != null) {
+            removeFrom(byLocation.get(slot), driver);
+            removeFrom(byVehicle.get(slot.vehicle()), driver);
+        }
+        return driver != null;
+    }
+
+    private static void removeFrom(Set<Driver> set, Driver driver) {
+        if (set != null) {
+            set.remove(driver);
+        }
+    }
+
+    // --- worker ---
+
+    private void run() {
+        while (true) {
+            Event event;
+            try {
+                event = events.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                switch (event.kind()) {
+                    case ASSIGN -> {
+                        if (!assign((int) event.id())) {
+                            backlog.add((int) event.id());
+                        }
+                    }
+                    case RELEASE -> release(event.id());
+                    case RETRY -> retryBacklog();
+                    case STOP -> {
+                        return;
+                    }
+                }
+            } catch (RuntimeException e) {
+                // klaida su stack trace į bendrą gijų klaidų kanalą; kiti įvykiai apdorojami toliau
+                Thread.currentThread().getUncaughtExceptionHandler().uncaughtException(Thread.currentThread(), e);
+            }
+        }
+    }
+
+    private void retryBacklog() {
+        int n = backlog.size();
+        for (int i = 0; i < n && !free.isEmpty(); i++) {
+            int orderId = backlog.poll();
+            if (!assign(orderId)) {
+                backlog.add(orderId);
+            }
+        }
+    }
+
+    // true – užsakymas sutvarkytas (priskirtas arba nebelaukia), false – nėra laisvo driverio
+    private boolean assign(int orderId) {
+        FoodOrder order = orderService.findById(orderId);
+        if (order == null || order.getStatus() != OrderStatus.WAITING_FOR_DRIVER) {
+            return true;
+        }
+        // ranka parinktas driveris jau užimtas šiam užsakymui (claimDriver)
+        Driver manual = order.getDriver();
+        boolean claimedManual = manual != null && tryClaim(manual);
+        Driver driver = manual != null && (claimedManual || !busy(manual, order)) ? manual : claim(order);
+        if (driver == null) {
+            return false;
+        }
+        settle(driver, driver != manual || claimedManual);
+
+        // driveris nustatomas prieš statusą, o perėjimas (CAS iš WAITING_FOR_DRIVER ir update) –
+        // per OrderService.transition: IN_DELIVERY niekada nematomas be driverio. Kol ieškojom,
+        // užsakymą galėjo atšaukti ar pakeisti – tada grąžinam ankstesnį driverį ir atlaisvinam
+        boolean assigned;
+        synchronized (order) {
+            order.setDriver(driver);
+            assigned = orderService.findById(orderId) == order
+                    && orderService.transition(order, OrderStatus.WAITING_FOR_DRIVER, OrderStatus.IN_DELIVERY);
+            if (!assigned && driver != manual) {
+                order.setDriver(manual);
+                orderService.update(order);
+            }
+        }
+        if (!assigned) {
+            release(driver.getId());
+        }
+        return true;
+    }
+
+    // ar driveris turi kitą nebaigtą užsakymą (except – neskaičiuojamas)
+    private boolean busy(Driver driver, FoodOrder except) {
+        for (FoodOrder o : orderService.findByDriver(driver)) {
+            if (o != except && o.getStatus() != null && !FINISHED.contains(o.getStatus())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // (ranka parinktas – assign'e) 1) artimiausias restoranui (koordinatės);
+    // 2) laisvas toje pačioje vietoje kaip restoranas; 3) bet kuris laisvas – pagal transporto pirmenybę
+    private Driver claim(FoodOrder order) {
+        if (geoService != null && order.getRestaurant() != null) {
+            for (Driver d : geoService.nearestAvailableDrivers(order.getRestaurant(), NEAREST_CANDIDATES)) {
+                if (tryClaim(d)) {
+                    return d;
+                }
+            }
+        }
+        if (order.getRestaurant() != null) {
+            String location = location(order.getRestaurant().getAddress());
+            for (VehicleType vehicle : vehiclePreference) {
+                Driver d = claimFrom(byLocation.get(new Slot(location, vehicle)));
+                if (d != null) {
+                    return d;
+                }
+            }
+        }
+        for (VehicleType vehicle : vehiclePreference) {
+            Driver d = claimFrom(byVehicle.get(vehicle));
+            if (d != null) {
+                return d;
+            }
+        }
+        return null;
+    }
+
+    private Driver claimFrom(Set<Driver> candidates) {
+        if (candidates == null) {
+            return null;
+        }
+        for (Driver d : candidates) {
+            if (tryClaim(d)) {
+                return d;
+            }
+        }
+        return null;
+    }
+
+    // vienintelis užėmimo taškas: laimi tas, kuriam pavyko išimti iš free.
+    // claimed pažymimas prieš išimant – tarpe lygiagretus reindex driverio atgal nebeįdės
+    private boolean tryClaim(Driver driver) {
+        if (!claimed.add(driver.getId())) {
+            return false;
+        }
+        if (!free.remove(driver.getId(), driver)) {
+            claimed.remove(driver.getId());
+            return false;
+        }
+        Slot slot = slots.remove(driver.getId());
+        if (slot != null) {
+            removeFrom(byLocation.get(slot), driver);
+            removeFrom(byVehicle.get(slot.vehicle()), driver);
+        }
+        return true;
+    }
+
+    // užėmimas paskelbiamas: available = false pirmiau nei nuimamas claimed
+    // (claimedHere – claimed žymė šio kvietėjo; svetimos nenuimam)
+    private void settle(Driver driver, boolean claimedHere) {
+        try {
+            if (driver.isAvailable()) {
+                driver.setAvailable(false);
+                driverService.updateDriver(driver);
+            }
+        } finally {
+            if (claimedHere) {
+                claimed.remove(driver.getId());
+            }
+        }
+    }
+
+    // driveris vėl laisvas, jei neturi kito nebaigto užsakymo
+    private void release(long driverId) {
+        Driver driver = driverService.findById(driverId);
+        // available = true, bet ne laisvų sąraše – pažymėtas ranka, kol dar vežė; dabar grąžinam
+        if (driver == null || (driver.isAvailable() && free.containsKey(driverId)) || busy(driver, null)) {
+            return;
+        }
+        driver.setAvailable(true);
+        driverService.updateDriver(driver); // listeneris grąžina į indeksus ir paprašo RETRY
+    }
+
+    private OrderStatus remember(FoodOrder order) {
+        return order.getStatus() != null
+                ? lastStatus.put(order.getId(), order.getStatus())
+                : lastStatus.remove(order.getId());
+    }
+
+    private static String location(String address) {
+        return address == null ? "" : address.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -2,16 +2,28 @@ package coursework.service;
 
 import coursework.model.Driver;
 import coursework.model.VehicleType;
-import javafx.collections.FXCollections;
+import coursework.repository.InMemoryRepository;
+import coursework.repository.ListDispatcher;
 import javafx.collections.ObservableList;
 
 import java.time.LocalDate;
-import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class DriverService {
 
-    private final ObservableList<Driver> drivers = FXCollections.observableArrayList();
-    private long idCounter = 1;
+    private final InMemoryRepository<Driver> drivers;
+    private final LoginIndex logins;
+
+    public DriverService() {
+        this(ListDispatcher.FX, new AtomicLong(1), new LoginIndex());
+    }
+
+    // vartotojai, restoranai ir driveriai gali dalintis viena id seka ir vienu login'ų indeksu
+    public DriverService(ListDispatcher dispatcher, AtomicLong idSequence, LoginIndex logins) {
+        this.drivers = new InMemoryRepository<>(Driver::getId, dispatcher, idSequence);
+        this.logins = logins;
+        drivers.addListener(logins);
+    }
 
     public Driver createDriver(String login,
                                String password,
@@ -21,12 +33,13 @@ public class DriverService {
                                String address,
                                String licence,
                                LocalDate bDate,
-                               VehicleType vehicleType) {
+                               VehicleType vehicleType,
+                               boolean available) {
 
         Driver d = new Driver();
-        d.setId(idCounter++);
+        d.setId(drivers.nextId());
         d.setLogin(login);
-        d.setPassword(password);
+        d.setPassword(Passwords.hash(password));
         d.setName(name);
         d.setSurname(surname);
         d.setPhoneNumber(phoneNumber);
@@ -34,33 +47,40 @@ public class DriverService {
         d.setLicence(licence);
         d.setBDate(bDate);
         d.setVehicleType(vehicleType);
+        // iš karto galutinė būsena – repository listeneriai (dispatch indeksas) mato ją jau add metu
+        d.setAvailable(available);
 
-        drivers.add(d);
+        // login'as unikalus visiems User tipams – užimtas: IllegalArgumentException
+        logins.claimed(d, () -> {
+            drivers.add(d);
+            return true;
+        });
         return d;
     }
 
     public ObservableList<Driver> getAllDrivers() {
-        return drivers;
+        return drivers.getAll();
     }
 
     public Driver findById(long id) {
-        Optional<Driver> result = drivers.stream()
-                .filter(d -> d.getId() == id)
-                .findFirst();
-        return result.orElse(null);
+        return drivers.findById(id);
     }
 
     public boolean updateDriver(Driver updated) {
-        for (int i = 0; i < drivers.size(); i++) {
-            if (drivers.get(i).getId() == updated.getId()) {
-                drivers.set(i, updated);
-                return true;
-            }
-        }
-        return false;
+        return logins.claimed(updated, () -> drivers.update(updated));
     }
 
     public boolean deleteDriver(long id) {
-        return drivers.removeIf(d -> d.getId() == id);
+        return drivers.delete(id);
+    }
+
+    // persistence sluoksniui (log'as, snapshot'ai)
+    public InMemoryRepository<Driver> getRepository() {
+        return drivers;
+    }
+
+    // bendras visiems User tipams (unikalumo patikrinimas formose, importas)
+    public LoginIndex getLogins() {
+        return logins;
     }
 }
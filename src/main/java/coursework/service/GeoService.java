@@ -0,0 +1,103 @@
+package coursework.service;
+
+import coursework.geo.Gazetteer;
+import coursework.geo.GeoPoint;
+import coursework.geo.SpatialIndex;
+import coursework.model.BasicUser;
+import coursework.model.Driver;
+import coursework.model.Restaurant;
+import coursework.repository.InMemoryRepository;
+import coursework.repository.RepositoryListener;
+
+import java.util.List;
+
+// Vartotojų, restoranų ir driverių koordinatės ir erdviniai indeksai.
+// Koordinatės visada išvedamos iš address per Gazetteer – kiekvieną kartą, kai objektas
+// sukuriamas, atnaujinamas ar atkuriamas iš log'o / snapshot'o, todėl jų atskirai saugoti nereikia.
+// Driverių indekse – tik laisvi (available) driveriai.
+public class GeoService {
+
+    private final Gazetteer gazetteer;
+
+    private final SpatialIndex<BasicUser> buyers = new SpatialIndex<>();
+    private final SpatialIndex<Restaurant> restaurants = new SpatialIndex<>();
+    private final SpatialIndex<Driver> availableDrivers = new SpatialIndex<>();
+
+    public GeoService(Gazetteer gazetteer,
+                      BasicUserService basicUserService,
+                      RestaurantService restaurantService,
+                      DriverService driverService) {
+        this.gazetteer = gazetteer;
+        attach(basicUserService.getRepository(), buyers, false);
+        attach(restaurantService.getRepository(), restaurants, false);
+        attach(driverService.getRepository(), availableDrivers, true);
+    }
+
+    public GeoPoint resolve(String address) {
+        return gazetteer.resolve(address);
+    }
+
+    public static GeoPoint locate(BasicUser user) {
+        if (user == null || user.getLatitude() == null || user.getLongitude() == null) {
+            return null;
+        }
+        return new GeoPoint(user.getLatitude(), user.getLongitude());
+    }
+
+    // k artimiausių laisvų driverių prie restorano (artimiausias pirmas)
+    public List<Driver> nearestAvailableDrivers(Restaurant restaurant, int k) {
+        GeoPoint at = locate(restaurant);
+        return at != null ? availableDrivers.nearest(at, k, Driver::isAvailable) : List.of();
+    }
+
+    // restoranai per radiusKm nuo pirkėjo (artimiausias pirmas)
+    public List<Restaurant> restaurantsWithin(BasicUser buyer, double radiusKm) {
+        GeoPoint at = locate(buyer);
+        return at != null ? restaurants.within(at, radiusKm, r -> true) : List.of();
+    }
+
+    public List<Restaurant> nearestRestaurants(BasicUser buyer, int k) {
+        GeoPoint at = locate(buyer);
+        return at != null ? restaurants.nearest(at, k, r -> true) : List.of();
+    }
+
+    // pirkėjai per radiusKm nuo restorano
+    public List<BasicUser> buyersWithin(Restaurant restaurant, double radiusKm) {
+        GeoPoint at = locate(restaurant);
+        return at != null ? buyers.within(at, radiusKm, u -> true) : List.of();
+    }
+
+    private <T extends BasicUser> void attach(InMemoryRepository<T> repository,
+                                              SpatialIndex<T> index,
+                                              boolean onlyAvailable) {
+        repository.addListener(new RepositoryListener<>() {
+            @Override
+            public void added(T user) {
+                place(user);
+            }
+
+            @Override
+            public void updated(T user) {
+                place(user);
+            }
+
+            @Override
+            public void removed(T user) {
+                index.remove(user.getId());
+            }
+
+            private void place(T user) {
+                GeoPoint p = gazetteer.resolve(user.getAddress());
+                user.setLatitude(p != null ? p.latitude() : null);
+                user.setLongitude(p != null ? p.longitude() : null);
+
+                boolean indexed = p != null && (!onlyAvailable || ((Driver) user).isAvailable());
+                if (indexed) {
+                    index.put(user.getId(), user, p.latitude(), p.longitude());
+                } else {
+                    index.remove(user.getId());
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,136 @@
+package coursework.service;
+
+import coursework.model.User;
+import coursework.repository.RepositoryListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+
+// login -> vartotojas visai User hierarchijai (vartotojai, restoranai, driveriai): User.login
+// unikalus, tad vienas indeksas, bendras trims servisams (kaip ir id seka).
+// Prisijungimas ir unikalumo patikrinimas – viena hash lentelės paieška.
+// Servisai login'ą rezervuoja (claimed) prieš įrašydami į repository – dublikatas atmetamas
+// IllegalArgumentException, o lygiagretūs to paties login'o kūrimai negali abu praeiti.
+// Indeksą toliau prižiūri listener'is: id -> login (loginOf) leidžia atnaujinant rasti seną
+// login'ą, nes controlleriai objektą keičia vietoje.
+public class LoginIndex implements RepositoryListener<User> {
+
+    private final ConcurrentHashMap<String, User> byLogin = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, String> loginOf = new ConcurrentHashMap<>();
+
+    // null – tokio login'o nėra
+    public User find(String login) {
+        return login != null ? byLogin.get(login) : null;
+    }
+
+    // dabartinis vartotojo objektas pagal id (per jo indeksuotą login'ą); null – nėra
+    public User findById(Long id) {
+        String login = id != null ? loginOf.get(id) : null;
+        User user = login != null ? byLogin.get(login) : null;
+        return user != null && id.equals(user.getId()) ? user : null;
+    }
+
+    // ar login'ą gali naudoti vartotojas su id (null – naujas vartotojas)
+    public boolean isAvailable(String login, Long id) {
+        User owner = find(login);
+        return owner == null || (id != null && id.equals(owner.getId()));
+    }
+
+    public int size() {
+        return byLogin.size();
+    }
+
+    @Override
+    public void added(User user) {
+        index(user);
+    }
+
+    @Override
+    public void updated(User user) {
+        Long id = user.getId();
+        if (id == null) {
+            return;
+        }
+        String old = user.getLogin() != null ? loginOf.put(id, user.getLogin()) : loginOf.remove(id);
+        if (old != null && !old.equals(user.getLogin())) {
+            byLogin.computeIfPresent(old, (login, owner) -> sameUser(owner, user) ? null : owner);
+        }
+        index(user);
+    }
+
+    @Override
+    public void removed(User user) {
+        String old = user.getId() != null ? loginOf.remove(user.getId()) : null;
+        if (old != null) {
+            byLogin.computeIfPresent(old, (login, owner) -> sameUser(owner, user) ? null : owner);
+        }
+    }
+
+    // rezervuoja user login'ą ir vykdo rašymą; login užimtas kito – IllegalArgumentException,
+    // rašymas nepavyko (false ar išimtis) – rezervacija atšaukiama
+    boolean claimed(User user, BooleanSupplier write) {
+        boolean fresh = claim(user);
+        boolean ok = false;
+        try {
+            ok = write.getAsBoolean();
+            return ok;
+        } finally {
+            if (fresh && !ok) {
+                byLogin.remove(user.getLogin(), user);
+            }
+        }
+    }
+
+    // tas pats visam batch'ui (importas): dublikatas – atmetamas visas batch'as
+    void claimedAll(List<? extends User> users, Runnable write) {
+        List<User> fresh = new ArrayList<>(users.size());
+        boolean ok = false;
+        try {
+            for (User user : users) {
+                if (claim(user)) {
+                    fresh.add(user);
+                }
+            }
+            write.run();
+            ok = true;
+        } finally {
+            if (!ok) {
+                for (User user : fresh) {
+                    byLogin.remove(user.getLogin(), user);
+                }
+            }
+        }
+    }
+
+    // true – login'as rezervuotas dabar (anksčiau nebuvo)
+    private boolean claim(User user) {
+        String login = user.getLogin();
+        if (login == null) {
+            return false;
+        }
+        User owner = byLogin.putIfAbsent(login, user);
+        if (owner == null) {
+            return true;
+        }
+        if (!sameUser(owner, user)) {
+            throw new IllegalArgumentException("Login is already taken: " + login + ".");
+        }
+        return false;
+    }
+
+    // atkuriant iš log'o / DB senus dublikatus paliekam pirmąjį
+    private void index(User user) {
+        String login = user.getLogin();
+        if (login == null || user.getId() == null) {
+            return;
+        }
+        byLogin.compute(login, (key, owner) -> owner == null || sameUser(owner, user) ? user : owner);
+        loginOf.put(user.getId(), login);
+    }
+
+    private static boolean sameUser(User a, User b) {
+        return a == b || (a.getId() != null && a.getId().equals(b.getId()));
+    }
+}
@@ -0,0 +1,82 @@
+package coursework.service;
+
+import coursework.model.Cuisine;
+import coursework.model.Restaurant;
+import coursework.repository.RepositoryListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+// Restorano meniu: restoranas -> jo patiekalai (pagal id), palaikomas su kiekvienu pakeitimu.
+// Patiekalai keičiami vietoje (gali pakeisti ir restoraną), todėl kaip OrderIndex
+// atsimenam, kurio restorano meniu patiekalas dabar įdėtas.
+// Restaurant.menu – to paties meniu kopija (nekeičiamas sąrašas, keičiamas visas iš karto),
+// tad jį galima skaityti iš bet kurios gijos.
+class MenuIndex implements RepositoryListener<Cuisine> {
+
+    private final Map<Integer, Restaurant> placed = new ConcurrentHashMap<>();
+    private final Map<Long, NavigableMap<Integer, Cuisine>> menus = new ConcurrentHashMap<>();
+    // nekeičiamos meniu kopijos (tos pačios, kaip Restaurant.menu) – skaitymas O(1)
+    private final Map<Long, List<Cuisine>> snapshots = new ConcurrentHashMap<>();
+
+    @Override
+    public void added(Cuisine cuisine) {
+        place(cuisine);
+    }
+
+    @Override
+    public void updated(Cuisine cuisine) {
+        // meniu laiko tą patį objektą – perkelti reikia tik pasikeitus restoranui
+        if (placed.get(cuisine.getId()) != cuisine.getRestaurant()) {
+            unplace(cuisine);
+            place(cuisine);
+        }
+    }
+
+    @Override
+    public void removed(Cuisine cuisine) {
+        unplace(cuisine);
+    }
+
+    List<Cuisine> menu(Restaurant restaurant) {
+        List<Cuisine> menu = restaurant != null ? snapshots.get(restaurant.getId()) : null;
+        return menu != null ? menu : List.of();
+    }
+
+    private void place(Cuisine cuisine) {
+        Restaurant restaurant = cuisine.getRestaurant();
+        if (restaurant == null || restaurant.getId() == null) {
+            return;
+        }
+        placed.put(cuisine.getId(), restaurant);
+        // keli patiekalai to paties restorano gali keistis lygiagrečiai – meniu kopiją perrašom po lock'u
+        synchronized (restaurant) {
+            NavigableMap<Integer, Cuisine> menu = menus.computeIfAbsent(restaurant.getId(), k -> new ConcurrentSkipListMap<>());
+            menu.put(cuisine.getId(), cuisine);
+            publish(restaurant, menu);
+        }
+    }
+
+    private void unplace(Cuisine cuisine) {
+        Restaurant restaurant = placed.remove(cuisine.getId());
+        if (restaurant == null) {
+            return;
+        }
+        synchronized (restaurant) {
+            NavigableMap<Integer, Cuisine> menu = menus.get(restaurant.getId());
+            if (menu != null) {
+                menu.remove(cuisine.getId());
+                publish(restaurant, menu);
+            }
+        }
+    }
+
+    private void publish(Restaurant restaurant, NavigableMap<Integer, Cuisine> menu) {
+        List<Cuisine> snapshot = List.copyOf(menu.values());
+        snapshots.put(restaurant.getId(), snapshot);
+        restaurant.setMenu(snapshot);
+    }
+}
@@ -0,0 +1,315 @@
+package coursework.service;
+
+import coursework.model.FoodOrder;
+import coursework.model.Money;
+import coursework.model.OrderStatus;
+import coursework.model.User;
+import coursework.repository.RepositoryListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+// Užsakymai stulpeliais analitikai: kiekvienas laukas – atskiras primityvus masyvas,
+// eilutė i – tas pats užsakymas visuose masyvuose. Be objektų, boxing'o ir nuorodų,
+// tad agregacija – paprastas ciklas per kelis masyvus (JIT jį gali vektorizuoti).
+//   ids        int   – užsakymo id
+//   createdAt  long  – epoch sekundės (vietinis laikas kaip UTC, kaip OrderRollups); NO_TIME – nėra
+//   priceMinor long  – kaina centais
+//   status     byte  – OrderStatus ordinal; -1 – nėra
+//   restaurant / buyer / driver int – id; -1 – nėra
+// Eilutės tankios: ištrynus paskutinė perkeliama į ištrintos vietą, id -> eilutė – slotOf.
+// Sinchronizuojama su OrderService per listener'į; rašymai trumpi (write lock),
+// agregacija eina su read lock – mato vieną nuoseklią būseną.
+public class OrderColumns implements RepositoryListener<FoodOrder> {
+
+    public static final long NO_TIME = Long.MIN_VALUE;
+    // statusMask: bitas ordinal – tas statusas; užsakymas be statuso tikrinamas 31-u bitu,
+    // tad į jį patenka tik ALL_STATUSES
+    public static final int ALL_STATUSES = -1;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    public record Total(long count, long revenueMinor) {
+
+        public double getRevenue() {
+            return Money.toMajor(revenueMinor);
+        }
+    }
+
+    public enum Key { RESTAURANT, BUYER, DRIVER }
+
+    public record Grouped(long[] counts, long[] revenueMinor) {
+
+        public Total get(long id) {
+            int i = (int) id;
+            return id >= 0 && id < counts.length ? new Total(counts[i], revenueMinor[i]) : new Total(0, 0);
+        }
+    }
+
+    private final StampedLock lock = new StampedLock();
+
+    private int size;
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private long[] createdAt = new long[INITIAL_CAPACITY];
+    private long[] priceMinor = new long[INITIAL_CAPACITY];
+    private byte[] status = new byte[INITIAL_CAPACITY];
+    private int[] restaurant = new int[INITIAL_CAPACITY];
+    private int[] buyer = new int[INITIAL_CAPACITY];
+    private int[] driver = new int[INITIAL_CAPACITY];
+
+    // užsakymo id -> eilutė + 1 (0 – nėra)
+    private int[] slotOf = new int[INITIAL_CAPACITY];
+
+    @Override
+    public void added(FoodOrder order) {
+        long stamp = lock.writeLock();
+        try {
+            put(order);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void updated(FoodOrder order) {
+        long stamp = lock.writeLock();
+        try {
+            put(order);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void removed(FoodOrder order) {
+        long stamp = lock.writeLock();
+        try {
+            int id = order.getId();
+            int row = id >= 0 && id < slotOf.length ? slotOf[id] - 1 : -1;
+            if (row < 0) {
+                return;
+            }
+            int last = --size;
+            if (row != last) {
+                ids[row] = ids[last];
+                createdAt[row] = createdAt[last];
+                priceMinor[row] = priceMinor[last];
+                status[row] = status[last];
+                restaurant[row] = restaurant[last];
+                buyer[row] = buyer[last];
+                driver[row] = driver[last];
+                slotOf[ids[row]] = row + 1;
+            }
+            slotOf[id] = 0;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // užsakymų kiekis ir pajamos: createdAt [from, to), statusai iš statusMask (žr. mask)
+    public Total sum(LocalDateTime from, LocalDateTime to, int statusMask) {
+        long lo = lower(from);
+        long hi = upper(to);
+        long stamp = lock.readLock();
+        try {
+            long[] t = createdAt;
+            long[] p = priceMinor;
+            byte[] s = status;
+            long count = 0;
+            long revenue = 0;
+            for (int i = 0, n = size; i < n; i++) {
+                long time = t[i];
+                int hit = (time >= lo & time < hi & ((statusMask >>> (s[i] & 31)) & 1) != 0) ? 1 : 0;
+                count += hit;
+                revenue += p[i] & -(long) hit;
+            }
+            return new Total(count, revenue);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // tas pats vienam restoranui
+    public Total sum(LocalDateTime from, LocalDateTime to, int statusMask, long restaurantId) {
+        long lo = lower(from);
+        long hi = upper(to);
+        int rid = key(restaurantId);
+        long stamp = lock.readLock();
+        try {
+            long[] t = createdAt;
+            long[] p = priceMinor;
+            byte[] s = status;
+            int[] r = restaurant;
+            long count = 0;
+            long revenue = 0;
+            for (int i = 0, n = size; i < n; i++) {
+                long time = t[i];
+                int hit = (r[i] == rid & time >= lo & time < hi & ((statusMask >>> (s[i] & 31)) & 1) != 0) ? 1 : 0;
+                count += hit;
+                revenue += p[i] & -(long) hit;
+            }
+            return new Total(count, revenue);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // kiekis pagal statusą (indeksas – ordinal)
+    public long[] countByStatus(LocalDateTime from, LocalDateTime to) {
+        long lo = lower(from);
+        long hi = upper(to);
+        long[] counts = new long[OrderStatus.values().length + 1];
+        long stamp = lock.readLock();
+        try {
+            long[] t = createdAt;
+            byte[] s = status;
+            int none = counts.length - 1; // be statuso (-1) – į paskutinį, nukerpamą langelį
+            for (int i = 0, n = size; i < n; i++) {
+                long time = t[i];
+                int k = s[i];
+                counts[k < 0 ? none : k] += (time >= lo & time < hi) ? 1 : 0;
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+        return Arrays.copyOf(counts, OrderStatus.values().length);
+    }
+
+    // kiekis ir pajamos pagal restoraną / pirkėją / driverį: counts[id], revenueMinor[id]
+    // (masyvų ilgis – didžiausias id + 1; užsakymai be to ryšio neįskaičiuojami)
+    public Grouped groupBy(Key key, LocalDateTime from, LocalDateTime to, int statusMask) {
+        long lo = lower(from);
+        long hi = upper(to);
+        long stamp = lock.readLock();
+        try {
+            long[] t = createdAt;
+            long[] p = priceMinor;
+            byte[] s = status;
+            int[] g = switch (key) {
+                case RESTAURANT -> restaurant;
+                case BUYER -> buyer;
+                case DRIVER -> driver;
+            };
+            int n = size;
+            int max = -1;
+            for (int i = 0; i < n; i++) {
+                max = Math.max(max, g[i]);
+            }
+            long[] counts = new long[max + 1];
+            long[] revenue = new long[max + 1];
+            for (int i = 0; i < n; i++) {
+                long time = t[i];
+                if (g[i] >= 0 & time >= lo & time < hi & ((statusMask >>> (s[i] & 31)) & 1) != 0) {
+                    counts[g[i]]++;
+                    revenue[g[i]] += p[i];
+                }
+            }
+            return new Grouped(counts, revenue);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // užsakymų kiekis intervalais po bucketSeconds nuo from (paskutinis gali būti nepilnas)
+    public long[] histogram(LocalDateTime from, LocalDateTime to, long bucketSeconds, int statusMask) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Histogram needs both from and to.");
+        }
+        if (bucketSeconds <= 0) {
+            throw new IllegalArgumentException("Bucket must be positive.");
+        }
+        long lo = lower(from);
+        long hi = upper(to);
+        long buckets = Math.max(0, Math.ceilDiv(hi - lo, bucketSeconds));
+        if (buckets > 100_000) {
+            throw new IllegalArgumentException("Too many buckets: " + buckets);
+        }
+        long[] counts = new long[(int) buckets];
+        long stamp = lock.readLock();
+        try {
+            long[] t = createdAt;
+            byte[] s = status;
+            for (int i = 0, n = size; i < n; i++) {
+                long time = t[i];
+                if (time >= lo & time < hi & ((statusMask >>> (s[i] & 31)) & 1) != 0) {
+                    counts[(int) ((time - lo) / bucketSeconds)]++;
+                }
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+        return counts;
+    }
+
+    public static int mask(OrderStatus... statuses) {
+        int mask = 0;
+        for (OrderStatus s : statuses) {
+            mask |= 1 << s.ordinal();
+        }
+        return mask;
+    }
+
+    // null – be ribos (NO_TIME eilutės į atvirą iš kairės intervalą patenka)
+    private static long lower(LocalDateTime from) {
+        return from != null ? from.toEpochSecond(ZoneOffset.UTC) : NO_TIME;
+    }
+
+    private static long upper(LocalDateTime to) {
+        return to != null ? to.toEpochSecond(ZoneOffset.UTC) : Long.MAX_VALUE;
+    }
+
+    private void put(FoodOrder order) {
+        int id = order.getId();
+        if (id < 0) {
+            return;
+        }
+        if (id >= slotOf.length) {
+            slotOf = Arrays.copyOf(slotOf, Math.max(id + 1, slotOf.length * 2));
+        }
+        int row = slotOf[id] - 1;
+        if (row < 0) {
+            if (size == ids.length) {
+                grow();
+            }
+            row = size++;
+            slotOf[id] = row + 1;
+        }
+        ids[row] = id;
+        createdAt[row] = order.getCreatedAt() != null ? order.getCreatedAt().toEpochSecond(ZoneOffset.UTC) : NO_TIME;
+        priceMinor[row] = Money.toMinor(order.getPrice());
+        status[row] = (byte) (order.getStatus() != null ? order.getStatus().ordinal() : -1);
+        restaurant[row] = key(order.getRestaurant());
+        buyer[row] = key(order.getBuyer());
+        driver[row] = key(order.getDriver());
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        createdAt = Arrays.copyOf(createdAt, capacity);
+        priceMinor = Arrays.copyOf(priceMinor, capacity);
+        status = Arrays.copyOf(status, capacity);
+        restaurant = Arrays.copyOf(restaurant, capacity);
+        buyer = Arrays.copyOf(buyer, capacity);
+        driver = Arrays.copyOf(driver, capacity);
+    }
+
+    private static int key(User user) {
+        return user != null && user.getId() != null ? key(user.getId()) : -1;
+    }
+
+    private static int key(long id) {
+        return Math.toIntExact(id);
+    }
+}
@@ -0,0 +1,112 @@
+package coursework.service;
+
+import coursework.model.FoodOrder;
+import coursework.model.OrderStatus;
+import coursework.repository.RepositoryListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Antriniai FoodOrder indeksai: pagal statusą, restoraną, driverį ir pirkėją.
+// Užsakymai keičiami "vietoje" (statuso CAS / setDriver(...) ir tada update), todėl kiekvienam
+// užsakymui atsimenam raktus, pagal kuriuos jis dabar įdėtas – kitaip nežinotume,
+// iš kurio seno indekso jį išimti.
+class OrderIndex implements RepositoryListener<FoodOrder> {
+
+    private record Keys(FoodOrder order, OrderStatus status, Long restaurantId, Long driverId, Long buyerId) {
+    }
+
+    private final Map<Integer, Keys> indexed = new ConcurrentHashMap<>();
+
+    private final Map<OrderStatus, Set<FoodOrder>> byStatus = new ConcurrentHashMap<>();
+    private final Map<Long, Set<FoodOrder>> byRestaurant = new ConcurrentHashMap<>();
+    private final Map<Long, Set<FoodOrder>> byDriver = new ConcurrentHashMap<>();
+    private final Map<Long, Set<FoodOrder>> byBuyer = new ConcurrentHashMap<>();
+
+    @Override
+    public void added(FoodOrder order) {
+        index(order);
+    }
+
+    @Override
+    public void updated(FoodOrder order) {
+        unindex(order.getId());
+        index(order);
+    }
+
+    @Override
+    public void removed(FoodOrder order) {
+        unindex(order.getId());
+    }
+
+    List<FoodOrder> byStatus(OrderStatus status) {
+        return snapshot(byStatus, status);
+    }
+
+    List<FoodOrder> byRestaurant(long restaurantId) {
+        return snapshot(byRestaurant, restaurantId);
+    }
+
+    List<FoodOrder> byDriver(long driverId) {
+        return snapshot(byDriver, driverId);
+    }
+
+    List<FoodOrder> byBuyer(long buyerId) {
+        return snapshot(byBuyer, buyerId);
+    }
+
+    int countByStatus(OrderStatus status) {
+        Set<FoodOrder> set = byStatus.get(status);
+        return set != null ? set.size() : 0;
+    }
+
+    private void index(FoodOrder order) {
+        Keys keys = new Keys(
+                order,
+                order.getStatus(),
+                order.getRestaurant() != null ? order.getRestaurant().getId() : null,
+                order.getDriver() != null ? order.getDriver().getId() : null,
+                order.getBuyer() != null ? order.getBuyer().getId() : null
+        );
+        indexed.put(order.getId(), keys);
+        put(byStatus, keys.status(), order);
+        put(byRestaurant, keys.restaurantId(), order);
+        put(byDriver, keys.driverId(), order);
+        put(byBuyer, keys.buyerId(), order);
+    }
+
+    private void unindex(int orderId) {
+        Keys keys = indexed.remove(orderId);
+        if (keys == null) {
+            return;
+        }
+        remove(byStatus, keys.status(), keys.order());
+        remove(byRestaurant, keys.restaurantId(), keys.order());
+        remove(byDriver, keys.driverId(), keys.order());
+        remove(byBuyer, keys.buyerId(), keys.order());
+    }
+
+    private static <K> void put(Map<K, Set<FoodOrder>> index, K key, FoodOrder order) {
+        if (key == null) {
+            return;
+        }
+        index.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(order);
+    }
+
+    private static <K> void remove(Map<K, Set<FoodOrder>> index, K key, FoodOrder order) {
+        if (key == null) {
+            return;
+        }
+        Set<FoodOrder> set = index.get(key);
+        if (set != null) {
+            set.remove(order);
+        }
+    }
+
+    private static <K> List<FoodOrder> snapshot(Map<K, Set<FoodOrder>> index, K key) {
+        Set<FoodOrder> set = index.get(key);
+        return set != null ? List.copyOf(set) : List.of();
+    }
+}
@@ -0,0 +1,313 @@
+package coursework.service;
+
+import coursework.model.FoodOrder;
+import coursework.model.Money;
+import coursework.model.OrderStatus;
+import coursework.model.Restaurant;
+import coursework.repository.RepositoryListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Užsakymų kiekis ir pajamos pagal createdAt laiko intervalus (minutė, valanda, diena):
+// visiems kartu, pagal statusą ir pagal restoraną.
+// Kiekvienai eilutei ir skiriamajai gebai – žiedinis buferis su fiksuotu intervalų skaičiumi,
+// tad atmintis nepriklauso nuo užsakymų kiekio, o užklausa laiko langui kainuoja O(intervalų).
+// Intervalas, iškritęs iš buferio (senesnis nei jo langas), nebeskaičiuojamas.
+// Restoranų eilučių daug, tad jų langai trumpesni (valanda / savaitė / ketvirtis, ~8 KB vietoj
+// ~61 KB), žiedo masyvai kuriami tik pirmą kartą į jį rašant, o ištrinto restorano eilutė
+// išmetama (restaurantListener, registruojamas Services).
+// Kaip OrderStatistics – atsimenam, ką kiekvienam užsakymui esam užskaitę (update ateina
+// jau su pakeistu objektu), todėl statuso pakeitimas perkelia užsakymą tarp statusų eilučių.
+// createdAt – vietinis laikas, tad dienos intervalai prasideda vidurnaktį.
+public class OrderRollups implements RepositoryListener<FoodOrder> {
+
+    public enum Resolution {
+        MINUTE(60, 24 * 60, 60),            // para; restoranui – valanda
+        HOUR(60 * 60, 31 * 24, 7 * 24),     // mėnuo; restoranui – savaitė
+        DAY(24 * 60 * 60, 366, 92);         // metai; restoranui – ketvirtis
+
+        private final long seconds;
+        private final int slots;
+        private final int restaurantSlots;
+
+        Resolution(long seconds, int slots, int restaurantSlots) {
+            this.seconds = seconds;
+            this.slots = slots;
+            this.restaurantSlots = restaurantSlots;
+        }
+
+        public long getSeconds() {
+            return seconds;
+        }
+
+        public int getSlots() {
+            return slots;
+        }
+
+        public int getRestaurantSlots() {
+            return restaurantSlots;
+        }
+    }
+
+    public record Bucket(LocalDateTime start, long count, long revenueMinor) {
+    }
+
+    public record Total(long count, long revenueMinor) {
+
+        public double getRevenue() {
+            return Money.toMajor(revenueMinor);
+        }
+    }
+
+    private record Counted(long epochSecond, OrderStatus status, Long restaurantId, long priceMinor) {
+
+        Counted withoutRestaurant() {
+            return new Counted(epochSecond, status, null, priceMinor);
+        }
+    }
+
+    private final Map<Integer, Counted> counted = new ConcurrentHashMap<>();
+
+    private final Series total = Series.full();
+    private final Map<OrderStatus, Series> byStatus = new EnumMap<>(OrderStatus.class);
+    private final Map<Long, Series> byRestaurant = new ConcurrentHashMap<>();
+    // ištrinti restoranai: juos vis dar rodantys užsakymai eilutės iš naujo nesukuria
+    private final Set<Long> removedRestaurants = ConcurrentHashMap.newKeySet();
+
+    public OrderRollups() {
+        for (OrderStatus status : OrderStatus.values()) {
+            byStatus.put(status, Series.full());
+        }
+    }
+
+    @Override
+    public void added(FoodOrder order) {
+        count(order);
+    }
+
+    @Override
+    public void updated(FoodOrder order) {
+        uncount(order.getId());
+        count(order);
+    }
+
+    @Override
+    public void removed(FoodOrder order) {
+        uncount(order.getId());
+    }
+
+    public Series getTotal() {
+        return total;
+    }
+
+    public Series getByStatus(OrderStatus status) {
+        return byStatus.get(status);
+    }
+
+    // restoranų repository'ui: ištrintas restoranas pamirštamas, atkurtas – vėl skaičiuojamas
+    // (nuo tada, kai jo užsakymai vėl pakeičiami)
+    public RepositoryListener<Restaurant> restaurantListener() {
+        return new RepositoryListener<>() {
+            @Override
+            public void added(Restaurant restaurant) {
+                if (restaurant.getId() != null) {
+                    removedRestaurants.remove(restaurant.getId());
+                }
+            }
+
+            @Override
+            public void removed(Restaurant restaurant) {
+                if (restaurant.getId() != null) {
+                    forgetRestaurant(restaurant.getId());
+                }
+            }
+        };
+    }
+
+    // restoranas be užsakymų – tuščia eilutė (nekuriama ir neįsimenama)
+    public Series getByRestaurant(long restaurantId) {
+        Series s = byRestaurant.get(restaurantId);
+        return s != null ? s : Series.EMPTY;
+    }
+
+    private void forgetRestaurant(long restaurantId) {
+        removedRestaurants.add(restaurantId);
+        byRestaurant.remove(restaurantId);
+        // kad vėliau atimant šių užsakymų neliktų neigiamų sumų atkurto restorano eilutėje
+        counted.replaceAll((id, c) -> Long.valueOf(restaurantId).equals(c.restaurantId()) ? c.withoutRestaurant() : c);
+    }
+
+    private void count(FoodOrder order) {
+        if (order.getCreatedAt() == null) {
+            return;
+        }
+        Long restaurantId = order.getRestaurant() != null ? order.getRestaurant().getId() : null;
+        Counted c = new Counted(
+                order.getCreatedAt().toEpochSecond(ZoneOffset.UTC),
+                order.getStatus(),
+                restaurantId != null && !removedRestaurants.contains(restaurantId) ? restaurantId : null,
+                Money.toMinor(order.getPrice())
+        );
+        counted.put(order.getId(), c);
+        apply(c, 1);
+    }
+
+    private void uncount(int orderId) {
+        Counted c = counted.remove(orderId);
+        if (c != null) {
+            apply(c, -1);
+        }
+    }
+
+    private void apply(Counted c, int sign) {
+        total.add(c.epochSecond(), sign, c.priceMinor());
+        if (c.status() != null) {
+            byStatus.get(c.status()).add(c.epochSecond(), sign, c.priceMinor());
+        }
+        if (c.restaurantId() == null) {
+            return;
+        }
+        // atimant eilutės nekuriam – jei jos nėra, restoranas ką tik ištrintas
+        Series series = sign > 0
+                ? byRestaurant.computeIfAbsent(c.restaurantId(), k -> Series.restaurant())
+                : byRestaurant.get(c.restaurantId());
+        if (series != null) {
+            series.add(c.epochSecond(), sign, c.priceMinor());
+        }
+    }
+
+    // viena eilutė (visi / statusas / restoranas) – po žiedą kiekvienai skiriamajai gebai
+    public static final class Series {
+
+        private static final Series EMPTY = restaurant();
+
+        private final Ring[] rings = new Ring[Resolution.values().length];
+
+        private Series(boolean full) {
+            for (Resolution r : Resolution.values()) {
+                rings[r.ordinal()] = new Ring(r, full ? r.getSlots() : r.getRestaurantSlots());
+            }
+        }
+
+        private static Series full() {
+            return new Series(true);
+        }
+
+        private static Series restaurant() {
+            return new Series(false);
+        }
+
+        // suma per intervalus, kertančius [from, to) – nepilni kraštiniai intervalai įskaitomi visi
+        public Total sum(Resolution resolution, LocalDateTime from, LocalDateTime to) {
+            return rings[resolution.ordinal()].sum(seconds(from), seconds(to));
+        }
+
+        // kiekvienas intervalas atskirai (grafikams), ir tušti
+        public List<Bucket> buckets(Resolution resolution, LocalDateTime from, LocalDateTime to) {
+            return rings[resolution.ordinal()].buckets(seconds(from), seconds(to));
+        }
+
+        private void add(long epochSecond, int sign, long priceMinor) {
+            for (Ring ring : rings) {
+                ring.add(epochSecond, sign, priceMinor);
+            }
+        }
+
+        private static long seconds(LocalDateTime time) {
+            return time.toEpochSecond(ZoneOffset.UTC);
+        }
+    }
+
+    // slot = intervalo nr % slots; stamps[slot] – kurio intervalo duomenys jame dabar guli.
+    // Naujesnis intervalas slot'ą išvalo ir užima, senesnis (jau perrašytas) – praleidžiamas.
+    // Masyvai kuriami pirmu add (iki tol žiedas tuščias).
+    private static final class Ring {
+
+        private static final long UNUSED = Long.MIN_VALUE;
+
+        private final Resolution resolution;
+        private final int slots;
+        private long[] stamps;
+        private long[] counts;
+        private long[] revenue;
+
+        Ring(Resolution resolution, int slots) {
+            this.resolution = resolution;
+            this.slots = slots;
+        }
+
+        synchronized void add(long epochSecond, int sign, long priceMinor) {
+            if (stamps == null) {
+                stamps = new long[slots];
+                counts = new long[slots];
+                revenue = new long[slots];
+                Arrays.fill(stamps, UNUSED);
+            }
+            long bucket = Math.floorDiv(epochSecond, resolution.getSeconds());
+            int slot = slot(bucket);
+            if (stamps[slot] != bucket) {
+                if (stamps[slot] != UNUSED && stamps[slot] > bucket) {
+                    return; // per senas – šio žiedo lange jau kiti intervalai
+                }
+                stamps[slot] = bucket;
+                counts[slot] = 0;
+                revenue[slot] = 0;
+            }
+            counts[slot] += sign;
+            revenue[slot] += sign * priceMinor;
+        }
+
+        synchronized Total sum(long fromSecond, long toSecond) {
+            long count = 0;
+            long minor = 0;
+            long first = first(fromSecond, toSecond);
+            long last = Math.floorDiv(toSecond - 1, resolution.getSeconds());
+            for (long bucket = first; bucket <= last; bucket++) {
+                int slot = slot(bucket);
+                if (held(slot, bucket)) {
+                    count += counts[slot];
+                    minor += revenue[slot];
+                }
+            }
+            return new Total(count, minor);
+        }
+
+        synchronized List<Bucket> buckets(long fromSecond, long toSecond) {
+            long first = first(fromSecond, toSecond);
+            long last = Math.floorDiv(toSecond - 1, resolution.getSeconds());
+            List<Bucket> result = new ArrayList<>((int) Math.max(0, last - first + 1));
+            for (long bucket = first; bucket <= last; bucket++) {
+                int slot = slot(bucket);
+                boolean held = held(slot, bucket);
+                result.add(new Bucket(
+                        LocalDateTime.ofEpochSecond(bucket * resolution.getSeconds(), 0, ZoneOffset.UTC),
+                        held ? counts[slot] : 0,
+                        held ? revenue[slot] : 0));
+            }
+            return result;
+        }
+
+        // daugiau nei slots intervalų žiede vis tiek nėra – ilgesnį langą nukerpam iš kairės
+        private long first(long fromSecond, long toSecond) {
+            long first = Math.floorDiv(fromSecond, resolution.getSeconds());
+            long last = Math.floorDiv(toSecond - 1, resolution.getSeconds());
+            return Math.max(first, last - slots + 1);
+        }
+
+        private boolean held(int slot, long bucket) {
+            return stamps != null && stamps[slot] == bucket;
+        }
+
+        private int slot(long bucket) {
+            return (int) Math.floorMod(bucket, (long) slots);
+        }
+    }
+}
@@ -1,34 +1,140 @@
 package coursework.service;
 
+import coursework.model.BasicUser;
+import coursework.model.Driver;
 import coursework.model.FoodOrder;
-import javafx.collections.FXCollections;
+import coursework.model.OrderStatus;
+import coursework.model.Restaurant;
+import coursework.repository.InMemoryRepository;
+import coursework.repository.ListDispatcher;
 import javafx.collections.ObservableList;
 
+import java.util.List;
+
 public class OrderService {
 
-    private final ObservableList<FoodOrder> orders = FXCollections.observableArrayList();
-    private int idCounter = 1;
+    private final InMemoryRepository<FoodOrder> orders;
+    private final OrderIndex index = new OrderIndex();
+    private final OrderStatistics statistics = new OrderStatistics();
+    private final OrderRollups rollups = new OrderRollups();
+    private final OrderColumns columns = new OrderColumns();
+
+    public OrderService() {
+        this(ListDispatcher.FX);
+    }
+
+    public OrderService(ListDispatcher dispatcher) {
+        this.orders = new InMemoryRepository<>(FoodOrder::getId, dispatcher);
+        orders.addListener(index);
+        orders.addListener(statistics);
+        orders.addListener(rollups);
+        orders.addListener(columns);
+    }
 
+    // be statuso – PENDING; kitas pradinis statusas (ar jau nustatytas) atmetamas
     public void add(FoodOrder order) {
-        order.setId(idCounter++);
+        if (order.getStatus() == null) {
+            order.initStatus(OrderStatus.PENDING);
+        } else if (!order.getStatus().isInitial()) {
+            throw new IllegalArgumentException("New orders start as " + OrderStatus.PENDING + ".");
+        }
+        order.setId(Math.toIntExact(orders.nextId()));
         orders.add(order);
     }
 
     public ObservableList<FoodOrder> getAllOrders() {
-        return orders;
+        return orders.getAll();
     }
 
-    public boolean update(FoodOrder updated) {
-        for (int i = 0; i < orders.size(); i++) {
-            if (orders.get(i).getId() == updated.getId()) {
-                orders.set(i, updated);
+    public FoodOrder findById(int id) {
+        return orders.findById(id);
+    }
+
+    // užklausos per antrinius indeksus – grąžina tik atitinkančius užsakymus
+    public List<FoodOrder> findByStatus(OrderStatus status) {
+        return index.byStatus(status);
+    }
+
+    public List<FoodOrder> findByRestaurant(Restaurant restaurant) {
+        return index.byRestaurant(restaurant.getId());
+    }
+
+    public List<FoodOrder> findByDriver(Driver driver) {
+        return index.byDriver(driver.getId());
+    }
+
+    public List<FoodOrder> findByBuyer(BasicUser buyer) {
+        return index.byBuyer(buyer.getId());
+    }
+
+    public int countByStatus(OrderStatus status) {
+        return index.countByStatus(status);
+    }
+
+    public OrderStatistics getStatistics() {
+        return statistics;
+    }
+
+    // kiekiai ir pajamos pagal laiką (minutė / valanda / diena)
+    public OrderRollups getRollups() {
+        return rollups;
+    }
+
+    // užsakymai primityviais stulpeliais – analitikos užklausoms per visus užsakymus
+    public OrderColumns getColumns() {
+        return columns;
+    }
+
+    // Statuso keitimas pagal OrderStatus perėjimų lentelę: CAS ant užsakymo statuso,
+    // tada update (indeksai, statistika, log'as). Lygiagretūs virtuvės / driverio / pirkėjo
+    // veiksmai nesiblokuoja – pralaimėjęs CAS bando iš naujo su nauju statusu.
+    // false – perėjimas iš dabartinio statuso neleidžiamas.
+    public boolean changeStatus(FoodOrder order, OrderStatus next) {
+        OrderStatus previous = order.getStatus();
+        if (!moveStatus(order, next)) {
+            return false;
+        }
+        if (previous != next) {
+            orders.update(order);
+        }
+        return true;
+    }
+
+    // tas pats be update – kai kartu keičiami ir kiti laukai, update kviečia pats kvietėjas
+    public boolean moveStatus(FoodOrder order, OrderStatus next) {
+        while (true) {
+            OrderStatus current = order.getStatus();
+            if (current == next) {
+                return true;
+            }
+            if (current == null || next == null || !current.canBecome(next)) {
+                return false;
+            }
+            if (order.compareAndSetStatus(current, next)) {
                 return true;
             }
         }
-        return false;
+    }
+
+    // tik jei užsakymas vis dar expected statuse (pvz. DispatchService: WAITING_FOR_DRIVER -> IN_DELIVERY)
+    public boolean transition(FoodOrder order, OrderStatus expected, OrderStatus next) {
+        if (!expected.canBecome(next) || !order.compareAndSetStatus(expected, next)) {
+            return false;
+        }
+        orders.update(order);
+        return true;
+    }
+
+    public boolean update(FoodOrder updated) {
+        return orders.update(updated);
     }
 
     public boolean delete(int id) {
-        return orders.removeIf(o -> o.getId() == id);
+        return orders.delete(id);
+    }
+
+    // persistence sluoksniui (log'as, snapshot'ai)
+    public InMemoryRepository<FoodOrder> getRepository() {
+        return orders;
     }
 }
@@ -0,0 +1,124 @@
+package coursework.service;
+
+import coursework.model.FoodOrder;
+import coursework.model.Money;
+import coursework.model.OrderStatus;
+import coursework.repository.RepositoryListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Gyvi užsakymų skaitliukai: kiekis ir pajamos pagal statusą, restoraną ir driverį.
+// Atnaujinami per OrderService pakeitimus, skaitymas – O(1).
+// Kaip ir OrderIndex, atsimenam ką kiekvienam užsakymui esam "užskaitę",
+// nes update ateina jau su pakeistu objektu.
+// Pajamos sumuojamos centais (long) – tikslios, kad ir kiek kartų užsakymai pridedami / atimami.
+public class OrderStatistics implements RepositoryListener<FoodOrder> {
+
+    private record Counted(OrderStatus status, Long restaurantId, Long driverId, long priceMinor) {
+    }
+
+    public static final class Counter {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder revenueMinor = new LongAdder();
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getRevenueMinor() {
+            return revenueMinor.sum();
+        }
+
+        public double getRevenue() {
+            return Money.toMajor(getRevenueMinor());
+        }
+
+        private void add(int sign, long priceMinor) {
+            count.add(sign);
+            revenueMinor.add(sign * priceMinor);
+        }
+    }
+
+    private final Map<Integer, Counted> counted = new ConcurrentHashMap<>();
+
+    private final Counter total = new Counter();
+    private final Map<OrderStatus, Counter> byStatus = new ConcurrentHashMap<>();
+    private final Map<Long, Counter> byRestaurant = new ConcurrentHashMap<>();
+    private final Map<Long, Counter> byDriver = new ConcurrentHashMap<>();
+
+    // didėja po kiekvieno pakeitimo – UI gali pagal jį spręsti, ar reikia perpiešti
+    private final AtomicLong version = new AtomicLong();
+
+    @Override
+    public void added(FoodOrder order) {
+        count(order);
+        version.incrementAndGet();
+    }
+
+    @Override
+    public void updated(FoodOrder order) {
+        uncount(order.getId());
+        count(order);
+        version.incrementAndGet();
+    }
+
+    @Override
+    public void removed(FoodOrder order) {
+        uncount(order.getId());
+        version.incrementAndGet();
+    }
+
+    public Counter getTotal() {
+        return total;
+    }
+
+    public Counter getByStatus(OrderStatus status) {
+        return byStatus.computeIfAbsent(status, k -> new Counter());
+    }
+
+    public Counter getByRestaurant(long restaurantId) {
+        return byRestaurant.computeIfAbsent(restaurantId, k -> new Counter());
+    }
+
+    public Counter getByDriver(long driverId) {
+        return byDriver.computeIfAbsent(driverId, k -> new Counter());
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    private void count(FoodOrder order) {
+        Counted c = new Counted(
+                order.getStatus(),
+                order.getRestaurant() != null ? order.getRestaurant().getId() : null,
+                order.getDriver() != null ? order.getDriver().getId() : null,
+                Money.toMinor(order.getPrice())
+        );
+        counted.put(order.getId(), c);
+        apply(c, 1);
+    }
+
+    private void uncount(int orderId) {
+        Counted c = counted.remove(orderId);
+        if (c != null) {
+            apply(c, -1);
+        }
+    }
+
+    private void apply(Counted c, int sign) {
+        total.add(sign, c.priceMinor());
+        if (c.status() != null) {
+            getByStatus(c.status()).add(sign, c.priceMinor());
+        }
+        if (c.restaurantId() != null) {
+            getByRestaurant(c.restaurantId()).add(sign, c.priceMinor());
+        }
+        if (c.driverId() != null) {
+            getByDriver(c.driverId()).add(sign, c.priceMinor());
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package coursework.service;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+// Slaptažodžių hash'ai: PBKDF2-HMAC-SHA256 su atsitiktine 16 baitų druska.
+// Saugoma viena eilute "pbkdf2$<iteracijos>$<druska>$<hash>" (Base64) tame pačiame User.password
+// lauke – log'o, snapshot'ų ir JPA schema nesikeičia. Kaina (-Dauth.iterations=...) įrašyta
+// pačiame hash'e: pakeitus seni hash'ai vis tiek tikrinami, o prisijungus perskaičiuojami.
+// Eilutė be prefikso – senas atviras slaptažodis (iš ankstesnių duomenų), irgi perskaičiuojamas.
+public final class Passwords {
+
+    public static final int ITERATIONS = Integer.getInteger("auth.iterations", 210_000);
+
+    private static final String PREFIX = "pbkdf2$";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private Passwords() {
+    }
+
+    public static String hash(String password) {
+        return hash(password, ITERATIONS);
+    }
+
+    public static String hash(String password, int iterations) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("Iterations must be positive.");
+        }
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        Base64.Encoder base64 = Base64.getEncoder().withoutPadding();
+        return PREFIX + iterations + '$' + base64.encodeToString(salt) + '$'
+                + base64.encodeToString(derive(password, salt, iterations));
+    }
+
+    // palyginimas pastovaus laiko; sugadintas hash'as – false
+    public static boolean verify(String password, String stored) {
+        if (password == null || stored == null) {
+            return false;
+        }
+        if (!isHash(stored)) {
+            return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8), stored.getBytes(StandardCharsets.UTF_8));
+        }
+        String[] parts = stored.split("\\$");
+        if (parts.length != 4) {
+            return false;
+        }
+        try {
+            int iterations = Integer.parseInt(parts[1]);
+            byte[] salt = Base64.getDecoder().decode(parts[2]);
+            byte[] expected = Base64.getDecoder().decode(parts[3]);
+            return iterations > 0 && MessageDigest.isEqual(derive(password, salt, iterations), expected);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    public static boolean isHash(String stored) {
+        return stored != null && stored.startsWith(PREFIX);
+    }
+
+    // atviras slaptažodis arba hash'as su kita kaina nei dabartinė
+    public static boolean needsRehash(String stored) {
+        if (!isHash(stored)) {
+            return true;
+        }
+        int end = stored.indexOf('$', PREFIX.length());
+        return end < 0 || !stored.substring(PREFIX.length(), end).equals(String.valueOf(ITERATIONS));
+    }
+
+    private static byte[] derive(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available.", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package coursework.service;
+
+import coursework.model.Cuisine;
+import coursework.model.Money;
+import coursework.repository.RepositoryListener;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Patiekalų kainos centais, iš anksto paskaičiuotos kiekvienam meniu patiekalui:
+// cuisine id -> kaina. Id tankūs (nextId), todėl tai tiesiog masyvas – be Map, be boxing'o.
+// Kaina įrašoma, kai patiekalas pridedamas / atnaujinamas (ir atkuriant), tad skaičiuojant
+// užsakymo sumą nieko nekonvertuojam ir nieko nekuriam.
+// Rašymai serializuojami (masyvas auga kopijuojant), skaitymas be lock'ų.
+class PriceTable implements RepositoryListener<Cuisine> {
+
+    private static final long MISSING = Long.MIN_VALUE;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private volatile AtomicLongArray prices = empty(INITIAL_CAPACITY);
+
+    @Override
+    public synchronized void added(Cuisine cuisine) {
+        put(cuisine);
+    }
+
+    @Override
+    public synchronized void updated(Cuisine cuisine) {
+        put(cuisine);
+    }
+
+    @Override
+    public synchronized void removed(Cuisine cuisine) {
+        AtomicLongArray p = prices;
+        if (cuisine.getId() >= 0 && cuisine.getId() < p.length()) {
+            p.set(cuisine.getId(), MISSING);
+        }
+    }
+
+    // patiekalas dar nepridėtas į servisą (ar jau ištrintas) – kaina iš paties objekto
+    long priceMinor(Cuisine cuisine) {
+        int id = cuisine.getId();
+        AtomicLongArray p = prices;
+        long price = id >= 0 && id < p.length() ? p.get(id) : MISSING;
+        return price != MISSING ? price : Money.toMinor(cuisine.getPrice());
+    }
+
+    private void put(Cuisine cuisine) {
+        int id = cuisine.getId();
+        if (id < 0) {
+            return;
+        }
+        AtomicLongArray p = prices;
+        if (id >= p.length()) {
+            AtomicLongArray grown = empty(Math.max(id + 1, p.length() * 2));
+            for (int i = 0; i < p.length(); i++) {
+                grown.set(i, p.get(i));
+            }
+            p = grown;
+        }
+        p.set(id, Money.toMinor(cuisine.getPrice()));
+        prices = p;
+    }
+
+    private static AtomicLongArray empty(int capacity) {
+        AtomicLongArray p = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            p.set(i, MISSING);
+        }
+        return p;
+    }
+}
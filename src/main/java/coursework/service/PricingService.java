@@ -0,0 +1,124 @@
+package coursework.service;
+
+import coursework.model.Cuisine;
+import coursework.model.FoodOrder;
+import coursework.model.Money;
+
+import java.util.List;
+
+// Užsakymo sumos skaičiavimas centais (long):
+//   tarpinė suma = patiekalų kainų suma (tas pats patiekalas sąraše kelis kartus – kiekis);
+//   - nuolaida (procentais ir / arba fiksuota, ne daugiau nei tarpinė suma);
+//   + mokestis nuo sumos po nuolaidos;
+//   + pristatymo mokestis.
+// Kainos imamos iš CuisineService kainų lentelės; total(...) nieko nekuria – tinka karštam keliui.
+// Procentai – basis points (1 bp = 0.01 %, 2100 = 21 %), apvalinama iki cento.
+public class PricingService {
+
+    public record Rules(int taxBasisPoints, long deliveryFeeMinor, int discountBasisPoints, long discountMinor) {
+
+        // be mokesčių ir nuolaidų: suma == patiekalų kainų suma
+        public static final Rules NONE = new Rules(0, 0, 0, 0);
+
+        public Rules {
+            if (taxBasisPoints < 0 || deliveryFeeMinor < 0 || discountMinor < 0
+                    || discountBasisPoints < 0 || discountBasisPoints > 10_000) {
+                throw new IllegalArgumentException("Invalid pricing rules.");
+            }
+        }
+
+        // -Dpricing.tax=2100 -Dpricing.deliveryFee=2.99 -Dpricing.discount=500 -Dpricing.discountAmount=1.50
+        public static Rules fromSystemProperties() {
+            return new Rules(
+                    Integer.getInteger("pricing.tax", 0),
+                    amount(System.getProperty("pricing.deliveryFee")),
+                    Integer.getInteger("pricing.discount", 0),
+                    amount(System.getProperty("pricing.discountAmount")));
+        }
+
+        private static long amount(String text) {
+            return text != null ? Money.parse(text) : 0;
+        }
+    }
+
+    // sumos išskaidymas (UI, API)
+    public record Quote(long subtotalMinor, long discountMinor, long taxMinor, long deliveryFeeMinor, long totalMinor) {
+    }
+
+    private final CuisineService cuisineService;
+    private final Rules rules;
+
+    public PricingService(CuisineService cuisineService) {
+        this(cuisineService, Rules.NONE);
+    }
+
+    public PricingService(CuisineService cuisineService, Rules rules) {
+        this.cuisineService = cuisineService;
+        this.rules = rules;
+    }
+
+    public Rules getRules() {
+        return rules;
+    }
+
+    public long lineMinor(Cuisine dish, int quantity) {
+        if (quantity < 0) {
+            throw new IllegalArgumentException("Quantity must not be negative.");
+        }
+        return Math.multiplyExact(cuisineService.getPriceMinor(dish), (long) quantity);
+    }
+
+    public long subtotalMinor(List<Cuisine> dishes) {
+        long sum = 0;
+        for (int i = 0, n = dishes.size(); i < n; i++) {
+            sum = Math.addExact(sum, cuisineService.getPriceMinor(dishes.get(i)));
+        }
+        return sum;
+    }
+
+    // eilutės: dishes[i] x quantities[i]
+    public long subtotalMinor(Cuisine[] dishes, int[] quantities) {
+        if (dishes.length != quantities.length) {
+            throw new IllegalArgumentException("Each dish needs a quantity.");
+        }
+        long sum = 0;
+        for (int i = 0; i < dishes.length; i++) {
+            sum = Math.addExact(sum, lineMinor(dishes[i], quantities[i]));
+        }
+        return sum;
+    }
+
+    public long totalMinor(List<Cuisine> dishes) {
+        return totalMinor(subtotalMinor(dishes));
+    }
+
+    public long totalMinor(Cuisine[] dishes, int[] quantities) {
+        return totalMinor(subtotalMinor(dishes, quantities));
+    }
+
+    public long totalMinor(long subtotalMinor) {
+        long discounted = subtotalMinor - discountMinor(subtotalMinor);
+        return Math.addExact(Math.addExact(discounted, Money.percent(discounted, rules.taxBasisPoints())),
+                rules.deliveryFeeMinor());
+    }
+
+    public Quote quote(List<Cuisine> dishes) {
+        long subtotal = subtotalMinor(dishes);
+        long discount = discountMinor(subtotal);
+        long tax = Money.percent(subtotal - discount, rules.taxBasisPoints());
+        return new Quote(subtotal, discount, tax, rules.deliveryFeeMinor(), totalMinor(subtotal));
+    }
+
+    // užsakymo patiekalai ir kaina kartu – kaina visada atitinka patiekalus
+    public long price(FoodOrder order, List<Cuisine> dishes) {
+        long total = totalMinor(dishes);
+        order.setCuisineList(dishes);
+        order.setPrice(Money.toMajor(total));
+        return total;
+    }
+
+    private long discountMinor(long subtotalMinor) {
+        long discount = Math.addExact(Money.percent(subtotalMinor, rules.discountBasisPoints()), rules.discountMinor());
+        return Math.min(discount, subtotalMinor);
+    }
+}
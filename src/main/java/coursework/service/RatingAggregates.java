@@ -0,0 +1,112 @@
+package coursework.service;
+
+import coursework.model.Review;
+import coursework.repository.RepositoryListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Review.rating agregatai kiekvienam restoranui ir driveriui: suma, kiekis ir histograma.
+// Atnaujinami per ReviewService pakeitimus, vidurkis ir pasiskirstymas – O(1).
+public class RatingAggregates implements RepositoryListener<Review> {
+
+    public static final int MIN_RATING = 1;
+    public static final int MAX_RATING = 5;
+
+    private record Counted(Long restaurantId, Long driverId, int rating) {
+    }
+
+    public static final class Summary {
+        private final LongAdder sum = new LongAdder();
+        private final LongAdder count = new LongAdder();
+        private final AtomicLongArray histogram = new AtomicLongArray(MAX_RATING - MIN_RATING + 1);
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public double getAverage() {
+            long n = count.sum();
+            return n == 0 ? 0.0 : (double) sum.sum() / n;
+        }
+
+        // [0] – kiek 1 žvaigždutės, ..., [4] – kiek 5 žvaigždučių
+        public long[] getDistribution() {
+            long[] result = new long[histogram.length()];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = histogram.get(i);
+            }
+            return result;
+        }
+
+        private void add(int rating, int sign) {
+            sum.add((long) sign * rating);
+            count.add(sign);
+            histogram.addAndGet(bucket(rating), sign);
+        }
+
+        // reitingas visada MIN_RATING..MAX_RATING – kitokių ReviewService nepriima
+        private static int bucket(int rating) {
+            return rating - MIN_RATING;
+        }
+    }
+
+    private static final Summary EMPTY = new Summary();
+
+    private final Map<Integer, Counted> counted = new ConcurrentHashMap<>();
+    private final Map<Long, Summary> byRestaurant = new ConcurrentHashMap<>();
+    private final Map<Long, Summary> byDriver = new ConcurrentHashMap<>();
+
+    @Override
+    public void added(Review review) {
+        count(review);
+    }
+
+    @Override
+    public void updated(Review review) {
+        // gali būti pakeistas ir reitingas, ir tikslas (restoranas <-> driveris)
+        uncount(review.getId());
+        count(review);
+    }
+
+    @Override
+    public void removed(Review review) {
+        uncount(review.getId());
+    }
+
+    public Summary forRestaurant(long restaurantId) {
+        return byRestaurant.getOrDefault(restaurantId, EMPTY);
+    }
+
+    public Summary forDriver(long driverId) {
+        return byDriver.getOrDefault(driverId, EMPTY);
+    }
+
+    private void count(Review review) {
+        Counted c = new Counted(
+                review.getRestaurant() != null ? review.getRestaurant().getId() : null,
+                review.getDriver() != null ? review.getDriver().getId() : null,
+                review.getRating()
+        );
+        counted.put(review.getId(), c);
+        apply(c, 1);
+    }
+
+    private void uncount(int reviewId) {
+        Counted c = counted.remove(reviewId);
+        if (c != null) {
+            apply(c, -1);
+        }
+    }
+
+    private void apply(Counted c, int sign) {
+        if (c.restaurantId() != null) {
+            byRestaurant.computeIfAbsent(c.restaurantId(), k -> new Summary()).add(c.rating(), sign);
+        }
+        if (c.driverId() != null) {
+            byDriver.computeIfAbsent(c.driverId(), k -> new Summary()).add(c.rating(), sign);
+        }
+    }
+}
@@ -1,54 +1,81 @@
 package coursework.service;
 
 import coursework.model.Restaurant;
-import javafx.collections.FXCollections;
+import coursework.repository.InMemoryRepository;
+import coursework.repository.ListDispatcher;
 import javafx.collections.ObservableList;
 
-import java.util.Optional;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
 
 public class RestaurantService {
 
-    private final ObservableList<Restaurant> restaurants = FXCollections.observableArrayList();
-    private long idCounter = 1;
+    private final InMemoryRepository<Restaurant> restaurants;
+    private final LoginIndex logins;
+
+    public RestaurantService() {
+        this(ListDispatcher.FX, new AtomicLong(1), new LoginIndex());
+    }
+
+    // vartotojai, restoranai ir driveriai gali dalintis viena id seka ir vienu login'ų indeksu
+    public RestaurantService(ListDispatcher dispatcher, AtomicLong idSequence, LoginIndex logins) {
+        this.restaurants = new InMemoryRepository<>(Restaurant::getId, dispatcher, idSequence);
+        this.logins = logins;
+        restaurants.addListener(logins);
+    }
 
     public Restaurant createRestaurant(String login, String password, String name, String surname,
                                        String phoneNumber, String address) {
 
         Restaurant r = new Restaurant();
-        r.setId(idCounter++);
+        r.setId(restaurants.nextId());
         r.setLogin(login);
-        r.setPassword(password);
+        r.setPassword(Passwords.hash(password));
         r.setName(name);
         r.setSurname(surname);
         r.setPhoneNumber(phoneNumber);
         r.setAddress(address);
 
-        restaurants.add(r);
+        // login'as unikalus visiems User tipams – užimtas: IllegalArgumentException
+        logins.claimed(r, () -> {
+            restaurants.add(r);
+            return true;
+        });
         return r;
     }
 
+    // masinis importas: id priskiriami čia, sąrašas gauna vieną pakeitimą visam batch'ui
+    public void addRestaurants(List<Restaurant> batch) {
+        for (Restaurant r : batch) {
+            r.setId(restaurants.nextId());
+        }
+        logins.claimedAll(batch, () -> restaurants.addAll(batch));
+    }
+
     public ObservableList<Restaurant> getAllRestaurants() {
-        return restaurants;
+        return restaurants.getAll();
     }
 
     public Restaurant findById(long id) {
-        Optional<Restaurant> result = restaurants.stream()
-                .filter(r -> r.getId() == id)
-                .findFirst();
-        return result.orElse(null);
+        return restaurants.findById(id);
     }
 
     public boolean updateRestaurant(Restaurant updated) {
-        for (int i = 0; i < restaurants.size(); i++) {
-            if (restaurants.get(i).getId() == updated.getId()) {
-                restaurants.set(i, updated);
-                return true;
-            }
-        }
-        return false;
+        return logins.claimed(updated, () -> restaurants.update(updated));
     }
 
     public boolean deleteRestaurant(long id) {
-        return restaurants.removeIf(r -> r.getId() == id);
+        return restaurants.delete(id);
+    }
+
+    // persistence sluoksniui (log'as, snapshot'ai)
+    public InMemoryRepository<Restaurant> getRepository() {
+        return restaurants;
+    }
+
+    // bendras visiems User tipams (unikalumo patikrinimas formose, importas)
+    public LoginIndex getLogins() {
+        return logins;
     }
 }
@@ -4,15 +4,25 @@ import coursework.model.BasicUser;
 import coursework.model.Driver;
 import coursework.model.Restaurant;
 import coursework.model.Review;
-import javafx.collections.FXCollections;
+import coursework.repository.InMemoryRepository;
+import coursework.repository.ListDispatcher;
 import javafx.collections.ObservableList;
 
 import java.time.LocalDateTime;
 
 public class ReviewService {
 
-    private final ObservableList<Review> reviews = FXCollections.observableArrayList();
-    private int idCounter = 1;
+    private final InMemoryRepository<Review> reviews;
+    private final RatingAggregates ratings = new RatingAggregates();
+
+    public ReviewService() {
+        this(ListDispatcher.FX);
+    }
+
+    public ReviewService(ListDispatcher dispatcher) {
+        this.reviews = new InMemoryRepository<>(Review::getId, dispatcher);
+        reviews.addListener(ratings);
+    }
 
     public Review createReview(BasicUser commentOwner,
                                BasicUser feedbackUser,
@@ -21,8 +31,9 @@ public class ReviewService {
                                int rating,
                                String text) {
 
+        checkRating(rating);
         Review r = new Review();
-        r.setId(idCounter++); // in-memory ID
+        r.setId(Math.toIntExact(reviews.nextId())); // in-memory ID
         r.setCommentOwner(commentOwner);
         r.setFeedbackUser(feedbackUser);
         r.setRestaurant(restaurant);
@@ -37,20 +48,40 @@ public class ReviewService {
     }
 
     public ObservableList<Review> getAllReviews() {
-        return reviews;
+        return reviews.getAll();
+    }
+
+    public Review findById(int id) {
+        return reviews.findById(id);
+    }
+
+    // O(1) – iš palaikomų agregatų, ne skenuojant visus review
+    public RatingAggregates.Summary getRestaurantRating(Restaurant restaurant) {
+        return ratings.forRestaurant(restaurant.getId());
+    }
+
+    public RatingAggregates.Summary getDriverRating(Driver driver) {
+        return ratings.forDriver(driver.getId());
     }
 
     public boolean updateReview(Review updated) {
-        for (int i = 0; i < reviews.size(); i++) {
-            if (reviews.get(i).getId() == updated.getId()) {
-                reviews.set(i, updated);
-                return true;
-            }
-        }
-        return false;
+        checkRating(updated.getRating());
+        return reviews.update(updated);
     }
 
     public boolean deleteReview(int id) {
-        return reviews.removeIf(r -> r.getId() == id);
+        return reviews.delete(id);
+    }
+
+    // ne 1..5 – IllegalArgumentException (kitaip iškreiptų vidurkį ir histogramą)
+    public static void checkRating(int rating) {
+        if (rating < RatingAggregates.MIN_RATING || rating > RatingAggregates.MAX_RATING) {
+            throw new IllegalArgumentException("Rating must be 1-5.");
+        }
+    }
+
+    // persistence sluoksniui (log'as, snapshot'ai)
+    public InMemoryRepository<Review> getRepository() {
+        return reviews;
     }
 }
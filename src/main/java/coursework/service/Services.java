@@ -0,0 +1,63 @@
+package coursework.service;
+
+import coursework.geo.Gazetteer;
+import coursework.repository.FrameDispatcher;
+import coursework.repository.ListDispatcher;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Visi servisai vienoje vietoje – kad juos galėtų kartu naudoti UI, persistence ir pan.
+@Getter
+public class Services {
+
+    // visa User hierarchija – viena id erdvė (JPA režime tai viena lentelė)
+    @Getter(AccessLevel.NONE)
+    private final AtomicLong userIds = new AtomicLong(1);
+    // ir viena login'ų erdvė (User.login unikalus)
+    private final LoginIndex logins = new LoginIndex();
+
+    private final BasicUserService basicUserService;
+    private final RestaurantService restaurantService;
+    private final DriverService driverService;
+    private final CuisineService cuisineService;
+    private final OrderService orderService;
+    private final ReviewService reviewService;
+    private final ChatService chatService;
+    private final GeoService geoService;
+    private final PricingService pricingService;
+    private final AuthService authService;
+    // paleidžiama (start) tik atkūrus būseną
+    private final DispatchService dispatchService;
+
+    // JavaFX: visų repository pakeitimai iš kitų gijų į FX giją – ne dažniau nei kartą per kadrą
+    public Services() {
+        this(new FrameDispatcher(ListDispatcher.FX));
+    }
+
+    public Services(ListDispatcher dispatcher) {
+        this.basicUserService = new BasicUserService(dispatcher, userIds, logins);
+        this.restaurantService = new RestaurantService(dispatcher, userIds, logins);
+        this.driverService = new DriverService(dispatcher, userIds, logins);
+        this.cuisineService = new CuisineService(dispatcher);
+        this.orderService = new OrderService(dispatcher);
+        restaurantService.getRepository().addListener(orderService.getRollups().restaurantListener());
+        this.reviewService = new ReviewService(dispatcher);
+        this.chatService = new ChatService(dispatcher, orderService);
+        this.geoService = new GeoService(gazetteer(), basicUserService, restaurantService, driverService);
+        this.pricingService = new PricingService(cuisineService, PricingService.Rules.fromSystemProperties());
+        this.authService = new AuthService(logins, basicUserService, restaurantService, driverService);
+        this.dispatchService = new DispatchService(orderService, driverService, geoService);
+    }
+
+    private static Gazetteer gazetteer() {
+        try {
+            return Gazetteer.load();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}